@@ -36,7 +36,7 @@ public interface UnearthlyApi {
     String ping();
 
     @POST("catch")
-    Submission throwable(String throwable);
+    Submission throwable(CharSequence throwable);
 
     @GET("fault/{}")
     Optional<FaultDto> fault(
@@ -34,6 +34,7 @@ tasks.withType<ShadowJar>() {
 dependencies {
     implementation(project(":unearth-norest"))
     implementation(project(":unearth-api"))
+    implementation(project(":unearth-munch"))
 
     implementation("com.fasterxml.jackson.datatype:jackson-datatype-jdk8")
     implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310")
@@ -0,0 +1,99 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.client.main;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import unearth.client.UnearthlyClient;
+import unearth.munch.model.Fault;
+import unearth.munch.parser.LogScanner;
+
+/**
+ * Backfills the stack traces in a log file, plain or gzipped, into a server.
+ * <p>
+ * Usage: {@code Backfill <server uri> <log file> [batch size]}
+ * <p>
+ * This is a stopgap: each fault is posted on its own, as a {@link Fault#toChameleon() re-created throwable}, since
+ * the server has no bulk submission.  The faults are therefore stored with the time of the backfill, not the time
+ * they were logged.
+ */
+public final class Backfill {
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: Backfill <server uri> <log file> [batch size]");
+        }
+        URI uri = URI.create(args[0]);
+        Path log = Path.of(args[1]);
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_BATCH_SIZE;
+
+        UnearthlyClient client = UnearthlyClient.connect(uri);
+        LogScanner scanner = LogScanner.create();
+        ExecutorService executor = Executors.newFixedThreadPool(SUBMITTERS);
+        long submitted = 0;
+        try (Stream<Fault> faults = scanner.faults(log)) {
+            List<Fault> batch = new ArrayList<>(batchSize);
+            for (Fault fault: (Iterable<Fault>) faults::iterator) {
+                batch.add(fault);
+                if (batch.size() == batchSize) {
+                    submitted += submit(client, executor, batch);
+                    System.err.println(log + ": " + submitted + " submitted");
+                }
+            }
+            submitted += submit(client, executor, batch);
+        } finally {
+            executor.shutdown();
+        }
+        System.out.println(log + ": " + submitted + " submitted, " + scanner.getUnparsed() + " unparsed");
+    }
+
+    private static final int DEFAULT_BATCH_SIZE = 1_000;
+
+    private static final int SUBMITTERS = 8;
+
+    /**
+     * Submits the batch concurrently, and waits for all of it before clearing it.
+     */
+    private static int submit(UnearthlyClient client, ExecutorService executor, List<Fault> batch) {
+        List<Future<?>> submissions = batch.stream()
+            .map(fault -> executor.submit(() -> client.submit(fault.toChameleon())))
+            .collect(Collectors.toList());
+        for (Future<?> submission: submissions) {
+            try {
+                submission.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to submit", e.getCause());
+            }
+        }
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+}
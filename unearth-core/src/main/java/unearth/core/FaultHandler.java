@@ -17,6 +17,8 @@
 
 package unearth.core;
 
+import unearth.munch.model.Fault;
+
 public interface FaultHandler extends AutoCloseable {
     
     @Override
@@ -28,4 +30,13 @@ public interface FaultHandler extends AutoCloseable {
     }
     
     HandlingPolicy handle(Throwable throwable, String logMessage, Object... args);
+    
+    default HandlingPolicy handle(Fault fault) {
+        return handle(fault, null);
+    }
+    
+    /**
+     * Handles a fault that was created already, such as one parsed from a submitted stack trace.
+     */
+    HandlingPolicy handle(Fault fault, String logMessage, Object... args);
 }
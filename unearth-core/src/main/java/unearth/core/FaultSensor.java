@@ -17,6 +17,8 @@
 
 package unearth.core;
 
+import java.util.List;
+
 import unearth.munch.model.FeedEntry;
 
 public interface FaultSensor extends AutoCloseable {
@@ -26,4 +28,10 @@ public interface FaultSensor extends AutoCloseable {
     }
     
     void register(FeedEntry feedEntry);
+    
+    default void register(List<FeedEntry> feedEntries) {
+        for (FeedEntry feedEntry: feedEntries) {
+            register(feedEntry);
+        }
+    }
 }
@@ -0,0 +1,241 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.core.handler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import unearth.core.HandlingPolicy.Action;
+import unearth.core.stats.BucketRing;
+import unearth.munch.id.FaultStrandId;
+
+/**
+ * Picks actions from per-strand rates kept in memory.  A strand is logged in full when first seen and again when
+ * {@link #withFullLogInterval(Duration) the interval} has passed, otherwise by how many times it was seen in
+ * the window: {@link Action#LOG_SHORT short} up to the {@link #withShortLimit(int) short limit}, {@link
+ * Action#LOG_MESSAGES messages only} up to the {@link #withMessagesLimit(int) messages limit}, and {@link
+ * Action#LOG_ID by id} beyond.
+ * <p>
+ * Rates are kept in a concurrent map, so counting a strand takes no lock.  When the map holds more than {@link
+ * #withStrands(int) the number of strands}, the least recently seen quarter are forgotten in one sweep.
+ */
+public final class AdaptiveActions {
+    
+    public static AdaptiveActions create() {
+        return new AdaptiveActions(
+            DEFAULT_BUCKET,
+            DEFAULT_BUCKETS,
+            DEFAULT_FULL_LOG_INTERVAL,
+            DEFAULT_SHORT_LIMIT,
+            DEFAULT_MESSAGES_LIMIT,
+            DEFAULT_STRANDS);
+    }
+    
+    private final Duration bucket;
+    
+    private final int buckets;
+    
+    private final Duration fullLogInterval;
+    
+    private final long bucketMillis;
+    
+    private final long fullLogMillis;
+    
+    private final int shortLimit;
+    
+    private final int messagesLimit;
+    
+    private final int strands;
+    
+    private final ConcurrentMap<FaultStrandId, Rate> rates = new ConcurrentHashMap<>();
+    
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    
+    private AdaptiveActions(
+        Duration bucket,
+        int buckets,
+        Duration fullLogInterval,
+        int shortLimit,
+        int messagesLimit,
+        int strands
+    ) {
+        this.bucket = Objects.requireNonNull(bucket, "bucket");
+        this.bucketMillis = bucket.toMillis();
+        if (bucketMillis < 1) {
+            throw new IllegalArgumentException("Invalid bucket: " + bucket);
+        }
+        if (buckets < 1) {
+            throw new IllegalArgumentException("Invalid bucket count: " + buckets);
+        }
+        this.buckets = buckets;
+        this.fullLogInterval = Objects.requireNonNull(fullLogInterval, "fullLogInterval");
+        this.fullLogMillis = fullLogInterval.toMillis();
+        if (shortLimit < 0 || messagesLimit < shortLimit) {
+            throw new IllegalArgumentException("Invalid limits: " + shortLimit + "/" + messagesLimit);
+        }
+        this.shortLimit = shortLimit;
+        this.messagesLimit = messagesLimit;
+        if (strands < 1) {
+            throw new IllegalArgumentException("Invalid strand count: " + strands);
+        }
+        this.strands = strands;
+    }
+    
+    /**
+     * @param bucket Length of a bucket
+     * @param buckets Number of buckets in the window
+     */
+    public AdaptiveActions withWindow(Duration bucket, int buckets) {
+        return new AdaptiveActions(bucket, buckets, fullLogInterval, shortLimit, messagesLimit, strands);
+    }
+    
+    public AdaptiveActions withFullLogInterval(Duration fullLogInterval) {
+        return new AdaptiveActions(bucket, buckets, fullLogInterval, shortLimit, messagesLimit, strands);
+    }
+    
+    public AdaptiveActions withShortLimit(int shortLimit) {
+        return new AdaptiveActions(bucket, buckets, fullLogInterval, shortLimit, messagesLimit, strands);
+    }
+    
+    public AdaptiveActions withMessagesLimit(int messagesLimit) {
+        return new AdaptiveActions(bucket, buckets, fullLogInterval, shortLimit, messagesLimit, strands);
+    }
+    
+    /**
+     * @param strands Number of strands to keep rates for, least recently seen are forgotten
+     */
+    public AdaptiveActions withStrands(int strands) {
+        return new AdaptiveActions(bucket, buckets, fullLogInterval, shortLimit, messagesLimit, strands);
+    }
+    
+    /**
+     * Counts an occurrence of the strand, and picks an action for it.
+     *
+     * @param faultStrandId Strand
+     * @param time Time of occurrence
+     * @return Action
+     */
+    public Action action(FaultStrandId faultStrandId, Instant time) {
+        long millis = time.toEpochMilli();
+        Rate rate = rates.get(faultStrandId);
+        if (rate == null) {
+            rate = rates.computeIfAbsent(faultStrandId, __ -> new Rate(buckets, millis));
+            if (rates.size() > strands) {
+                evict();
+            }
+        }
+        int count = rate.increment(millis / bucketMillis, millis);
+        if (rate.fullLog(millis, fullLogMillis)) {
+            return Action.LOG;
+        }
+        if (count <= shortLimit) {
+            return Action.LOG_SHORT;
+        }
+        if (count <= messagesLimit) {
+            return Action.LOG_MESSAGES;
+        }
+        return Action.LOG_ID;
+    }
+    
+    /**
+     * @return Occurrences of the strand in the window ending at the given time
+     */
+    public int getCount(FaultStrandId faultStrandId, Instant time) {
+        Rate rate = rates.get(faultStrandId);
+        return rate == null ? 0 : rate.count(time.toEpochMilli() / bucketMillis);
+    }
+    
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int excess = rates.size() - (strands - strands / 4);
+            if (excess > 0) {
+                rates.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().getLastSeen()))
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList())
+                    .forEach(rates::remove);
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+    
+    private static final Duration DEFAULT_BUCKET = Duration.ofSeconds(1);
+    
+    private static final int DEFAULT_BUCKETS = 60;
+    
+    private static final Duration DEFAULT_FULL_LOG_INTERVAL = Duration.ofMinutes(5);
+    
+    private static final int DEFAULT_SHORT_LIMIT = 10;
+    
+    private static final int DEFAULT_MESSAGES_LIMIT = 100;
+    
+    private static final int DEFAULT_STRANDS = 10_000;
+    
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + buckets + "x" + bucketMillis + "ms " +
+               "short:" + shortLimit + " messages:" + messagesLimit + " full:" + fullLogMillis + "ms " +
+               "strands:" + rates.size() + "/" + strands + "]";
+    }
+    
+    private static final class Rate {
+        
+        private final BucketRing ring;
+        
+        private final AtomicLong lastFullLog = new AtomicLong(Long.MIN_VALUE);
+        
+        private volatile long lastSeen;
+        
+        private Rate(int buckets, long millis) {
+            this.ring = BucketRing.create(buckets);
+            this.lastSeen = millis;
+        }
+        
+        private int increment(long bucket, long millis) {
+            ring.increment(bucket);
+            lastSeen = millis;
+            return count(bucket);
+        }
+        
+        private long getLastSeen() {
+            return lastSeen;
+        }
+        
+        private int count(long bucket) {
+            return (int) Math.min(ring.count(bucket - ring.getBuckets() + 1, bucket + 1), Integer.MAX_VALUE);
+        }
+        
+        private boolean fullLog(long millis, long interval) {
+            long last = lastFullLog.get();
+            return (last == Long.MIN_VALUE || millis - last >= interval) && lastFullLog.compareAndSet(last, millis);
+        }
+    }
+}
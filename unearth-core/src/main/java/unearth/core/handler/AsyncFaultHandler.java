@@ -0,0 +1,335 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.core.handler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import unearth.core.FaultHandler;
+import unearth.core.FaultSensor;
+import unearth.core.FaultStorage;
+import unearth.core.HandlingPolicy;
+import unearth.core.HandlingPolicy.Action;
+import unearth.munch.model.Fault;
+import unearth.munch.model.FaultStrandCache;
+import unearth.munch.model.FeedEntry;
+import unearth.munch.model.LogEntry;
+
+/**
+ * Queues faults for a writer thread, which takes them off the queue in batches, stores them one by one, and then
+ * feeds the sensor the stored entries of the batch.  Policies are returned before storage, so they carry fault and
+ * fault strand ids, but no {@link HandlingPolicy#getFeedEntry() feed entry} or sequence numbers.  The storage times
+ * the entry when it is written.
+ * <p>
+ * Faults are admitted under a read lock, and {@link #close() closing} takes the write lock, so a fault is either
+ * queued before the handler closes or refused.  Should the writer stop early, the handler closes, and whatever is
+ * left in the queue is stored by the closing thread.
+ */
+public final class AsyncFaultHandler implements FaultHandler {
+    
+    public enum Overflow {
+        
+        /**
+         * Wait for room in the queue.
+         */
+        BLOCK,
+        
+        /**
+         * Drop the event when the queue is full.
+         */
+        DROP_NEWEST,
+        
+        /**
+         * Admit every {@link #SAMPLE_RATE}th event when the queue is more than half full, drop when full.
+         */
+        SAMPLE
+    }
+    
+    private static final Logger log = LoggerFactory.getLogger(AsyncFaultHandler.class);
+    
+    private final FaultStorage storage;
+    
+    private final FaultSensor sensor;
+    
+    private final Clock clock;
+    
+    private final FaultStrandCache faultStrandCache;
+    
+    private final AdaptiveActions actions;
+    
+    private final Overflow overflow;
+    
+    private final int batchSize;
+    
+    private final BlockingQueue<Queued> queue;
+    
+    private final Thread writer;
+    
+    private final AtomicBoolean closed = new AtomicBoolean();
+    
+    private final ReadWriteLock admission = new ReentrantReadWriteLock();
+    
+    private final LongAdder submitted = new LongAdder();
+    
+    private final LongAdder dropped = new LongAdder();
+    
+    private final LongAdder stored = new LongAdder();
+    
+    private final LongAdder failed = new LongAdder();
+    
+    private volatile long lastLagMillis;
+    
+    public AsyncFaultHandler(FaultStorage storage, FaultSensor sensor, Clock clock) {
+        this(
+            storage,
+            sensor,
+            clock,
+            new FaultStrandCache(DEFAULT_FAULT_STRAND_CACHE_SIZE),
+            DEFAULT_CAPACITY,
+            DEFAULT_BATCH_SIZE,
+            Overflow.BLOCK,
+            null);
+    }
+    
+    /**
+     * @param actions Picks actions by strand rates, or null to always {@link Action#LOG log}
+     */
+    public AsyncFaultHandler(
+        FaultStorage storage,
+        FaultSensor sensor,
+        Clock clock,
+        FaultStrandCache faultStrandCache,
+        int capacity,
+        int batchSize,
+        Overflow overflow,
+        AdaptiveActions actions
+    ) {
+        this.storage = Objects.requireNonNull(storage, "storage");
+        this.sensor = Objects.requireNonNull(sensor, "sensor");
+        this.clock = clock == null ? Clock.systemDefaultZone() : clock;
+        this.faultStrandCache = Objects.requireNonNull(faultStrandCache, "faultStrandCache");
+        this.overflow = Objects.requireNonNull(overflow, "overflow");
+        this.actions = actions;
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::write, "unearth-fault-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+    
+    @Override
+    public HandlingPolicy handle(Throwable throwable, String logMessage, Object... args) {
+        return enqueue(
+            logMessage == null ? null : LogEntry.create(logMessage, args),
+            throwable,
+            faultStrandCache.fault(throwable));
+    }
+    
+    @Override
+    public HandlingPolicy handle(Fault fault, String logMessage, Object... args) {
+        return enqueue(
+            logMessage == null ? null : LogEntry.create(logMessage, args),
+            null,
+            fault);
+    }
+    
+    /**
+     * Stops accepting faults, waits for the writer to store those already queued, and stores any it left behind.
+     */
+    @Override
+    public void close() {
+        Lock lock = admission.writeLock();
+        lock.lock();
+        try {
+            closed.set(true);
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(this + " interrupted while draining", e);
+        }
+        drain();
+    }
+    
+    public int getQueueDepth() {
+        return queue.size();
+    }
+    
+    /**
+     * @return How long the oldest queued fault has waited, or the last stored one waited if the queue is empty
+     */
+    public Duration getLag() {
+        Queued oldest = queue.peek();
+        return oldest == null
+            ? Duration.ofMillis(lastLagMillis)
+            : Duration.ofMillis(Math.max(0L, clock.millis() - oldest.queuedMillis()));
+    }
+    
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+    
+    public long getDropped() {
+        return dropped.sum();
+    }
+    
+    public long getStored() {
+        return stored.sum();
+    }
+    
+    public long getFailed() {
+        return failed.sum();
+    }
+    
+    private HandlingPolicy enqueue(LogEntry logEntry, Throwable throwable, Fault fault) {
+        long queuedMillis = clock.millis();
+        Lock lock = admission.readLock();
+        lock.lock();
+        try {
+            if (closed.get()) {
+                throw new IllegalStateException(this + " is closed");
+            }
+            long count = submitted.sum();
+            submitted.increment();
+            if (!admitted(new Queued(queuedMillis, fault, logEntry, throwable), count)) {
+                dropped.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return new SimpleHandlingPolicy(fault)
+            .withSummary(DefaultFaultHandler.summary(fault))
+            .withAction(DefaultFaultHandler.action(
+                actions,
+                fault.getFaultStrand().getId(),
+                Instant.ofEpochMilli(queuedMillis)));
+    }
+    
+    private boolean admitted(Queued queued, long count) {
+        if (overflow == Overflow.BLOCK) {
+            try {
+                queue.put(queued);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        if (overflow == Overflow.SAMPLE && queue.remainingCapacity() < queue.size() && count % SAMPLE_RATE != 0) {
+            return false;
+        }
+        return queue.offer(queued);
+    }
+    
+    private void write() {
+        List<Queued> batch = new ArrayList<>(batchSize);
+        try {
+            while (!(closed.get() && queue.isEmpty())) {
+                try {
+                    Queued first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                } catch (InterruptedException e) {
+                    log.warn("{} interrupted, draining {} queued", this, queue.size());
+                    closed.set(true);
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                write(batch);
+                batch.clear();
+            }
+        } finally {
+            closed.set(true);
+        }
+    }
+    
+    private void drain() {
+        List<Queued> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+    
+    private void write(List<Queued> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<FeedEntry> entries = new ArrayList<>(batch.size());
+        for (Queued queued: batch) {
+            try {
+                entries.add(storage.store(queued.logEntry(), queued.fault(), queued.throwable()));
+                stored.increment();
+            } catch (Throwable e) {
+                failed.increment();
+                log.warn("Failed to store {}", queued.fault(), e);
+            }
+        }
+        lastLagMillis = Math.max(0L, clock.millis() - batch.get(batch.size() - 1).queuedMillis());
+        if (!entries.isEmpty()) {
+            try {
+                sensor.register(entries);
+            } catch (Throwable e) {
+                log.warn("Failed to register {} entries", entries.size(), e);
+            }
+        }
+    }
+    
+    private static final int DEFAULT_FAULT_STRAND_CACHE_SIZE = 1000;
+    
+    private static final int DEFAULT_CAPACITY = 10_000;
+    
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    
+    private static final int SAMPLE_RATE = 10;
+    
+    private static final long POLL_MILLIS = 100L;
+    
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + overflow + " " + queue.size() + "/" +
+               (queue.size() + queue.remainingCapacity()) + " stored:" + stored + " dropped:" + dropped + "]";
+    }
+    
+    private record Queued(long queuedMillis, Fault fault, LogEntry logEntry, Throwable throwable) {
+    }
+}
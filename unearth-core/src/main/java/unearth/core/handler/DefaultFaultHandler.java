@@ -18,6 +18,8 @@
 package unearth.core.handler;
 
 import java.time.Clock;
+import java.time.Instant;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import unearth.core.FaultHandler;
@@ -26,8 +28,11 @@ import unearth.core.FaultStats;
 import unearth.core.FaultStorage;
 import unearth.core.HandlingPolicy;
 import unearth.core.HandlingPolicy.Action;
+import unearth.munch.id.FaultStrandId;
 import unearth.munch.model.Cause;
 import unearth.munch.model.Fault;
+import unearth.munch.model.FaultEvent;
+import unearth.munch.model.FaultStrandCache;
 import unearth.munch.model.FeedEntry;
 import unearth.munch.model.LogEntry;
 
@@ -41,24 +46,89 @@ public class DefaultFaultHandler implements FaultHandler {
     
     private final Clock clock;
     
+    private final FaultStrandCache faultStrandCache;
+    
+    private final AdaptiveActions actions;
+    
+    private final ThrowableWindow throwables;
+    
     public DefaultFaultHandler(
         FaultStorage storage,
         FaultSensor sensor,
         FaultStats stats,
         Clock clock
+    ) {
+        this(
+            storage,
+            sensor,
+            stats,
+            clock,
+            new FaultStrandCache(DEFAULT_FAULT_STRAND_CACHE_SIZE),
+            null,
+            null);
+    }
+    
+    private DefaultFaultHandler(
+        FaultStorage storage,
+        FaultSensor sensor,
+        FaultStats stats,
+        Clock clock,
+        FaultStrandCache faultStrandCache,
+        AdaptiveActions actions,
+        ThrowableWindow throwables
     ) {
         this.storage = storage;
         this.sensor = sensor;
         this.stats = stats;
         this.clock = clock == null ? Clock.systemDefaultZone() : clock;
+        this.faultStrandCache = Objects.requireNonNull(faultStrandCache, "faultStrandCache");
+        this.actions = actions;
+        this.throwables = throwables;
+    }
+    
+    public DefaultFaultHandler withFaultStrandCache(FaultStrandCache faultStrandCache) {
+        return new DefaultFaultHandler(storage, sensor, stats, clock, faultStrandCache, actions, throwables);
+    }
+    
+    /**
+     * @param actions Picks actions by strand rates, or null to always {@link Action#LOG log}
+     */
+    public DefaultFaultHandler withActions(AdaptiveActions actions) {
+        return new DefaultFaultHandler(storage, sensor, stats, clock, faultStrandCache, actions, throwables);
+    }
+    
+    /**
+     * @param throwables Recently handled throwables, or null to make a fault of every throwable
+     */
+    public DefaultFaultHandler withThrowables(ThrowableWindow throwables) {
+        return new DefaultFaultHandler(storage, sensor, stats, clock, faultStrandCache, actions, throwables);
     }
     
     @Override
     public HandlingPolicy handle(Throwable throwable, String logMessage, Object... args) {
+        long millis = clock.millis();
+        ThrowableWindow.Recent recent = throwables == null ? null : throwables.recent(throwable, millis);
+        if (recent != null && throwables.isFolding() && recent.getFeedEntry() != null) {
+            throwables.remember(throwable, recent.getFault(), recent.getFeedEntry(), millis);
+            return basePolicy(recent.getFeedEntry(), recent.getFault()).withAction(Action.LOG_ID);
+        }
         HandlingPolicy store = store(
             logMessage == null ? null : LogEntry.create(logMessage, args),
             throwable,
-            Fault.create(throwable));
+            recent == null ? faultStrandCache.fault(throwable) : recent.getFault());
+        sensor.register(store.getFeedEntry());
+        if (throwables != null) {
+            throwables.remember(throwable, store.getFault(), store.getFeedEntry(), millis);
+        }
+        return store;
+    }
+    
+    @Override
+    public HandlingPolicy handle(Fault fault, String logMessage, Object... args) {
+        HandlingPolicy store = store(
+            logMessage == null ? null : LogEntry.create(logMessage, args),
+            null,
+            fault);
         sensor.register(store.getFeedEntry());
         return store;
     }
@@ -69,13 +139,23 @@ public class DefaultFaultHandler implements FaultHandler {
         Fault fault
     ) {
         FeedEntry entry = storage.store(logEntry, fault, throwable);
-        return basePolicy(entry, fault).withAction(Action.LOG);
+        FaultEvent event = entry.getFaultEvent();
+        return basePolicy(entry, fault).withAction(action(actions, event.getFaultStrandId(), event.getTime()));
     }
     
+    private static final int DEFAULT_FAULT_STRAND_CACHE_SIZE = 1000;
+    
     private static SimpleHandlingPolicy basePolicy(FeedEntry entry, Fault fault) {
-        return new SimpleHandlingPolicy(entry, fault)
-            .withSummary(fault.getCauses().stream()
-                .map(Cause::getMessage)
-                .collect(Collectors.joining(" <- ")));
+        return new SimpleHandlingPolicy(entry, fault).withSummary(summary(fault));
+    }
+    
+    static Action action(AdaptiveActions actions, FaultStrandId faultStrandId, Instant time) {
+        return actions == null ? Action.LOG : actions.action(faultStrandId, time);
+    }
+    
+    static String summary(Fault fault) {
+        return fault.getCauses().stream()
+            .map(Cause::getMessage)
+            .collect(Collectors.joining(" <- "));
     }
 }
@@ -38,6 +38,13 @@ class SimpleHandlingPolicy implements HandlingPolicy {
         this(null, feedEntry, fault, null);
     }
     
+    /**
+     * A policy for a fault not yet stored, with no feed entry or sequence numbers.
+     */
+    SimpleHandlingPolicy(Fault fault) {
+        this(null, null, fault, null);
+    }
+    
     private SimpleHandlingPolicy(
         String summary,
         FeedEntry feedEntry,
@@ -62,17 +69,17 @@ class SimpleHandlingPolicy implements HandlingPolicy {
     
     @Override
     public FaultStrandId getFaultStrandId() {
-        return feedEntry.getFaultEvent().getFaultStrandId();
+        return feedEntry == null ? fault.getFaultStrand().getId() : feedEntry.getFaultEvent().getFaultStrandId();
     }
     
     @Override
     public FaultId getFaultId() {
-        return feedEntry.getFaultEvent().getFaultId();
+        return feedEntry == null ? fault.getId() : feedEntry.getFaultEvent().getFaultId();
     }
     
     @Override
     public FeedEntryId getFeedEntryId() {
-        return feedEntry.getId();
+        return feedEntry == null ? null : feedEntry.getId();
     }
     
     @Override
@@ -87,17 +94,17 @@ class SimpleHandlingPolicy implements HandlingPolicy {
     
     @Override
     public long getGlobalSequence() {
-        return feedEntry.getGlobalSequenceNo();
+        return feedEntry == null ? -1L : feedEntry.getGlobalSequenceNo();
     }
     
     @Override
     public long getFaultStrandSequence() {
-        return feedEntry.getFaultStrandSequenceNo();
+        return feedEntry == null ? -1L : feedEntry.getFaultStrandSequenceNo();
     }
     
     @Override
     public long getFaultSequence() {
-        return feedEntry.getFaultSequenceNo();
+        return feedEntry == null ? -1L : feedEntry.getFaultSequenceNo();
     }
     
     SimpleHandlingPolicy withSummary(String summary) {
@@ -0,0 +1,146 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.core.handler;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import unearth.munch.model.Fault;
+import unearth.munch.model.FeedEntry;
+
+/**
+ * Remembers the faults of throwables handled recently, so a throwable logged again as it propagates is not
+ * turned into a fault anew.  If {@link #folding() folding}, the repeat is not stored either, but answered with the
+ * feed entry of the last time, to be {@link unearth.core.HandlingPolicy.Action#LOG_ID logged by id}.  Throwables
+ * are held weakly, and forgotten when not handled for the window's duration.
+ * <p>
+ * Throwables are spread by identity over a number of stripes, each a weak map guarded by its own lock.
+ */
+public final class ThrowableWindow {
+    
+    public static ThrowableWindow create(Duration window) {
+        return new ThrowableWindow(window, false);
+    }
+    
+    private final long windowMillis;
+    
+    private final boolean folding;
+    
+    private final Map<Throwable, Recent>[] stripes;
+    
+    private final LongAdder hits = new LongAdder();
+    
+    private final LongAdder misses = new LongAdder();
+    
+    @SuppressWarnings("unchecked")
+    private ThrowableWindow(Duration window, boolean folding) {
+        this.windowMillis = Objects.requireNonNull(window, "window").toMillis();
+        if (windowMillis < 1) {
+            throw new IllegalArgumentException("Invalid window: " + window);
+        }
+        this.folding = folding;
+        this.stripes = (Map<Throwable, Recent>[]) new Map<?, ?>[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new WeakHashMap<>();
+        }
+    }
+    
+    /**
+     * @return A window which folds repeats into the last feed entry
+     */
+    public ThrowableWindow folding() {
+        return new ThrowableWindow(Duration.ofMillis(windowMillis), true);
+    }
+    
+    public boolean isFolding() {
+        return folding;
+    }
+    
+    public long getHits() {
+        return hits.sum();
+    }
+    
+    public long getMisses() {
+        return misses.sum();
+    }
+    
+    /**
+     * @return The throwable's fault and last feed entry, if handled within the window, or null
+     */
+    Recent recent(Throwable throwable, long millis) {
+        Map<Throwable, Recent> stripe = stripe(throwable);
+        synchronized (stripe) {
+            Recent found = stripe.get(throwable);
+            if (found != null && millis - found.millis <= windowMillis) {
+                hits.increment();
+                return found;
+            }
+            if (found != null) {
+                stripe.remove(throwable);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+    
+    void remember(Throwable throwable, Fault fault, FeedEntry feedEntry, long millis) {
+        Map<Throwable, Recent> stripe = stripe(throwable);
+        synchronized (stripe) {
+            stripe.put(throwable, new Recent(fault, feedEntry, millis));
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + windowMillis + "ms" + (folding ? " folding" : "") +
+               " hits:" + hits + " misses:" + misses + "]";
+    }
+    
+    private Map<Throwable, Recent> stripe(Throwable throwable) {
+        int hash = System.identityHashCode(throwable);
+        return stripes[(hash ^ hash >>> 16) & STRIPES - 1];
+    }
+    
+    private static final int STRIPES = 16;
+    
+    static final class Recent {
+        
+        private final Fault fault;
+        
+        private final FeedEntry feedEntry;
+        
+        private final long millis;
+        
+        private Recent(Fault fault, FeedEntry feedEntry, long millis) {
+            this.fault = fault;
+            this.feedEntry = feedEntry;
+            this.millis = millis;
+        }
+        
+        Fault getFault() {
+            return fault;
+        }
+        
+        FeedEntry getFeedEntry() {
+            return feedEntry;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.core.sensor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import unearth.core.FaultSensor;
+import unearth.munch.model.FeedEntry;
+
+/**
+ * Fans feed entries out to sensors, each through its own {@link Lane lane}: a bounded queue and a worker that
+ * registers batches with the sensor.  Registering never blocks; a lane with a full queue drops the entry.
+ * <p>
+ * A lane admits entries under a read lock, and closing takes the write lock, so an entry is either queued before
+ * the lane closes or dropped.  Closing waits {@link #withCloseTimeout(Duration) a while} for the worker to drain the
+ * queue, and counts what is left as dropped.
+ */
+public final class CompositeSensor implements FaultSensor {
+    
+    public static CompositeSensor create() {
+        return new CompositeSensor(List.of(), DEFAULT_CLOSE_TIMEOUT);
+    }
+    
+    private static final Logger log = LoggerFactory.getLogger(CompositeSensor.class);
+    
+    private final List<Lane> lanes;
+    
+    private final Duration closeTimeout;
+    
+    private CompositeSensor(List<Lane> lanes, Duration closeTimeout) {
+        this.lanes = List.copyOf(lanes);
+        this.closeTimeout = Objects.requireNonNull(closeTimeout, "closeTimeout");
+    }
+    
+    public CompositeSensor with(FaultSensor sensor) {
+        return with(sensor, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+    
+    /**
+     * @return A sensor with the lanes of this one, and a new, started lane for the given sensor
+     */
+    public CompositeSensor with(FaultSensor sensor, int capacity, int batchSize) {
+        List<Lane> lanes = new ArrayList<>(this.lanes);
+        lanes.add(new Lane(sensor, capacity, batchSize));
+        return new CompositeSensor(lanes, closeTimeout);
+    }
+    
+    /**
+     * @param closeTimeout How long closing waits for each lane to drain
+     */
+    public CompositeSensor withCloseTimeout(Duration closeTimeout) {
+        return new CompositeSensor(lanes, closeTimeout);
+    }
+    
+    @Override
+    public void register(FeedEntry feedEntry) {
+        for (Lane lane: lanes) {
+            lane.offer(feedEntry);
+        }
+    }
+    
+    /**
+     * Stops the lanes, waiting for each to drain its queue, and closes their sensors.
+     */
+    @Override
+    public void close() {
+        for (Lane lane: lanes) {
+            lane.close(closeTimeout);
+        }
+    }
+    
+    public List<Lane> getLanes() {
+        return lanes;
+    }
+    
+    private static final int DEFAULT_CAPACITY = 10_000;
+    
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    
+    private static final long POLL_MILLIS = 100L;
+    
+    private static final Duration DEFAULT_CLOSE_TIMEOUT = Duration.ofSeconds(10);
+    
+    private static final AtomicInteger LANE_COUNT = new AtomicInteger();
+    
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + lanes.stream().map(Lane::toString).collect(Collectors.joining(", ", "[", "]"));
+    }
+    
+    public static final class Lane {
+        
+        private final FaultSensor sensor;
+        
+        private final int batchSize;
+        
+        private final BlockingQueue<FeedEntry> queue;
+        
+        private final Thread worker;
+        
+        private final AtomicBoolean closed = new AtomicBoolean();
+        
+        private final AtomicBoolean stopped = new AtomicBoolean();
+        
+        private final ReadWriteLock admission = new ReentrantReadWriteLock();
+        
+        private final LongAdder registered = new LongAdder();
+        
+        private final LongAdder dropped = new LongAdder();
+        
+        private final LongAdder failed = new LongAdder();
+        
+        private final LongAdder batches = new LongAdder();
+        
+        private final LongAdder nanos = new LongAdder();
+        
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+        
+        private Lane(FaultSensor sensor, int capacity, int batchSize) {
+            this.sensor = Objects.requireNonNull(sensor, "sensor");
+            if (capacity < 1) {
+                throw new IllegalArgumentException("Invalid capacity: " + capacity);
+            }
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+            }
+            this.batchSize = batchSize;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.worker = new Thread(this::work, "unearth-sensor-" + LANE_COUNT.incrementAndGet());
+            this.worker.setDaemon(true);
+            this.worker.start();
+        }
+        
+        public FaultSensor getSensor() {
+            return sensor;
+        }
+        
+        public int getQueueDepth() {
+            return queue.size();
+        }
+        
+        public long getRegistered() {
+            return registered.sum();
+        }
+        
+        public long getDropped() {
+            return dropped.sum();
+        }
+        
+        public long getFailed() {
+            return failed.sum();
+        }
+        
+        /**
+         * @return Mean time spent registering a batch with the sensor
+         */
+        public Duration getMeanLatency() {
+            long count = batches.sum();
+            return Duration.ofNanos(count == 0 ? 0L : nanos.sum() / count);
+        }
+        
+        /**
+         * @return Longest time spent registering a batch with the sensor
+         */
+        public Duration getMaxLatency() {
+            return Duration.ofNanos(maxNanos.get());
+        }
+        
+        /**
+         * Drops the entry if the lane is closing, rather than wait for it.
+         */
+        private void offer(FeedEntry feedEntry) {
+            Lock lock = admission.readLock();
+            if (!lock.tryLock()) {
+                dropped.increment();
+                return;
+            }
+            try {
+                if (closed.get() || !queue.offer(feedEntry)) {
+                    dropped.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        
+        private void close(Duration timeout) {
+            Lock lock = admission.writeLock();
+            lock.lock();
+            try {
+                closed.set(true);
+            } finally {
+                lock.unlock();
+            }
+            if (!stopped.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                worker.join(timeout.toMillis());
+                if (worker.isAlive()) {
+                    log.warn("{} did not drain in {}, dropping {} queued", this, timeout, queue.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(this + " interrupted while draining", e);
+            } finally {
+                dropped.add(queue.drainTo(new ArrayList<>()));
+                sensor.close();
+            }
+        }
+        
+        private void work() {
+            List<FeedEntry> batch = new ArrayList<>(batchSize);
+            while (!(closed.get() && queue.isEmpty())) {
+                try {
+                    FeedEntry first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                } catch (InterruptedException e) {
+                    log.warn("{} interrupted, draining {} queued", this, queue.size());
+                    closed.set(true);
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                if (!batch.isEmpty()) {
+                    register(batch);
+                    batch.clear();
+                }
+            }
+        }
+        
+        private void register(List<FeedEntry> batch) {
+            long start = System.nanoTime();
+            try {
+                sensor.register(batch);
+                registered.add(batch.size());
+            } catch (Exception e) {
+                failed.add(batch.size());
+                log.warn("{} failed to register {} entries", this, batch.size(), e);
+            } finally {
+                long time = System.nanoTime() - start;
+                batches.increment();
+                nanos.add(time);
+                maxNanos.accumulate(time);
+            }
+        }
+        
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "[" + sensor + " " + queue.size() + "/" +
+                   (queue.size() + queue.remainingCapacity()) + " registered:" + registered +
+                   " dropped:" + dropped + " failed:" + failed + "]";
+        }
+    }
+}
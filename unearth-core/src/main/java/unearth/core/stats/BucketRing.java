@@ -0,0 +1,110 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.core.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free counts for a ring of time buckets.  Each slot packs its bucket number above a saturating count, so a
+ * slot left over from an earlier round is recognized and restarted.  With more than one stripe, threads count in
+ * different slots for the same bucket.
+ */
+public final class BucketRing {
+    
+    public static BucketRing create(int buckets) {
+        return create(buckets, 1);
+    }
+    
+    public static BucketRing create(int buckets, int stripes) {
+        return new BucketRing(buckets, stripes);
+    }
+    
+    private final int buckets;
+    
+    private final int stripes;
+    
+    private final AtomicLongArray slots;
+    
+    private BucketRing(int buckets, int stripes) {
+        if (buckets < 1) {
+            throw new IllegalArgumentException("Invalid bucket count: " + buckets);
+        }
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Invalid stripe count: " + stripes);
+        }
+        this.buckets = buckets;
+        this.stripes = stripes;
+        this.slots = new AtomicLongArray(buckets * stripes);
+    }
+    
+    public void increment(long bucket) {
+        int index = (int) (bucket % buckets) * stripes + (int) (Thread.currentThread().getId() % stripes);
+        long epoch = bucket & EPOCH_MASK;
+        while (true) {
+            long slot = slots.get(index);
+            long updated = slot >>> COUNT_BITS == epoch
+                ? Math.min(slot + 1, epoch << COUNT_BITS | COUNT_MASK)
+                : epoch << COUNT_BITS | 1;
+            if (slots.compareAndSet(index, slot, updated)) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * @param from First bucket
+     * @param to Bucket after the last, buckets before {@code to - buckets} are no longer counted
+     * @return Count in the buckets
+     */
+    public long count(long from, long to) {
+        long first = Math.max(from, to - buckets);
+        long span = to - first;
+        if (span <= 0) {
+            return 0L;
+        }
+        long count = 0L;
+        for (int i = 0; i < slots.length(); i++) {
+            long slot = slots.get(i);
+            if (((slot >>> COUNT_BITS) - first & EPOCH_MASK) < span) {
+                count += slot & COUNT_MASK;
+            }
+        }
+        return count;
+    }
+    
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, 0L);
+        }
+    }
+    
+    public int getBuckets() {
+        return buckets;
+    }
+    
+    private static final int COUNT_BITS = 24;
+    
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    
+    private static final long EPOCH_MASK = -1L >>> COUNT_BITS;
+    
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + buckets + "x" + stripes + "]";
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.core.stats;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import unearth.core.FaultSensor;
+import unearth.core.FaultStats;
+import unearth.munch.id.FaultId;
+import unearth.munch.id.FaultStrandId;
+import unearth.munch.model.FeedEntry;
+import unearth.util.LruCache;
+
+/**
+ * Stats kept in memory, for the feed entries {@link #register(FeedEntry) registered} with it.  Counts since a
+ * time within the window, and last entries, are answered from time buckets per fault and fault strand.  Other
+ * queries, queries for ids no longer or not yet in memory, and counts since before an id was last taken into memory,
+ * go to the fallback stats, if any.
+ * <p>
+ * Buckets only give exact counts between bucket boundaries, so counts since a time that is not on a boundary, or
+ * for an interval that does not end on one, also go to the fallback.  Without a fallback, such counts include the
+ * whole buckets at the edges, and so may count entries up to a bucket before and after the interval.
+ */
+public final class WindowedStats implements FaultStats, FaultSensor {
+    
+    public static WindowedStats create(FaultStats fallback) {
+        return create(fallback, Clock.systemDefaultZone());
+    }
+    
+    public static WindowedStats create(FaultStats fallback, Clock clock) {
+        return new WindowedStats(fallback, clock, DEFAULT_BUCKET, DEFAULT_BUCKETS, DEFAULT_IDS);
+    }
+    
+    private final FaultStats fallback;
+    
+    private final Clock clock;
+    
+    private final Duration bucket;
+    
+    private final long bucketMillis;
+    
+    private final int buckets;
+    
+    private final int ids;
+    
+    private final Tally total;
+    
+    private final LruCache<FaultId, Tally> faults;
+    
+    private final LruCache<FaultStrandId, Tally> faultStrands;
+    
+    private WindowedStats(FaultStats fallback, Clock clock, Duration bucket, int buckets, int ids) {
+        this.fallback = fallback;
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.bucket = Objects.requireNonNull(bucket, "bucket");
+        this.bucketMillis = bucket.toMillis();
+        if (bucketMillis < 1) {
+            throw new IllegalArgumentException("Invalid bucket: " + bucket);
+        }
+        this.buckets = buckets;
+        this.ids = ids;
+        this.total = new Tally(BucketRing.create(buckets, STRIPES), clock.millis());
+        this.faults = LruCache.create(ids);
+        this.faultStrands = LruCache.create(ids);
+    }
+    
+    /**
+     * @param bucket Length of a bucket
+     * @param buckets Number of buckets in the window
+     */
+    public WindowedStats withWindow(Duration bucket, int buckets) {
+        return new WindowedStats(fallback, clock, bucket, buckets, ids);
+    }
+    
+    /**
+     * @param ids Number of faults, and of fault strands, to keep stats for, least recently seen are evicted
+     */
+    public WindowedStats withIds(int ids) {
+        return new WindowedStats(fallback, clock, bucket, buckets, ids);
+    }
+    
+    @Override
+    public void register(FeedEntry feedEntry) {
+        long bucket = feedEntry.getFaultEvent().getTime().toEpochMilli() / bucketMillis;
+        total.add(bucket, feedEntry);
+        faults.computeIfAbsent(feedEntry.getFaultEvent().getFaultId(), this::tally).add(bucket, feedEntry);
+        faultStrands.computeIfAbsent(feedEntry.getFaultEvent().getFaultStrandId(), this::tally).add(bucket, feedEntry);
+    }
+    
+    @Override
+    public Optional<FeedEntry> getLastFeedEntry(FaultId id, Instant sinceTime) {
+        return last(faults.get(id), sinceTime, null, () -> fallback.getLastFeedEntry(id, sinceTime));
+    }
+    
+    @Override
+    public Optional<FeedEntry> getLastFeedEntry(FaultStrandId id, Instant sinceTime) {
+        return last(faultStrands.get(id), sinceTime, null, () -> fallback.getLastFeedEntry(id, sinceTime));
+    }
+    
+    @Override
+    public Optional<FeedEntry> getLastFeedEntry(FaultId id, Instant sinceTime, Long ceiling) {
+        return last(faults.get(id), sinceTime, ceiling, () -> fallback.getLastFeedEntry(id, sinceTime, ceiling));
+    }
+    
+    @Override
+    public long getFeedEntryCount(Instant sinceTime, Duration interval) {
+        return count(total, sinceTime, interval, () -> fallback.getFeedEntryCount(sinceTime, interval));
+    }
+    
+    @Override
+    public long getFeedEntryCount(FaultStrandId id, Instant sinceTime, Duration interval) {
+        return count(faultStrands.get(id), sinceTime, interval, () ->
+            fallback.getFeedEntryCount(id, sinceTime, interval));
+    }
+    
+    @Override
+    public long getFeedEntryCount(FaultId id, Instant sinceTime, Duration interval) {
+        return count(faults.get(id), sinceTime, interval, () -> fallback.getFeedEntryCount(id, sinceTime, interval));
+    }
+    
+    @Override
+    public List<FeedEntry> getFeed(FaultStrandId id, Instant sinceTime, Duration period) {
+        return requiredFallback().getFeed(id, sinceTime, period);
+    }
+    
+    @Override
+    public List<FeedEntry> getFeed(Instant sinceTime, Duration period) {
+        return requiredFallback().getFeed(sinceTime, period);
+    }
+    
+    @Override
+    public List<FeedEntry> getFeed(FaultId id, Instant sinceTime, Duration period) {
+        return requiredFallback().getFeed(id, sinceTime, period);
+    }
+    
+    /**
+     * Forgets what was registered, leaving the fallback alone.
+     */
+    @Override
+    public void reset() {
+        total.clear(clock.millis());
+        faults.clear();
+        faultStrands.clear();
+    }
+    
+    @Override
+    public void close() {
+    }
+    
+    private Tally tally(Object __) {
+        return new Tally(BucketRing.create(buckets), clock.millis());
+    }
+    
+    private long count(Tally tally, Instant sinceTime, Duration interval, Supplier<Long> fallbackCount) {
+        if (sinceTime == null) {
+            if (fallback != null) {
+                return fallbackCount.get();
+            }
+            return tally == null ? 0L : tally.getTotal();
+        }
+        long sinceMillis = sinceTime.toEpochMilli();
+        long untilMillis = interval == null ? -1L : sinceTime.plus(interval).toEpochMilli();
+        long from = Math.floorDiv(sinceMillis, bucketMillis);
+        long now = Math.floorDiv(clock.millis(), bucketMillis);
+        boolean exact = onBoundary(sinceMillis) && (interval == null || onBoundary(untilMillis));
+        if (tally == null || from <= now - buckets || sinceMillis < tally.getStart() || !exact) {
+            if (fallback != null) {
+                return fallbackCount.get();
+            }
+            if (tally == null) {
+                return 0L;
+            }
+        }
+        long to = interval == null
+            ? now + 1
+            : -Math.floorDiv(-untilMillis, bucketMillis);
+        return tally.count(from, to);
+    }
+    
+    private boolean onBoundary(long millis) {
+        return Math.floorMod(millis, bucketMillis) == 0L;
+    }
+    
+    private Optional<FeedEntry> last(
+        Tally tally,
+        Instant sinceTime,
+        Long ceiling,
+        Supplier<Optional<FeedEntry>> fallbackLast
+    ) {
+        FeedEntry last = tally == null ? null : tally.getLast();
+        if (last == null || ceiling != null && last.getGlobalSequenceNo() > ceiling) {
+            return fallback == null ? Optional.empty() : fallbackLast.get();
+        }
+        return sinceTime == null || !last.getFaultEvent().getTime().isBefore(sinceTime)
+            ? Optional.of(last)
+            : Optional.empty();
+    }
+    
+    private FaultStats requiredFallback() {
+        if (fallback == null) {
+            throw new IllegalStateException(this + " has no feed without fallback stats");
+        }
+        return fallback;
+    }
+    
+    private static final Duration DEFAULT_BUCKET = Duration.ofSeconds(10);
+    
+    private static final int DEFAULT_BUCKETS = 360;
+    
+    private static final int DEFAULT_IDS = 10_000;
+    
+    private static final int STRIPES = 8;
+    
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + buckets + "x" + bucket + " faults:" + faults +
+               " faultStrands:" + faultStrands + (fallback == null ? "" : " fallback:" + fallback) + "]";
+    }
+    
+    private static final class Tally {
+        
+        private final BucketRing ring;
+        
+        private final LongAdder total = new LongAdder();
+        
+        private final AtomicReference<FeedEntry> last = new AtomicReference<>();
+        
+        /**
+         * Time since which all entries are registered here.  Earlier ones may be stored, but are not counted.
+         */
+        private volatile long start;
+        
+        private Tally(BucketRing ring, long start) {
+            this.ring = ring;
+            this.start = start;
+        }
+        
+        private void add(long bucket, FeedEntry feedEntry) {
+            ring.increment(bucket);
+            total.increment();
+            last.accumulateAndGet(feedEntry, Tally::later);
+        }
+        
+        private long count(long from, long to) {
+            return ring.count(from, to);
+        }
+        
+        private long getTotal() {
+            return total.sum();
+        }
+        
+        private FeedEntry getLast() {
+            return last.get();
+        }
+        
+        private long getStart() {
+            return start;
+        }
+        
+        private void clear(long start) {
+            this.start = start;
+            ring.clear();
+            last.set(null);
+            total.reset();
+        }
+        
+        private static FeedEntry later(FeedEntry current, FeedEntry candidate) {
+            return current == null || current.getGlobalSequenceNo() < candidate.getGlobalSequenceNo()
+                ? candidate
+                : current;
+        }
+    }
+}
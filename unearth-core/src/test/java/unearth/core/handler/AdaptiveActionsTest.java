@@ -0,0 +1,124 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.core.handler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+import unearth.core.HandlingPolicy.Action;
+import unearth.munch.id.FaultStrandId;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveActionsTest {
+
+    private final AdaptiveActions actions = AdaptiveActions.create()
+        .withWindow(Duration.ofSeconds(1), 10)
+        .withFullLogInterval(Duration.ofMinutes(1))
+        .withShortLimit(3)
+        .withMessagesLimit(5);
+
+    @Test
+    public void escalatesWithRate() {
+        FaultStrandId id = new FaultStrandId(UUID.randomUUID());
+        List<Action> picked = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            picked.add(actions.action(id, Instant.ofEpochMilli(i)));
+        }
+        assertEquals(
+            List.of(
+                Action.LOG,
+                Action.LOG_SHORT,
+                Action.LOG_SHORT,
+                Action.LOG_MESSAGES,
+                Action.LOG_MESSAGES,
+                Action.LOG_ID,
+                Action.LOG_ID),
+            picked);
+    }
+
+    @Test
+    public void strandsAreCountedApart() {
+        FaultStrandId id1 = new FaultStrandId(UUID.randomUUID());
+        FaultStrandId id2 = new FaultStrandId(UUID.randomUUID());
+        assertEquals(Action.LOG, actions.action(id1, Instant.EPOCH));
+        assertEquals(Action.LOG, actions.action(id2, Instant.EPOCH));
+        assertEquals(Action.LOG_SHORT, actions.action(id1, Instant.EPOCH));
+    }
+
+    @Test
+    public void windowSlides() {
+        FaultStrandId id = new FaultStrandId(UUID.randomUUID());
+        for (int i = 0; i < 10; i++) {
+            actions.action(id, Instant.ofEpochMilli(i * 100L));
+        }
+        assertEquals(10, actions.getCount(id, Instant.ofEpochMilli(900L)));
+        assertEquals(Action.LOG_ID, actions.action(id, Instant.ofEpochSecond(5)));
+        assertEquals(1, actions.getCount(id, Instant.ofEpochSecond(10)));
+        assertEquals(Action.LOG_SHORT, actions.action(id, Instant.ofEpochSecond(15)));
+        assertEquals(0, actions.getCount(id, Instant.ofEpochSecond(30)));
+    }
+
+    @Test
+    public void logsInFullAfterInterval() {
+        FaultStrandId id = new FaultStrandId(UUID.randomUUID());
+        for (int i = 0; i < 10; i++) {
+            actions.action(id, Instant.ofEpochMilli(i));
+        }
+        assertEquals(Action.LOG_ID, actions.action(id, Instant.ofEpochSecond(5)));
+        assertEquals(Action.LOG, actions.action(id, Instant.ofEpochSecond(60)));
+        assertEquals(Action.LOG_SHORT, actions.action(id, Instant.ofEpochSecond(61)));
+    }
+
+    @Test
+    public void forgetsLeastRecentlySeen() {
+        AdaptiveActions actions = this.actions.withStrands(4);
+        List<FaultStrandId> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            FaultStrandId id = new FaultStrandId(UUID.randomUUID());
+            ids.add(id);
+            actions.action(id, Instant.ofEpochMilli(i));
+        }
+        assertEquals(0, actions.getCount(ids.get(0), Instant.ofEpochMilli(10)));
+        assertEquals(0, actions.getCount(ids.get(1), Instant.ofEpochMilli(10)));
+        for (int i = 2; i < 5; i++) {
+            assertEquals(1, actions.getCount(ids.get(i), Instant.ofEpochMilli(10)));
+        }
+    }
+
+    @Test
+    public void countsConcurrently() throws InterruptedException {
+        FaultStrandId id = new FaultStrandId(UUID.randomUUID());
+        CountDownLatch done = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    actions.action(id, Instant.EPOCH);
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        assertEquals(40_000, actions.getCount(id, Instant.EPOCH));
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.core.handler;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import unearth.core.FaultSensor;
+import unearth.core.FaultStorage;
+import unearth.core.HandlingPolicy;
+import unearth.munch.id.CauseId;
+import unearth.munch.id.CauseStrandId;
+import unearth.munch.id.FaultId;
+import unearth.munch.id.FaultStrandId;
+import unearth.munch.id.FeedEntryId;
+import unearth.munch.model.Cause;
+import unearth.munch.model.CauseStrand;
+import unearth.munch.model.Fault;
+import unearth.munch.model.FaultEvent;
+import unearth.munch.model.FaultStrand;
+import unearth.munch.model.FaultStrandCache;
+import unearth.munch.model.FeedEntry;
+import unearth.munch.model.LogEntry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncFaultHandlerTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneId.of("UTC"));
+
+    @Test
+    public void returnsIdsBeforeStoring() {
+        GatedStorage storage = new GatedStorage();
+        List<FeedEntry> sensed = new CopyOnWriteArrayList<>();
+        Fault fault = Fault.create(new IllegalStateException("argh"));
+        HandlingPolicy policy;
+        try (AsyncFaultHandler handler = handler(storage, sensed::add, 10, AsyncFaultHandler.Overflow.BLOCK)) {
+            policy = handler.handle(fault);
+            assertEquals(fault.getId(), policy.getFaultId());
+            assertEquals(fault.getFaultStrand().getId(), policy.getFaultStrandId());
+            assertNull(policy.getFeedEntry());
+            assertNull(policy.getFeedEntryId());
+            assertEquals(-1L, policy.getGlobalSequence());
+            assertEquals("argh", policy.getSummary());
+            assertTrue(sensed.isEmpty());
+            storage.open();
+        }
+        assertEquals(1, storage.stored.size());
+        assertEquals(1, sensed.size());
+        assertEquals(policy.getFaultId(), sensed.get(0).getFaultEvent().getFaultId());
+    }
+
+    @Test
+    public void drainsOnClose() {
+        GatedStorage storage = new GatedStorage();
+        List<FeedEntry> sensed = new CopyOnWriteArrayList<>();
+        AsyncFaultHandler handler = handler(storage, sensed::add, 100, AsyncFaultHandler.Overflow.BLOCK);
+        for (int i = 0; i < 50; i++) {
+            handler.handle(new IllegalStateException("argh " + i));
+        }
+        storage.open();
+        handler.close();
+        assertEquals(50, storage.stored.size());
+        assertEquals(50, sensed.size());
+        assertEquals(50, handler.getStored());
+        assertEquals(0, handler.getQueueDepth());
+        assertEquals(0, handler.getDropped());
+    }
+
+    @Test
+    public void dropsNewestWhenFull() {
+        GatedStorage storage = new GatedStorage();
+        AsyncFaultHandler handler = handler(storage, __ -> {
+        }, 4, AsyncFaultHandler.Overflow.DROP_NEWEST);
+        for (int i = 0; i < 20; i++) {
+            handler.handle(new IllegalStateException("argh " + i));
+        }
+        // Besides a full queue, the writer may hold a batch drained from it, and block on it
+        assertTrue(handler.getDropped() >= 20 - (2 * 4 + 1));
+        assertTrue(handler.getQueueDepth() <= 4);
+        storage.open();
+        handler.close();
+        assertEquals(20, handler.getStored() + handler.getDropped());
+        assertEquals(handler.getStored(), storage.stored.size());
+    }
+
+    @Test
+    public void samplesWhenFilling() {
+        GatedStorage storage = new GatedStorage();
+        AsyncFaultHandler handler = handler(storage, __ -> {
+        }, 100, AsyncFaultHandler.Overflow.SAMPLE);
+        for (int i = 0; i < 200; i++) {
+            handler.handle(new IllegalStateException("argh " + i));
+        }
+        assertTrue(handler.getQueueDepth() < 100);
+        assertTrue(handler.getQueueDepth() > 50);
+        storage.open();
+        handler.close();
+        assertEquals(200, handler.getStored() + handler.getDropped());
+    }
+
+    @Test
+    public void survivesErrorsInStorage() {
+        GatedStorage storage = new GatedStorage().failing(3);
+        List<FeedEntry> sensed = new CopyOnWriteArrayList<>();
+        AsyncFaultHandler handler = handler(storage, sensed::add, 100, AsyncFaultHandler.Overflow.BLOCK);
+        for (int i = 0; i < 10; i++) {
+            handler.handle(new IllegalStateException("argh " + i));
+        }
+        storage.open();
+        handler.close();
+        assertEquals(3, handler.getFailed());
+        assertEquals(7, handler.getStored());
+        assertEquals(7, sensed.size());
+        assertEquals(0, handler.getQueueDepth());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void refusesWhenClosed() {
+        AsyncFaultHandler handler = handler(new GatedStorage().open(), __ -> {
+        }, 10, AsyncFaultHandler.Overflow.BLOCK);
+        handler.close();
+        handler.handle(new IllegalStateException());
+    }
+
+    private static AsyncFaultHandler handler(
+        FaultStorage storage,
+        FaultSensor sensor,
+        int capacity,
+        AsyncFaultHandler.Overflow overflow
+    ) {
+        return new AsyncFaultHandler(storage, sensor, CLOCK, new FaultStrandCache(10), capacity, 10, overflow, null);
+    }
+
+    private static final class GatedStorage implements FaultStorage {
+
+        private final CountDownLatch gate = new CountDownLatch(1);
+
+        private final List<FeedEntry> stored = new CopyOnWriteArrayList<>();
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        GatedStorage open() {
+            gate.countDown();
+            return this;
+        }
+
+        GatedStorage failing(int count) {
+            failures.set(count);
+            return this;
+        }
+
+        @Override
+        public FeedEntry store(LogEntry logEntry, Fault fault, Throwable throwable) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            if (failures.getAndDecrement() > 0) {
+                throw new AssertionError("Failed to store " + fault);
+            }
+            long seq = stored.size();
+            FeedEntry entry = new FeedEntry(new FaultEvent(null, fault, logEntry, Instant.now(CLOCK)), seq, seq, seq);
+            stored.add(entry);
+            return entry;
+        }
+
+        @Override
+        public Optional<Fault> getFault(FaultId faultId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<FaultStrand> getFaultStrand(FaultStrandId faultStrandId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<FeedEntry> getFeedEntry(FeedEntryId faultEventId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<CauseStrand> getCauseStrand(CauseStrandId causeStrandId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Cause> getCause(CauseId causeId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public void reset() {
+        }
+    }
+}
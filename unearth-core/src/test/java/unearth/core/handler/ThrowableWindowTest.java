@@ -0,0 +1,199 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.core.handler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import unearth.core.FaultStorage;
+import unearth.core.HandlingPolicy;
+import unearth.core.HandlingPolicy.Action;
+import unearth.munch.id.CauseId;
+import unearth.munch.id.CauseStrandId;
+import unearth.munch.id.FaultId;
+import unearth.munch.id.FaultStrandId;
+import unearth.munch.id.FeedEntryId;
+import unearth.munch.model.Cause;
+import unearth.munch.model.CauseStrand;
+import unearth.munch.model.Fault;
+import unearth.munch.model.FaultEvent;
+import unearth.munch.model.FaultStrand;
+import unearth.munch.model.FeedEntry;
+import unearth.munch.model.LogEntry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+public class ThrowableWindowTest {
+
+    private final AtomicLong millis = new AtomicLong();
+
+    private final Clock clock = new Clock() {
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException(String.valueOf(zone));
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+    };
+
+    private final ListStorage storage = new ListStorage();
+
+    private final List<FeedEntry> sensed = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void reusesFault() {
+        ThrowableWindow window = ThrowableWindow.create(Duration.ofSeconds(1));
+        DefaultFaultHandler handler = handler(window);
+        Throwable throwable = new IllegalStateException("argh");
+
+        HandlingPolicy first = handler.handle(throwable, "layer 1");
+        millis.addAndGet(500);
+        HandlingPolicy second = handler.handle(throwable, "layer 2");
+
+        assertSame(first.getFault(), second.getFault());
+        assertEquals(2, storage.stored.size());
+        assertEquals(2, sensed.size());
+        assertEquals(1, window.getHits());
+    }
+
+    @Test
+    public void foldsRepeats() {
+        ThrowableWindow window = ThrowableWindow.create(Duration.ofSeconds(1)).folding();
+        DefaultFaultHandler handler = handler(window);
+        Throwable throwable = new IllegalStateException("argh");
+
+        HandlingPolicy first = handler.handle(throwable, "layer 1");
+        HandlingPolicy second = handler.handle(throwable, "layer 2");
+
+        assertEquals(Action.LOG, first.getAction());
+        assertEquals(Action.LOG_ID, second.getAction());
+        assertEquals(first.getFeedEntryId(), second.getFeedEntryId());
+        assertEquals(1, storage.stored.size());
+        assertEquals(1, sensed.size());
+    }
+
+    @Test
+    public void forgetsAfterWindow() {
+        ThrowableWindow window = ThrowableWindow.create(Duration.ofSeconds(1)).folding();
+        DefaultFaultHandler handler = handler(window);
+        Throwable throwable = new IllegalStateException("argh");
+
+        HandlingPolicy first = handler.handle(throwable);
+        millis.addAndGet(1001);
+        HandlingPolicy second = handler.handle(throwable);
+
+        assertNotEquals(first.getFeedEntryId(), second.getFeedEntryId());
+        assertEquals(Action.LOG, second.getAction());
+        assertEquals(2, storage.stored.size());
+        assertEquals(0, window.getHits());
+    }
+
+    @Test
+    public void foldingKeepsWindowOpen() {
+        ThrowableWindow window = ThrowableWindow.create(Duration.ofSeconds(1)).folding();
+        DefaultFaultHandler handler = handler(window);
+        Throwable throwable = new IllegalStateException("argh");
+
+        HandlingPolicy first = handler.handle(throwable);
+        millis.addAndGet(800);
+        handler.handle(throwable);
+        millis.addAndGet(800);
+        HandlingPolicy third = handler.handle(throwable);
+
+        assertEquals(Action.LOG_ID, third.getAction());
+        assertEquals(first.getFeedEntryId(), third.getFeedEntryId());
+        assertEquals(1, storage.stored.size());
+        assertEquals(2, window.getHits());
+    }
+
+    @Test
+    public void tellsThrowablesApart() {
+        ThrowableWindow window = ThrowableWindow.create(Duration.ofSeconds(1)).folding();
+        DefaultFaultHandler handler = handler(window);
+
+        handler.handle(new IllegalStateException("argh"));
+        handler.handle(new IllegalStateException("argh"));
+
+        assertEquals(2, storage.stored.size());
+        assertEquals(2, window.getMisses());
+    }
+
+    private DefaultFaultHandler handler(ThrowableWindow window) {
+        return new DefaultFaultHandler(storage, sensed::add, null, clock).withThrowables(window);
+    }
+
+    private final class ListStorage implements FaultStorage {
+
+        private final List<FeedEntry> stored = new CopyOnWriteArrayList<>();
+
+        @Override
+        public FeedEntry store(LogEntry logEntry, Fault fault, Throwable throwable) {
+            long seq = stored.size() + 1;
+            FeedEntry entry = new FeedEntry(new FaultEvent(null, fault, logEntry, clock.instant()), seq, seq, seq);
+            stored.add(entry);
+            return entry;
+        }
+
+        @Override
+        public Optional<Fault> getFault(FaultId faultId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<FaultStrand> getFaultStrand(FaultStrandId faultStrandId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<FeedEntry> getFeedEntry(FeedEntryId faultEventId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<CauseStrand> getCauseStrand(CauseStrandId causeStrandId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Cause> getCause(CauseId causeId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public void reset() {
+        }
+    }
+}
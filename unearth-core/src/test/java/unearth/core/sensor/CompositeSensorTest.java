@@ -0,0 +1,129 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.core.sensor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import unearth.core.FaultSensor;
+import unearth.munch.id.FaultId;
+import unearth.munch.id.FaultStrandId;
+import unearth.munch.model.FaultEvent;
+import unearth.munch.model.FeedEntry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompositeSensorTest {
+
+    @Test
+    public void fansOut() {
+        List<FeedEntry> left = new CopyOnWriteArrayList<>();
+        List<FeedEntry> right = new CopyOnWriteArrayList<>();
+        CompositeSensor sensor = CompositeSensor.create().with(left::add).with(right::add, 10, 3);
+        for (int i = 0; i < 10; i++) {
+            sensor.register(entry(i));
+        }
+        sensor.close();
+        assertEquals(10, left.size());
+        assertEquals(left, right);
+        assertEquals(10, sensor.getLanes().get(1).getRegistered());
+    }
+
+    @Test
+    public void stalledSensorIsIsolated() throws InterruptedException {
+        CountDownLatch stall = new CountDownLatch(1);
+        CountDownLatch seen = new CountDownLatch(20);
+        FaultSensor stalled = __ -> {
+            try {
+                stall.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        CompositeSensor sensor = CompositeSensor.create().with(stalled, 5, 1).with(__ -> seen.countDown());
+        for (int i = 0; i < 20; i++) {
+            sensor.register(entry(i));
+        }
+        assertTrue(seen.await(10, TimeUnit.SECONDS));
+
+        CompositeSensor.Lane lane = sensor.getLanes().get(0);
+        assertTrue(lane.getDropped() >= 14);
+        stall.countDown();
+        sensor.close();
+        assertEquals(20, lane.getRegistered() + lane.getDropped());
+        assertEquals(20, sensor.getLanes().get(1).getRegistered());
+        assertEquals(0, sensor.getLanes().get(1).getDropped());
+    }
+
+    @Test
+    public void closesStalledLanes() {
+        CountDownLatch stall = new CountDownLatch(1);
+        FaultSensor stalled = __ -> {
+            try {
+                stall.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        CompositeSensor sensor = CompositeSensor.create()
+            .with(stalled, 5, 1)
+            .withCloseTimeout(Duration.ofMillis(100));
+        try {
+            for (int i = 0; i < 10; i++) {
+                sensor.register(entry(i));
+            }
+            sensor.close();
+            CompositeSensor.Lane lane = sensor.getLanes().get(0);
+            assertEquals(0, lane.getQueueDepth());
+            assertTrue(lane.getDropped() >= 9);
+            sensor.register(entry(10));
+            assertTrue(lane.getDropped() >= 10);
+        } finally {
+            stall.countDown();
+        }
+    }
+
+    @Test
+    public void countsFailures() {
+        CompositeSensor sensor = CompositeSensor.create().with(__ -> {
+            throw new IllegalStateException("argh");
+        }, 10, 1);
+        sensor.register(entry(1));
+        sensor.register(entry(2));
+        sensor.close();
+        CompositeSensor.Lane lane = sensor.getLanes().get(0);
+        assertEquals(2, lane.getFailed());
+        assertEquals(0, lane.getRegistered());
+        assertTrue(lane.getMaxLatency().compareTo(lane.getMeanLatency()) >= 0);
+    }
+
+    private static FeedEntry entry(long seq) {
+        return new FeedEntry(
+            new FaultEvent(new FaultId(UUID.randomUUID()), new FaultStrandId(UUID.randomUUID()), Instant.EPOCH),
+            seq,
+            seq,
+            seq);
+    }
+}
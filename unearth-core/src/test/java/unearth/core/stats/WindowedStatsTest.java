@@ -0,0 +1,238 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.core.stats;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import unearth.core.FaultStats;
+import unearth.munch.id.FaultId;
+import unearth.munch.id.FaultStrandId;
+import unearth.munch.model.FaultEvent;
+import unearth.munch.model.FeedEntry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WindowedStatsTest {
+
+    private static final Instant NOW = Instant.parse("2020-01-01T12:00:00Z");
+
+    private final WindowedStats stats = WindowedStats.create(null, Clock.fixed(NOW, ZoneId.of("UTC")))
+        .withWindow(Duration.ofSeconds(1), 60);
+
+    private final FaultStrandId strand = new FaultStrandId(UUID.randomUUID());
+
+    private final FaultId fault1 = new FaultId(UUID.randomUUID());
+
+    private final FaultId fault2 = new FaultId(UUID.randomUUID());
+
+    private long seq;
+
+    @Test
+    public void countsInWindow() {
+        register(fault1, NOW.minusSeconds(30));
+        register(fault1, NOW.minusSeconds(20));
+        register(fault2, NOW.minusSeconds(10));
+        register(fault2, NOW);
+
+        assertEquals(4, stats.getFeedEntryCount(strand));
+        assertEquals(4, stats.getFeedEntryCount(NOW.minusSeconds(59), null));
+        assertEquals(2, stats.getFeedEntryCount(fault1, NOW.minusSeconds(30), null));
+        assertEquals(1, stats.getFeedEntryCount(fault1, NOW.minusSeconds(25), null));
+        assertEquals(2, stats.getFeedEntryCount(strand, NOW.minusSeconds(20), Duration.ofSeconds(15)));
+        assertEquals(1, stats.getFeedEntryCount(fault2, NOW, null));
+        assertEquals(0, stats.getFeedEntryCount(new FaultId(UUID.randomUUID()), NOW.minusSeconds(30), null));
+    }
+
+    @Test
+    public void forgetsOutsideWindow() {
+        register(fault1, NOW.minusSeconds(90));
+        register(fault1, NOW.minusSeconds(5));
+        assertEquals(1, stats.getFeedEntryCount(fault1, NOW.minusSeconds(59), null));
+        assertEquals(2, stats.getFeedEntryCount(fault1, null, null));
+    }
+
+    @Test
+    public void lastEntry() {
+        FeedEntry first = register(fault1, NOW.minusSeconds(20));
+        FeedEntry second = register(fault1, NOW.minusSeconds(10));
+        assertEquals(Optional.of(second), stats.getLastFeedEntry(fault1));
+        assertEquals(Optional.of(second), stats.getLastFeedEntry(strand));
+        assertEquals(Optional.of(second), stats.getLastFeedEntry(fault1, NOW.minusSeconds(10)));
+        assertEquals(Optional.empty(), stats.getLastFeedEntry(fault1, NOW.minusSeconds(5)));
+        assertEquals(Optional.empty(), stats.getLastFeedEntry(fault2));
+        assertTrue(first.getGlobalSequenceNo() < second.getGlobalSequenceNo());
+    }
+
+    @Test
+    public void evictsColdIds() {
+        WindowedStats small = stats.withIds(1);
+        FaultId other = new FaultId(UUID.randomUUID());
+        small.register(entry(fault1, NOW));
+        small.register(entry(other, NOW));
+        assertEquals(Optional.empty(), small.getLastFeedEntry(fault1));
+        assertEquals(1, small.getFeedEntryCount(other, NOW, null));
+    }
+
+    @Test
+    public void resets() {
+        register(fault1, NOW);
+        stats.reset();
+        assertEquals(0, stats.getFeedEntryCount(NOW.minusSeconds(10), null));
+        assertEquals(Optional.empty(), stats.getLastFeedEntry(fault1));
+    }
+
+    @Test
+    public void fallsBackBeforeStart() {
+        WindowedStats stats = WindowedStats.create(new StoredStats(), Clock.fixed(NOW, ZoneId.of("UTC")))
+            .withWindow(Duration.ofSeconds(1), 60);
+        stats.register(entry(fault1, NOW));
+
+        assertEquals(STORED, stats.getFeedEntryCount(NOW.minusSeconds(10), null));
+        assertEquals(STORED, stats.getFeedEntryCount(fault1, NOW.minusSeconds(10), null));
+        assertEquals(1, stats.getFeedEntryCount(NOW, null));
+        assertEquals(1, stats.getFeedEntryCount(fault1, NOW, null));
+
+        stats.reset();
+        assertEquals(STORED, stats.getFeedEntryCount(NOW.minusSeconds(10), null));
+    }
+
+    @Test
+    public void countsWholeBucketsWithoutFallback() {
+        register(fault1, NOW.minusSeconds(20).minusMillis(800));
+        register(fault1, NOW.minusSeconds(20).minusMillis(200));
+        register(fault1, NOW.minusSeconds(5).plusMillis(500));
+
+        assertEquals(3, stats.getFeedEntryCount(fault1, NOW.minusSeconds(21), Duration.ofSeconds(17)));
+        assertEquals(3, stats.getFeedEntryCount(fault1, NOW.minusSeconds(20).minusMillis(500), Duration.ofSeconds(16)));
+        assertEquals(2, stats.getFeedEntryCount(fault1, NOW.minusSeconds(21), Duration.ofSeconds(16)));
+    }
+
+    @Test
+    public void fallsBackOffBucketBoundaries() {
+        AtomicReference<Instant> now = new AtomicReference<>(NOW.minusSeconds(20));
+        WindowedStats stats = WindowedStats.create(new StoredStats(), clock(now))
+            .withWindow(Duration.ofSeconds(10), 6);
+        stats.register(entry(fault1, NOW.minusSeconds(15)));
+        now.set(NOW);
+
+        assertEquals(1, stats.getFeedEntryCount(fault1, NOW.minusSeconds(20), null));
+        assertEquals(1, stats.getFeedEntryCount(fault1, NOW.minusSeconds(20), Duration.ofSeconds(10)));
+        assertEquals(STORED, stats.getFeedEntryCount(fault1, NOW.minusSeconds(18), null));
+        assertEquals(STORED, stats.getFeedEntryCount(fault1, NOW.minusSeconds(20), Duration.ofSeconds(7)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void noFeedWithoutFallback() {
+        stats.getFeed(fault1);
+    }
+
+    private static final long STORED = 100L;
+
+    private FeedEntry register(FaultId faultId, Instant time) {
+        FeedEntry entry = entry(faultId, time);
+        stats.register(entry);
+        return entry;
+    }
+
+    private static Clock clock(AtomicReference<Instant> now) {
+        return new Clock() {
+
+            @Override
+            public ZoneId getZone() {
+                return ZoneId.of("UTC");
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                throw new UnsupportedOperationException(String.valueOf(zone));
+            }
+
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+        };
+    }
+
+    private FeedEntry entry(FaultId faultId, Instant time) {
+        long no = seq++;
+        return new FeedEntry(new FaultEvent(faultId, strand, time), no, no, no);
+    }
+
+    private static final class StoredStats implements FaultStats {
+
+        @Override
+        public Optional<FeedEntry> getLastFeedEntry(FaultId id, Instant sinceTime) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<FeedEntry> getLastFeedEntry(FaultStrandId id, Instant sinceTime) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<FeedEntry> getLastFeedEntry(FaultId id, Instant sinceTime, Long ceiling) {
+            return Optional.empty();
+        }
+
+        @Override
+        public long getFeedEntryCount(Instant sinceTime, Duration interval) {
+            return STORED;
+        }
+
+        @Override
+        public long getFeedEntryCount(FaultStrandId id, Instant sinceTime, Duration interval) {
+            return STORED;
+        }
+
+        @Override
+        public long getFeedEntryCount(FaultId id, Instant sinceTime, Duration interval) {
+            return STORED;
+        }
+
+        @Override
+        public List<FeedEntry> getFeed(FaultStrandId id, Instant sinceTime, Duration period) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<FeedEntry> getFeed(Instant sinceTime, Duration period) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<FeedEntry> getFeed(FaultId id, Instant sinceTime, Duration period) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void reset() {
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.hashable;
+
+import java.util.UUID;
+
+/**
+ * Encodes values into a small scratch buffer, and passes it on in chunks.
+ */
+abstract class AbstractHasher implements HashStrategy.Hasher {
+
+    private final byte[] scratch = new byte[SCRATCH];
+
+    private int position;
+
+    @Override
+    public final HashSink putBytes(byte[] bytes) {
+        flush();
+        update(bytes, 0, bytes.length);
+        return this;
+    }
+
+    @Override
+    public final HashSink putInt(int value) {
+        reserve(Integer.BYTES);
+        for (int shift = Integer.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+            scratch[position++] = (byte) (value >>> shift);
+        }
+        return this;
+    }
+
+    @Override
+    public final HashSink putLong(long value) {
+        reserve(Long.BYTES);
+        for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+            scratch[position++] = (byte) (value >>> shift);
+        }
+        return this;
+    }
+
+    @Override
+    public final HashSink putChars(CharSequence chars) {
+        if (chars == null) {
+            return this;
+        }
+        int length = chars.length();
+        for (int i = 0; i < length; i++) {
+            reserve(4);
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                scratch[position++] = (byte) c;
+            } else if (c < 0x800) {
+                scratch[position++] = (byte) (0xC0 | c >> 6);
+                scratch[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+                    scratch[position++] = (byte) (0xF0 | codePoint >> 18);
+                    scratch[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    scratch[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    scratch[position++] = (byte) (0x80 | codePoint & 0x3F);
+                } else {
+                    scratch[position++] = MALFORMED;
+                }
+            } else {
+                scratch[position++] = (byte) (0xE0 | c >> 12);
+                scratch[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                scratch[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public final UUID digest() {
+        flush();
+        return finish();
+    }
+
+    protected abstract void update(byte[] bytes, int offset, int length);
+
+    /**
+     * @return The UUID of the bytes updated so far, after resetting
+     */
+    protected abstract UUID finish();
+
+    private void reserve(int bytes) {
+        if (position + bytes > SCRATCH) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (position > 0) {
+            update(scratch, 0, position);
+            position = 0;
+        }
+    }
+
+    private static final int SCRATCH = 64;
+
+    /**
+     * What {@link String#getBytes} substitutes for unpaired surrogates.
+     */
+    private static final byte MALFORMED = '?';
+}
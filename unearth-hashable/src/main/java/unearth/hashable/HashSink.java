@@ -0,0 +1,58 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.hashable;
+
+import java.util.UUID;
+
+/**
+ * Receives the fields of a {@link Hashable hashable}.  Numbers are fed as their big-endian bytes and strings as their
+ * UTF-8 bytes, so the stream is the same as with {@link java.nio.ByteBuffer} and {@link String#getBytes}, only
+ * without the intermediate arrays.
+ */
+public interface HashSink {
+
+    HashSink putBytes(byte[] bytes);
+
+    HashSink putInt(int value);
+
+    HashSink putLong(long value);
+
+    /**
+     * @param string String, skipped if null
+     * @return This sink
+     */
+    default HashSink putString(String string) {
+        return putChars(string);
+    }
+
+    /**
+     * Feeds the characters like {@link #putString(String)}, without turning them into a string first.
+     *
+     * @param chars Characters, skipped if null
+     * @return This sink
+     */
+    HashSink putChars(CharSequence chars);
+
+    default HashSink putBoolean(boolean value) {
+        return putInt(value ? 1 : 0);
+    }
+
+    default HashSink putUuid(UUID uuid) {
+        return putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.hashable;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the {@link HashStrategy hash strategy} in use.  It defaults to {@link #murmur3() murmur3}, and can be
+ * set with the {@value #PROPERTY} system property, or with {@link #use(HashStrategy)}.  Names are {@code md5} or
+ * {@code murmur3}, optionally prefixed with {@value #MERKLE_PREFIX} to opt in to {@link #merkle(HashStrategy) merkle}
+ * hashing.
+ * <p>
+ * Hashables cache their hash, so the strategy should be set before any are created.  Use {@link #md5() md5} with
+ * storage populated by earlier versions, or migrate it.  Merkle ids differ from the plain ones, so switching to or
+ * from merkle hashing also needs a fresh or migrated storage.
+ */
+public final class HashStrategies {
+
+    public static final String PROPERTY = "unearth.hash";
+
+    public static HashStrategy md5() {
+        return MD5;
+    }
+
+    public static HashStrategy murmur3() {
+        return MURMUR3;
+    }
+
+    public static HashStrategy merkle(HashStrategy strategy) {
+        return Objects.requireNonNull(strategy, "strategy").isMerkle() ? strategy : new MerkleHashStrategy(strategy);
+    }
+
+    public static HashStrategy current() {
+        return CURRENT.get();
+    }
+
+    public static HashStrategy use(HashStrategy strategy) {
+        return CURRENT.getAndSet(Objects.requireNonNull(strategy, "strategy"));
+    }
+
+    public static HashStrategy named(String name) {
+        if (name == null || name.isBlank()) {
+            return MURMUR3;
+        }
+        String trimmed = name.trim().toLowerCase(Locale.ROOT);
+        return trimmed.startsWith(MERKLE_PREFIX)
+            ? merkle(basic(trimmed.substring(MERKLE_PREFIX.length())))
+            : basic(trimmed);
+    }
+
+    private HashStrategies() {
+    }
+
+    private static final String MERKLE_PREFIX = "merkle-";
+
+    private static HashStrategy basic(String name) {
+        if (name.equals(MURMUR3.getName())) {
+            return MURMUR3;
+        }
+        if (name.equals(MD5.getName())) {
+            return MD5;
+        }
+        throw new IllegalArgumentException("Unknown hash strategy: " + name);
+    }
+
+    private static final class MerkleHashStrategy implements HashStrategy {
+
+        private final HashStrategy strategy;
+
+        private MerkleHashStrategy(HashStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        @Override
+        public String getName() {
+            return MERKLE_PREFIX + strategy.getName();
+        }
+
+        @Override
+        public Hasher hasher() {
+            return strategy.hasher();
+        }
+
+        @Override
+        public boolean isMerkle() {
+            return true;
+        }
+    }
+
+    private static final HashStrategy MD5 = new Md5HashStrategy();
+
+    private static final HashStrategy MURMUR3 = new Murmur3HashStrategy();
+
+    private static final AtomicReference<HashStrategy> CURRENT =
+        new AtomicReference<>(named(System.getProperty(PROPERTY)));
+}
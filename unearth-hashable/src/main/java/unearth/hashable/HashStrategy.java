@@ -0,0 +1,59 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.hashable;
+
+import java.util.UUID;
+
+/**
+ * Computes the 128-bit identities of {@link AbstractHashable hashables}.  See {@link HashStrategies} for the
+ * built-in strategies and for how the current one is selected.
+ */
+public interface HashStrategy {
+
+    /**
+     * @return Name of the strategy, as used by the {@link HashStrategies#PROPERTY system property}
+     */
+    String getName();
+
+    /**
+     * @return A fresh hasher
+     */
+    Hasher hasher();
+
+    /**
+     * In merkle mode, a hashable feeds its own fields and the {@link Hashed#getHash() ids} of its children to the
+     * hasher, rather than walking the children's contents.  Each child is hashed once, and its id is then reused by
+     * all its parents.
+     *
+     * @return True if hashables should hash the ids of their children
+     */
+    default boolean isMerkle() {
+        return false;
+    }
+
+    /**
+     * Accumulates bytes and produces a UUID.
+     */
+    interface Hasher extends HashSink {
+
+        /**
+         * @return The UUID of the bytes accepted so far, after which the hasher is reset
+         */
+        UUID digest();
+    }
+}
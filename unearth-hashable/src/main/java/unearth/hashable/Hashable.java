@@ -16,9 +16,7 @@
  */
 package unearth.hashable;
 
-import java.util.function.Consumer;
-
 public interface Hashable extends Hashed {
 
-    void hashTo(Consumer<byte[]> h);
+    void hashTo(HashSink h);
 }
@@ -0,0 +1,73 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.hashable;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Per-thread hashers for the {@link HashStrategies#current() current strategy}, one per nesting level, since a
+ * hashable in {@link HashStrategy#isMerkle() merkle mode} computes its children's ids while it is being hashed.
+ */
+final class Hashers {
+
+    static UUID digest(Hashable hashable) {
+        return HASHERS.get().digestWith(HashStrategies.current(), hashable);
+    }
+
+    private HashStrategy strategy;
+
+    private final HashStrategy.Hasher[] hashers = new HashStrategy.Hasher[MAX_DEPTH];
+
+    private int depth;
+
+    private Hashers() {
+    }
+
+    private UUID digestWith(HashStrategy current, Hashable hashable) {
+        if (depth == 0 && current != strategy) {
+            strategy = current;
+            Arrays.fill(hashers, null);
+        }
+        if (current != strategy || depth == MAX_DEPTH) {
+            return digest(current.hasher(), hashable);
+        }
+        HashStrategy.Hasher hasher = hashers[depth];
+        if (hasher == null) {
+            hasher = hashers[depth] = current.hasher();
+        }
+        depth++;
+        try {
+            return digest(hasher, hashable);
+        } catch (RuntimeException | Error e) {
+            hashers[depth - 1] = null;
+            throw e;
+        } finally {
+            depth--;
+        }
+    }
+
+    private static final int MAX_DEPTH = 16;
+
+    private static final ThreadLocal<Hashers> HASHERS = ThreadLocal.withInitial(Hashers::new);
+
+    private static UUID digest(HashStrategy.Hasher hasher, Hashable hashable) {
+        hashable.hashTo(hasher);
+        return hasher.digest();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.hashable;
+
+import java.security.MessageDigest;
+import java.util.UUID;
+
+/**
+ * The original strategy.  Yields the same UUIDs as earlier versions, which makes it the one to use with
+ * storage populated by those.
+ */
+final class Md5HashStrategy implements HashStrategy {
+
+    static final String NAME = "md5";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Hasher hasher() {
+        return new Md5Hasher(md5());
+    }
+
+    private static final String HASH = "MD5";
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance(HASH);
+        } catch (Exception e) {
+            throw new IllegalStateException("Expected " + HASH + " implementation", e);
+        }
+    }
+
+    private static final class Md5Hasher extends AbstractHasher {
+
+        private final MessageDigest md5;
+
+        private Md5Hasher(MessageDigest md5) {
+            this.md5 = md5;
+        }
+
+        @Override
+        protected void update(byte[] bytes, int offset, int length) {
+            md5.update(bytes, offset, length);
+        }
+
+        @Override
+        protected UUID finish() {
+            return UUID.nameUUIDFromBytes(md5.digest());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.hashable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.UUID;
+
+/**
+ * MurmurHash3, x64 128-bit variant, seed 0.  Not cryptographic, but well distributed and much cheaper than MD5.
+ */
+final class Murmur3HashStrategy implements HashStrategy {
+
+    static final String NAME = "murmur3";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Hasher hasher() {
+        return new Murmur3Hasher();
+    }
+
+    private static final long C1 = 0x87c37b91114253d5L;
+
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private static final int BLOCK = 16;
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static long mixK1(long k1) {
+        return Long.rotateLeft(k1 * C1, 31) * C2;
+    }
+
+    private static long mixK2(long k2) {
+        return Long.rotateLeft(k2 * C2, 33) * C1;
+    }
+
+    private static long fmix(long k) {
+        long h = k;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long littleEndian(byte[] bytes, int offset, int length) {
+        long value = 0L;
+        for (int i = length - 1; i >= 0; i--) {
+            value = value << 8 | bytes[offset + i] & 0xFFL;
+        }
+        return value;
+    }
+
+    private static final class Murmur3Hasher extends AbstractHasher {
+
+        private final byte[] buffer = new byte[BLOCK];
+
+        private int buffered;
+
+        private long length;
+
+        private long h1;
+
+        private long h2;
+
+        @Override
+        protected void update(byte[] bytes, int offset, int length) {
+            int position = offset;
+            int remaining = length;
+            if (buffered > 0) {
+                int fill = Math.min(remaining, BLOCK - buffered);
+                System.arraycopy(bytes, position, buffer, buffered, fill);
+                buffered += fill;
+                position += fill;
+                remaining -= fill;
+                if (buffered < BLOCK) {
+                    return;
+                }
+                block(buffer, 0);
+                buffered = 0;
+            }
+            while (remaining >= BLOCK) {
+                block(bytes, position);
+                position += BLOCK;
+                remaining -= BLOCK;
+            }
+            if (remaining > 0) {
+                System.arraycopy(bytes, position, buffer, 0, remaining);
+                buffered = remaining;
+            }
+        }
+
+        @Override
+        protected UUID finish() {
+            if (buffered > 8) {
+                h2 ^= mixK2(littleEndian(buffer, 8, buffered - 8));
+            }
+            if (buffered > 0) {
+                h1 ^= mixK1(littleEndian(buffer, 0, Math.min(buffered, 8)));
+            }
+            long total = length + buffered;
+            long f1 = h1 ^ total;
+            long f2 = h2 ^ total;
+            f1 += f2;
+            f2 += f1;
+            f1 = fmix(f1);
+            f2 = fmix(f2);
+            f1 += f2;
+            f2 += f1;
+            h1 = h2 = length = buffered = 0;
+            return new UUID(f1, f2);
+        }
+
+        private void block(byte[] bytes, int offset) {
+            long k1 = (long) LONGS.get(bytes, offset);
+            long k2 = (long) LONGS.get(bytes, offset + 8);
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+            length += BLOCK;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.hashable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HashStrategiesTest {
+
+    @Test
+    public void murmur3KnownValue() {
+        HashStrategy.Hasher hasher = HashStrategies.murmur3().hasher();
+        hasher.putBytes(FOX);
+        assertEquals("6c1b07bc7bbc4be347939ac4a93c437a", hex(hasher.digest()));
+    }
+
+    @Test
+    public void murmur3Chunked() {
+        HashStrategy.Hasher hasher = HashStrategies.murmur3().hasher();
+        for (int i = 0; i < FOX.length; i += 5) {
+            hasher.putBytes(Arrays.copyOfRange(FOX, i, Math.min(FOX.length, i + 5)));
+        }
+        assertEquals("6c1b07bc7bbc4be347939ac4a93c437a", hex(hasher.digest()));
+    }
+
+    @Test
+    public void md5AsBefore() throws Exception {
+        HashStrategy.Hasher hasher = HashStrategies.md5().hasher();
+        hasher.putBytes(FOX);
+        MessageDigest md5 = MessageDigest.getInstance("MD5");
+        md5.update(FOX);
+        assertEquals(UUID.nameUUIDFromBytes(md5.digest()), hasher.digest());
+    }
+
+    @Test
+    public void digestResets() {
+        HashStrategy.Hasher hasher = HashStrategies.murmur3().hasher();
+        hasher.putBytes(FOX);
+        UUID first = hasher.digest();
+        hasher.putBytes(FOX);
+        assertEquals(first, hasher.digest());
+    }
+
+    @Test
+    public void putsAsBytes() {
+        for (String string: new String[] { "plain", "bl\u00e5b\u00e6rsyltet\u00f8y", "\u20ac and \uD83D\uDE00", "lone \uD83D and \uDE00" }) {
+            assertEquals(
+                string,
+                murmur3(string.getBytes(StandardCharsets.UTF_8)),
+                murmur3(h -> h.putString(string)));
+        }
+        assertEquals(
+            murmur3(ByteBuffer.allocate(16).putInt(42).putInt(1).putLong(-1L).array()),
+            murmur3(h -> h.putInt(42).putBoolean(true).putLong(-1L)));
+    }
+
+    @Test
+    public void putsLongStrings() {
+        String string = "x".repeat(100) + "\u00f8".repeat(100);
+        assertEquals(
+            murmur3(string.getBytes(StandardCharsets.UTF_8)),
+            murmur3(h -> h.putString(string)));
+    }
+
+    @Test
+    public void putsCharsAsStrings() {
+        String string = "x".repeat(100) + "\u00f8".repeat(100) + "\ud83d\ude00";
+        assertEquals(
+            murmur3(h -> h.putString(string)),
+            murmur3(h -> h.putChars(new StringBuilder(string))));
+    }
+
+    private static UUID murmur3(byte[] bytes) {
+        return murmur3(h -> h.putBytes(bytes));
+    }
+
+    private static UUID murmur3(Consumer<HashSink> puts) {
+        HashStrategy.Hasher hasher = HashStrategies.murmur3().hasher();
+        puts.accept(hasher);
+        return hasher.digest();
+    }
+
+    private static final byte[] FOX = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+
+    private static String hex(UUID uuid) {
+        ByteBuffer buffer = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        StringBuilder sb = new StringBuilder();
+        for (byte b: buffer.array()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
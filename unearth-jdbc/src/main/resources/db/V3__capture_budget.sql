@@ -0,0 +1,5 @@
+alter table cause_strand
+    add column truncated_frames int not null default 0;
+
+alter table fault_strand
+    add column truncated_causes int not null default 0;
@@ -0,0 +1,11 @@
+create table cause_strand_fold
+(
+    cause_strand uuid,
+    seq          int not null,
+    frame_start  int not null,
+    frame_count  int not null,
+    repeats      int not null,
+
+    foreign key (cause_strand) references cause_strand (id),
+    unique (seq, cause_strand)
+);
@@ -0,0 +1,5 @@
+alter table cause_strand
+    add column enclosing uuid;
+
+alter table cause_strand
+    add column shared_frames int not null default 0;
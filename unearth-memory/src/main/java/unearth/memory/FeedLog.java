@@ -0,0 +1,88 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.memory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import unearth.munch.model.FeedEntry;
+
+/**
+ * Append-only feed entries by sequence number, in fixed-size chunks.  Sequence numbers are handed out by {@link
+ * #next()}, and an entry becomes visible when {@link #set(long, FeedEntry) set}.  Chunks below the {@link
+ * #trim(long) floor} are dropped.
+ */
+final class FeedLog {
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ConcurrentMap<Long, AtomicReferenceArray<FeedEntry>> chunks = new ConcurrentHashMap<>();
+
+    private volatile long floor = 1L;
+
+    long next() {
+        return sequence.incrementAndGet();
+    }
+
+    long limit() {
+        return sequence.get();
+    }
+
+    long floor() {
+        return floor;
+    }
+
+    void set(long seq, FeedEntry feedEntry) {
+        chunks.computeIfAbsent(seq / CHUNK, __ -> new AtomicReferenceArray<>(CHUNK))
+            .set((int) (seq % CHUNK), feedEntry);
+    }
+
+    /**
+     * @return The entry, or null if it is trimmed, or not yet set
+     */
+    FeedEntry get(long seq) {
+        if (seq < floor) {
+            return null;
+        }
+        AtomicReferenceArray<FeedEntry> chunk = chunks.get(seq / CHUNK);
+        return chunk == null ? null : chunk.get((int) (seq % CHUNK));
+    }
+
+    void trim(long floor) {
+        if (floor <= this.floor) {
+            return;
+        }
+        this.floor = floor;
+        chunks.keySet().removeIf(chunk -> (chunk + 1) * CHUNK <= floor);
+    }
+
+    void clear() {
+        chunks.clear();
+        sequence.set(0L);
+        floor = 1L;
+    }
+
+    static final int CHUNK = 1024;
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + floor + "-" + sequence + "]";
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.memory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+import unearth.core.FaultFeed;
+import unearth.core.FaultStats;
+import unearth.core.FaultStorage;
+import unearth.munch.id.CauseId;
+import unearth.munch.id.CauseStrandId;
+import unearth.munch.id.FaultId;
+import unearth.munch.id.FaultStrandId;
+import unearth.munch.id.FeedEntryId;
+import unearth.munch.model.Cause;
+import unearth.munch.model.CauseStrand;
+import unearth.munch.model.Fault;
+import unearth.munch.model.FaultEvent;
+import unearth.munch.model.FaultStrand;
+import unearth.munch.model.FeedEntry;
+import unearth.munch.model.LogEntry;
+
+/**
+ * Storage in the heap.  Faults and their parts are kept by id, feed entries in a global {@link FeedLog} and one
+ * per fault and fault strand.  Feed entries beyond the retained count, or older than the retained age, are
+ * dropped, while the faults and sequences are kept.
+ * <p>
+ * Retention is enforced a chunk of stores at a time.  Reads enforce the age as well, so entries expire when stores
+ * stop.  They allow entries a hundredth of the age extra, so reads in a steady stream of stores
+ * do not trim every time.
+ */
+public final class MemoryStorage implements FaultStorage, FaultFeed, FaultStats {
+
+    private final Clock clock;
+
+    private final long maxEntries;
+
+    private final Duration maxAge;
+
+    private final ConcurrentMap<FaultId, Fault> faults = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<FaultStrandId, FaultStrand> faultStrands = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<CauseId, Cause> causes = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<CauseStrandId, CauseStrand> causeStrands = new ConcurrentHashMap<>();
+
+    private final FeedLog global = new FeedLog();
+
+    private final ConcurrentMap<FaultId, FeedLog> faultFeeds = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<FaultStrandId, FeedLog> faultStrandFeeds = new ConcurrentHashMap<>();
+
+    private final Map<FeedEntryId, FeedEntry> feedEntries = new ConcurrentHashMap<>();
+
+    private final Object sequencer = new Object();
+
+    private long indexed;
+
+    private volatile long expiryMillis;
+
+    public MemoryStorage(Clock clock) {
+        this(clock, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * @param maxEntries Number of feed entries to retain
+     * @param maxAge Age of feed entries to retain, or null for any age
+     */
+    public MemoryStorage(Clock clock, long maxEntries, Duration maxAge) {
+        this.clock = clock == null ? Clock.systemDefaultZone() : clock;
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Invalid max entries: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.maxAge = maxAge;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Stores the fault's parts before the fault, so a fault that can be found has all its parts.  Sequence numbers
+     * are assigned, and the entry timed and set, under one lock, so the fault and fault strand orders agree with the
+     * global order, and the global log has no gaps below its last entry.
+     */
+    @Override
+    public FeedEntry store(LogEntry logEntry, Fault fault, Throwable throwable) {
+        if (!faults.containsKey(fault.getId())) {
+            faultStrands.putIfAbsent(fault.getFaultStrand().getId(), fault.getFaultStrand());
+            for (Cause cause: fault.getCauses()) {
+                causeStrands.putIfAbsent(cause.getCauseStrand().getId(), cause.getCauseStrand());
+                causes.putIfAbsent(cause.getId(), cause);
+            }
+            faults.putIfAbsent(fault.getId(), fault);
+        }
+        FeedLog faultFeed = faultFeeds.computeIfAbsent(fault.getId(), __ -> new FeedLog());
+        FeedLog faultStrandFeed = faultStrandFeeds.computeIfAbsent(fault.getFaultStrand().getId(), __ -> new FeedLog());
+        Integer throwableId = throwable == null ? null : System.identityHashCode(throwable);
+        FeedEntry entry;
+        synchronized (sequencer) {
+            FaultEvent event = new FaultEvent(throwableId, fault, logEntry, Instant.now(clock));
+            entry = new FeedEntry(event, global.next(), faultStrandFeed.next(), faultFeed.next());
+            faultFeed.set(entry.getFaultSequenceNo(), entry);
+            faultStrandFeed.set(entry.getFaultStrandSequenceNo(), entry);
+            global.set(entry.getGlobalSequenceNo(), entry);
+        }
+        long seq = entry.getGlobalSequenceNo();
+        if (seq % FeedLog.CHUNK == 0) {
+            retain(seq);
+        }
+        return entry;
+    }
+
+    @Override
+    public Optional<Fault> getFault(FaultId faultId) {
+        return Optional.ofNullable(faults.get(faultId));
+    }
+
+    @Override
+    public Optional<FaultStrand> getFaultStrand(FaultStrandId faultStrandId) {
+        return Optional.ofNullable(faultStrands.get(faultStrandId));
+    }
+
+    @Override
+    public Optional<FeedEntry> getFeedEntry(FeedEntryId faultEventId) {
+        expire();
+        index();
+        return Optional.ofNullable(feedEntries.get(faultEventId));
+    }
+
+    @Override
+    public Optional<CauseStrand> getCauseStrand(CauseStrandId causeStrandId) {
+        return Optional.ofNullable(causeStrands.get(causeStrandId));
+    }
+
+    @Override
+    public Optional<Cause> getCause(CauseId causeId) {
+        return Optional.ofNullable(causes.get(causeId));
+    }
+
+    @Override
+    public OptionalLong limit() {
+        expire();
+        return limit(global);
+    }
+
+    @Override
+    public OptionalLong limit(FaultStrandId id) {
+        expire();
+        return limit(faultStrandFeeds.get(id));
+    }
+
+    @Override
+    public OptionalLong limit(FaultId id) {
+        expire();
+        return limit(faultFeeds.get(id));
+    }
+
+    @Override
+    public List<FeedEntry> feed(long offset, long count) {
+        expire();
+        return feed(global, Math.max(offset + 1, 1L), count, null);
+    }
+
+    @Override
+    public List<FeedEntry> feed(FaultStrandId id, long offset, long count) {
+        expire();
+        return feed(faultStrandFeeds.get(id), 1L, count, entry -> entry.getGlobalSequenceNo() > offset);
+    }
+
+    @Override
+    public List<FeedEntry> feed(FaultId id, long offset, long count) {
+        expire();
+        return feed(faultFeeds.get(id), 1L, count, entry -> entry.getGlobalSequenceNo() > offset);
+    }
+
+    @Override
+    public Optional<FeedEntry> getLastFeedEntry(FaultId id, Instant sinceTime) {
+        expire();
+        return last(faultFeeds.get(id), sinceTime, null);
+    }
+
+    @Override
+    public Optional<FeedEntry> getLastFeedEntry(FaultStrandId id, Instant sinceTime) {
+        expire();
+        return last(faultStrandFeeds.get(id), sinceTime, null);
+    }
+
+    @Override
+    public Optional<FeedEntry> getLastFeedEntry(FaultId id, Instant sinceTime, Long ceiling) {
+        expire();
+        return last(faultFeeds.get(id), sinceTime, ceiling);
+    }
+
+    @Override
+    public long getFeedEntryCount(Instant sinceTime, Duration interval) {
+        expire();
+        return sinceTime == null ? size(global) : feed(global, sinceTime, interval).size();
+    }
+
+    @Override
+    public long getFeedEntryCount(FaultStrandId id, Instant sinceTime, Duration interval) {
+        expire();
+        FeedLog log = faultStrandFeeds.get(id);
+        return sinceTime == null ? size(log) : feed(log, sinceTime, interval).size();
+    }
+
+    @Override
+    public long getFeedEntryCount(FaultId id, Instant sinceTime, Duration interval) {
+        expire();
+        FeedLog log = faultFeeds.get(id);
+        return sinceTime == null ? size(log) : feed(log, sinceTime, interval).size();
+    }
+
+    @Override
+    public List<FeedEntry> getFeed(FaultStrandId id, Instant sinceTime, Duration period) {
+        expire();
+        return feed(faultStrandFeeds.get(id), sinceTime, period);
+    }
+
+    @Override
+    public List<FeedEntry> getFeed(Instant sinceTime, Duration period) {
+        expire();
+        return feed(global, sinceTime, period);
+    }
+
+    @Override
+    public List<FeedEntry> getFeed(FaultId id, Instant sinceTime, Duration period) {
+        expire();
+        return feed(faultFeeds.get(id), sinceTime, period);
+    }
+
+    @Override
+    public synchronized void reset() {
+        faults.clear();
+        faultStrands.clear();
+        causes.clear();
+        causeStrands.clear();
+        faultFeeds.clear();
+        faultStrandFeeds.clear();
+        feedEntries.clear();
+        global.clear();
+        indexed = 0L;
+        expiryMillis = 0L;
+    }
+
+    private void expire() {
+        if (maxAge != null && clock.millis() >= expiryMillis) {
+            retain(global.limit());
+        }
+    }
+
+    private synchronized void index() {
+        long limit = global.limit();
+        for (long seq = Math.max(indexed + 1, global.floor()); seq <= limit; seq++) {
+            FeedEntry entry = global.get(seq);
+            if (entry == null) {
+                break;
+            }
+            feedEntries.put(entry.getId(), entry);
+            indexed = seq;
+        }
+    }
+
+    private synchronized void retain(long seq) {
+        long floor = Math.max(global.floor(), seq - maxEntries + 1);
+        if (maxAge != null) {
+            Instant now = Instant.now(clock);
+            Instant oldest = now.minus(maxAge);
+            while (floor <= seq && isBefore(global.get(floor), oldest)) {
+                floor++;
+            }
+            FeedEntry first = global.get(floor);
+            expiryMillis = (first == null ? now : first.getFaultEvent().getTime()).plus(maxAge).toEpochMilli() +
+                           maxAge.toMillis() / AGE_SLACK_DIVISOR;
+        }
+        for (long dropped = global.floor(); dropped < Math.min(floor, indexed + 1); dropped++) {
+            FeedEntry entry = global.get(dropped);
+            if (entry != null) {
+                feedEntries.remove(entry.getId());
+            }
+        }
+        global.trim(floor);
+        long globalFloor = floor;
+        faultFeeds.values().forEach(log -> trim(log, globalFloor));
+        faultStrandFeeds.values().forEach(log -> trim(log, globalFloor));
+    }
+
+    private static final int AGE_SLACK_DIVISOR = 100;
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + global + " faults:" + faults.size() + "]";
+    }
+
+    private static boolean isBefore(FeedEntry entry, Instant time) {
+        return entry != null && entry.getFaultEvent().getTime().isBefore(time);
+    }
+
+    private static void trim(FeedLog log, long globalFloor) {
+        long floor = log.floor();
+        long limit = log.limit();
+        while (floor <= limit) {
+            FeedEntry entry = log.get(floor);
+            if (entry == null || entry.getGlobalSequenceNo() >= globalFloor) {
+                break;
+            }
+            floor++;
+        }
+        log.trim(floor);
+    }
+
+    private static OptionalLong limit(FeedLog log) {
+        return log == null || log.limit() == 0L ? OptionalLong.empty() : OptionalLong.of(log.limit());
+    }
+
+    private static long size(FeedLog log) {
+        return log == null ? 0L : log.limit() - log.floor() + 1;
+    }
+
+    private static List<FeedEntry> feed(FeedLog log, long from, long count, Predicate<FeedEntry> filter) {
+        if (log == null || count <= 0) {
+            return Collections.emptyList();
+        }
+        List<FeedEntry> entries = new ArrayList<>((int) Math.min(count, FeedLog.CHUNK));
+        long limit = log.limit();
+        for (long seq = Math.max(from, log.floor()); seq <= limit && entries.size() < count; seq++) {
+            FeedEntry entry = log.get(seq);
+            if (entry == null) {
+                break;
+            }
+            if (filter == null || filter.test(entry)) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private static List<FeedEntry> feed(FeedLog log, Instant sinceTime, Duration period) {
+        Instant untilTime = sinceTime == null || period == null ? null : sinceTime.plus(period);
+        return feed(log, 1L, Long.MAX_VALUE, entry -> {
+            Instant time = entry.getFaultEvent().getTime();
+            return (sinceTime == null || time.isAfter(sinceTime)) && (untilTime == null || !time.isAfter(untilTime));
+        });
+    }
+
+    private static Optional<FeedEntry> last(FeedLog log, Instant sinceTime, Long ceiling) {
+        if (log == null) {
+            return Optional.empty();
+        }
+        long start = ceiling == null ? log.limit() : Math.min(ceiling, log.limit());
+        for (long seq = start; seq >= log.floor(); seq--) {
+            FeedEntry entry = log.get(seq);
+            if (entry != null) {
+                return sinceTime == null || !entry.getFaultEvent().getTime().isBefore(sinceTime)
+                    ? Optional.of(entry)
+                    : Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+}
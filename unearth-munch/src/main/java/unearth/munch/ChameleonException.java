@@ -32,6 +32,15 @@ public final class ChameleonException extends Exception {
         return proxiedClassName;
     }
     
+    /**
+     * The stack trace is always {@link #setStackTrace(StackTraceElement[]) set} to the proxied one, so there is no
+     * point in filling it in.
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+    
     @Override
     public String toString() {
         return proxiedClassName + Optional.ofNullable(getMessage()).map(msg -> ": " + msg).orElse("");
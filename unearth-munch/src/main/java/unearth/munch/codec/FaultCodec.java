@@ -0,0 +1,69 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.codec;
+
+/**
+ * The binary format written by {@link FaultEncoder} and read by {@link FaultDecoder}.
+ * <p>
+ * A message starts with a {@link #MAGIC magic} byte, the format {@link #VERSION version} and the {@link Kind kind}
+ * of message.  Integers are varints, zigzagged where they may be negative.  Strings, frames and cause strands are
+ * written in full the first time they occur in a message, and referred to by number after that.  Ids are not
+ * written, but computed again on decoding.
+ */
+final class FaultCodec {
+
+    static final int MAGIC = 0xFA;
+
+    static final int VERSION = 1;
+
+    /**
+     * Reference number of a null string.
+     */
+    static final int NULL = 0;
+
+    /**
+     * Reference number of a string, frame or cause strand written in full.
+     */
+    static final int NEW = 1;
+
+    /**
+     * Reference number of the first string, frame or cause strand in a message, when referred to again.
+     */
+    static final int FIRST = 2;
+
+    enum Kind {
+
+        FAULT,
+
+        FAULT_STRAND,
+
+        FEED_ENTRY;
+
+        private static final Kind[] KINDS = values();
+
+        static Kind of(int ordinal) {
+            if (ordinal < 0 || ordinal >= KINDS.length) {
+                throw new IllegalStateException("Unknown kind of message: " + ordinal);
+            }
+            return KINDS[ordinal];
+        }
+    }
+
+    private FaultCodec() {
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.codec;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import unearth.munch.id.FaultId;
+import unearth.munch.id.FaultStrandId;
+import unearth.munch.model.Cause;
+import unearth.munch.model.CauseStrand;
+import unearth.munch.model.Fault;
+import unearth.munch.model.FaultEvent;
+import unearth.munch.model.FaultStrand;
+import unearth.munch.model.FeedEntry;
+import unearth.munch.model.Fold;
+import unearth.munch.model.LogEntry;
+import unearth.munch.print.CauseFrame;
+import unearth.munch.print.FramePool;
+
+import static unearth.munch.codec.FaultCodec.FIRST;
+import static unearth.munch.codec.FaultCodec.Kind;
+import static unearth.munch.codec.FaultCodec.MAGIC;
+import static unearth.munch.codec.FaultCodec.NEW;
+import static unearth.munch.codec.FaultCodec.NULL;
+import static unearth.munch.codec.FaultCodec.VERSION;
+
+/**
+ * Reads messages written by {@link FaultEncoder}.  Frames are taken from the {@link FramePool#shared() shared frame
+ * pool}.  Not thread-safe.
+ */
+public final class FaultDecoder {
+
+    public static Fault fault(byte[] bytes) {
+        return new FaultDecoder(new ByteArrayInputStream(bytes)).decodeFault();
+    }
+
+    private final InputStream in;
+
+    private final FramePool framePool = FramePool.shared();
+
+    private final List<String> strings = new ArrayList<>();
+
+    private final List<CauseFrame> frames = new ArrayList<>();
+
+    private final List<CauseStrand> causeStrands = new ArrayList<>();
+
+    public FaultDecoder(InputStream in) {
+        Objects.requireNonNull(in, "in");
+        this.in = in instanceof BufferedInputStream || in instanceof ByteArrayInputStream
+            ? in
+            : new BufferedInputStream(in);
+    }
+
+    public Fault decodeFault() {
+        start(Kind.FAULT);
+        return fault();
+    }
+
+    public FaultStrand decodeFaultStrand() {
+        start(Kind.FAULT_STRAND);
+        return faultStrand();
+    }
+
+    public FeedEntry decodeFeedEntry() {
+        start(Kind.FEED_ENTRY);
+        long globalSequenceNo = zigzag();
+        long faultStrandSequenceNo = zigzag();
+        long faultSequenceNo = zigzag();
+        return new FeedEntry(faultEvent(), globalSequenceNo, faultStrandSequenceNo, faultSequenceNo);
+    }
+
+    private void start(Kind expected) {
+        strings.clear();
+        frames.clear();
+        causeStrands.clear();
+        int magic = read();
+        if (magic != MAGIC) {
+            throw new IllegalStateException("Not a message: " + magic);
+        }
+        int version = (int) varint();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported version: " + version);
+        }
+        Kind kind = Kind.of((int) varint());
+        if (kind != expected) {
+            throw new IllegalStateException("Expected " + expected + ", got " + kind);
+        }
+    }
+
+    private Fault fault() {
+        FaultStrand faultStrand = faultStrand();
+        int causeCount = count();
+        List<Cause> causes = new ArrayList<>(causeCount);
+        for (int i = 0; i < causeCount; i++) {
+            String message = string();
+            CauseStrand causeStrand = causeStrand();
+            int truncatedSuppressed = count();
+            int suppressedCount = count();
+            List<Fault> suppressedFaults = new ArrayList<>(suppressedCount);
+            for (int j = 0; j < suppressedCount; j++) {
+                suppressedFaults.add(fault());
+            }
+            causes.add(Cause.create(message, causeStrand, suppressedFaults, truncatedSuppressed));
+        }
+        return Fault.create(faultStrand, causes);
+    }
+
+    private FaultStrand faultStrand() {
+        int truncatedCauses = count();
+        int causeStrandCount = count();
+        List<CauseStrand> causeStrands = new ArrayList<>(causeStrandCount);
+        for (int i = 0; i < causeStrandCount; i++) {
+            causeStrands.add(causeStrand());
+        }
+        return FaultStrand.create(causeStrands, truncatedCauses);
+    }
+
+    private CauseStrand causeStrand() {
+        int ref = count();
+        while (ref == NEW) {
+            causeStrands.add(newCauseStrand());
+            ref = count();
+        }
+        return ref(causeStrands, ref, "cause strand");
+    }
+
+    private CauseStrand newCauseStrand() {
+        String className = string();
+        int frameCount = count();
+        List<CauseFrame> foldedFrames = new ArrayList<>(frameCount);
+        for (int i = 0; i < frameCount; i++) {
+            foldedFrames.add(frame());
+        }
+        int foldCount = count();
+        List<Fold> folds = foldCount == 0 ? Collections.emptyList() : new ArrayList<>(foldCount);
+        for (int i = 0; i < foldCount; i++) {
+            folds.add(Fold.create(count(), count(), count()));
+        }
+        CauseStrand causeStrand = CauseStrand.create(className, foldedFrames, folds, count());
+        int sharedFrames = count();
+        return sharedFrames == 0
+            ? causeStrand
+            : causeStrand.enclosedBy(ref(causeStrands, count(), "enclosing cause strand"), sharedFrames);
+    }
+
+    private CauseFrame frame() {
+        int ref = count();
+        if (ref != NEW) {
+            return ref(frames, ref, "frame");
+        }
+        CauseFrame frame = framePool.frame(
+            string(),
+            string(),
+            string(),
+            string(),
+            string(),
+            string(),
+            (int) zigzag(),
+            read() != 0);
+        frames.add(frame);
+        return frame;
+    }
+
+    private FaultEvent faultEvent() {
+        FaultId faultId = new FaultId(uuid());
+        FaultStrandId faultStrandId = new FaultStrandId(uuid());
+        Instant time = Instant.ofEpochSecond(zigzag(), count());
+        Integer throwableHashCode = read() == 0 ? null : (int) zigzag();
+        LogEntry logEntry = read() == 0 ? null : logEntry();
+        return new FaultEvent(throwableHashCode, faultId, faultStrandId, logEntry, time);
+    }
+
+    private LogEntry logEntry() {
+        String logMessage = string();
+        Object[] args = new Object[count()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = string();
+        }
+        return LogEntry.create(logMessage, args);
+    }
+
+    private String string() {
+        int ref = count();
+        if (ref == NULL) {
+            return null;
+        }
+        if (ref != NEW) {
+            return ref(strings, ref, "string");
+        }
+        byte[] bytes = new byte[count()];
+        read(bytes);
+        String string = new String(bytes, StandardCharsets.UTF_8);
+        strings.add(string);
+        return string;
+    }
+
+    private UUID uuid() {
+        return new UUID(fixed(), fixed());
+    }
+
+    private long fixed() {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = value << Byte.SIZE | read();
+        }
+        return value;
+    }
+
+    private int count() {
+        long count = varint();
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Invalid count: " + count);
+        }
+        return (int) count;
+    }
+
+    private long zigzag() {
+        long value = varint();
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private long varint() {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = read();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    private int read() {
+        try {
+            int b = in.read();
+            if (b < 0) {
+                throw new IllegalStateException("Unexpected end of stream");
+            }
+            return b;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read from " + in, e);
+        }
+    }
+
+    private void read(byte[] bytes) {
+        try {
+            if (in.readNBytes(bytes, 0, bytes.length) < bytes.length) {
+                throw new IllegalStateException("Unexpected end of stream");
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read " + bytes.length + " bytes from " + in, e);
+        }
+    }
+
+    private static <T> T ref(List<T> ts, int ref, String what) {
+        int index = ref - FIRST;
+        if (index < 0 || index >= ts.size()) {
+            throw new IllegalStateException("Unknown " + what + " #" + ref + ", " + ts.size() + " known");
+        }
+        return ts.get(index);
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import unearth.munch.model.Cause;
+import unearth.munch.model.CauseStrand;
+import unearth.munch.model.Fault;
+import unearth.munch.model.FaultEvent;
+import unearth.munch.model.FaultStrand;
+import unearth.munch.model.FeedEntry;
+import unearth.munch.model.Fold;
+import unearth.munch.model.LogEntry;
+import unearth.munch.print.CauseFrame;
+import unearth.util.StringlyTyped;
+
+import static unearth.munch.codec.FaultCodec.FIRST;
+import static unearth.munch.codec.FaultCodec.Kind;
+import static unearth.munch.codec.FaultCodec.MAGIC;
+import static unearth.munch.codec.FaultCodec.NEW;
+import static unearth.munch.codec.FaultCodec.NULL;
+import static unearth.munch.codec.FaultCodec.VERSION;
+
+/**
+ * Writes faults, fault strands and feed entries to a stream, one self-contained message each, in the format
+ * described by {@link FaultCodec}.  Not thread-safe.
+ */
+public final class FaultEncoder {
+
+    public static byte[] toBytes(Fault fault) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new FaultEncoder(out).encode(fault);
+        return out.toByteArray();
+    }
+
+    private final OutputStream out;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private int position;
+
+    private final Map<String, Integer> strings = new HashMap<>();
+
+    private final Map<CauseFrame, Integer> frames = new IdentityHashMap<>();
+
+    private final Map<CauseStrand, Integer> causeStrands = new IdentityHashMap<>();
+
+    public FaultEncoder(OutputStream out) {
+        this.out = Objects.requireNonNull(out, "out");
+    }
+
+    public FaultEncoder encode(Fault fault) {
+        start(Kind.FAULT);
+        fault(fault);
+        return end();
+    }
+
+    public FaultEncoder encode(FaultStrand faultStrand) {
+        start(Kind.FAULT_STRAND);
+        faultStrand(faultStrand);
+        return end();
+    }
+
+    public FaultEncoder encode(FeedEntry feedEntry) {
+        start(Kind.FEED_ENTRY);
+        zigzag(feedEntry.getGlobalSequenceNo());
+        zigzag(feedEntry.getFaultStrandSequenceNo());
+        zigzag(feedEntry.getFaultSequenceNo());
+        faultEvent(feedEntry.getFaultEvent());
+        return end();
+    }
+
+    private void start(Kind kind) {
+        strings.clear();
+        frames.clear();
+        causeStrands.clear();
+        write(MAGIC);
+        varint(VERSION);
+        varint(kind.ordinal());
+    }
+
+    private FaultEncoder end() {
+        flush();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to flush " + out, e);
+        }
+        return this;
+    }
+
+    private void fault(Fault fault) {
+        faultStrand(fault.getFaultStrand());
+        List<Cause> causes = fault.getCauses();
+        varint(causes.size());
+        for (Cause cause: causes) {
+            string(cause.getMessage());
+            causeStrand(cause.getCauseStrand());
+            varint(cause.getTruncatedSuppressed());
+            varint(cause.getSuppressedFaults().size());
+            for (Fault suppressed: cause.getSuppressedFaults()) {
+                fault(suppressed);
+            }
+        }
+    }
+
+    private void faultStrand(FaultStrand faultStrand) {
+        varint(faultStrand.getTruncatedCauses());
+        List<CauseStrand> causeStrands = faultStrand.getCauseStrands();
+        varint(causeStrands.size());
+        for (CauseStrand causeStrand: causeStrands) {
+            causeStrand(causeStrand);
+        }
+    }
+
+    private void causeStrand(CauseStrand causeStrand) {
+        define(causeStrand);
+        varint(causeStrands.get(causeStrand));
+    }
+
+    /**
+     * Writes the cause strand in full if it is new, after its enclosing strand.
+     */
+    private void define(CauseStrand causeStrand) {
+        if (causeStrands.containsKey(causeStrand)) {
+            return;
+        }
+        CauseStrand enclosing = causeStrand.getEnclosing().orElse(null);
+        if (enclosing != null) {
+            define(enclosing);
+        }
+        varint(NEW);
+        string(causeStrand.getClassName());
+        List<CauseFrame> foldedFrames = causeStrand.getFoldedFrames();
+        varint(foldedFrames.size());
+        for (CauseFrame frame: foldedFrames) {
+            frame(frame);
+        }
+        List<Fold> folds = causeStrand.getFolds();
+        varint(folds.size());
+        for (Fold fold: folds) {
+            varint(fold.getStart());
+            varint(fold.getLength());
+            varint(fold.getRepeats());
+        }
+        varint(causeStrand.getTruncatedFrames());
+        varint(causeStrand.getSharedFrames());
+        if (enclosing != null) {
+            varint(causeStrands.get(enclosing));
+        }
+        causeStrands.put(causeStrand, FIRST + causeStrands.size());
+    }
+
+    private void frame(CauseFrame frame) {
+        Integer ref = frames.get(frame);
+        if (ref != null) {
+            varint(ref);
+            return;
+        }
+        varint(NEW);
+        string(frame.classLoader());
+        string(frame.module());
+        string(frame.moduleVer());
+        string(frame.className());
+        string(frame.method());
+        string(frame.file());
+        zigzag(frame.line());
+        write(frame.naytiv() ? 1 : 0);
+        frames.put(frame, FIRST + frames.size());
+    }
+
+    private void faultEvent(FaultEvent faultEvent) {
+        uuid(faultEvent.getFaultId().getHash());
+        uuid(faultEvent.getFaultStrandId().getHash());
+        Instant time = faultEvent.getTime();
+        zigzag(time.getEpochSecond());
+        varint(time.getNano());
+        Integer throwableHashCode = faultEvent.getThrowableHashCode();
+        write(throwableHashCode == null ? 0 : 1);
+        if (throwableHashCode != null) {
+            zigzag(throwableHashCode);
+        }
+        LogEntry logEntry = faultEvent.getLogEntry();
+        write(logEntry == null ? 0 : 1);
+        if (logEntry != null) {
+            string(logEntry.getLogMessage());
+            varint(logEntry.getArgs().length);
+            for (String arg: logEntry.getArgs()) {
+                string(arg);
+            }
+        }
+    }
+
+    private void string(StringlyTyped stringlyTyped) {
+        string(stringlyTyped == null ? null : stringlyTyped.string());
+    }
+
+    private void string(String string) {
+        if (string == null) {
+            varint(NULL);
+            return;
+        }
+        Integer ref = strings.get(string);
+        if (ref != null) {
+            varint(ref);
+            return;
+        }
+        varint(NEW);
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        varint(bytes.length);
+        write(bytes);
+        strings.put(string, FIRST + strings.size());
+    }
+
+    private void uuid(UUID uuid) {
+        fixed(uuid.getMostSignificantBits());
+        fixed(uuid.getLeastSignificantBits());
+    }
+
+    private void fixed(long value) {
+        for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+            write((int) (value >>> shift));
+        }
+    }
+
+    private void zigzag(long value) {
+        varint(value << 1 ^ value >> Long.SIZE - 1);
+    }
+
+    private void varint(long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            write((int) (remaining & 0x7F | 0x80));
+            remaining >>>= 7;
+        }
+        write((int) remaining);
+    }
+
+    private void write(int b) {
+        if (position == BUFFER_SIZE) {
+            flush();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void write(byte[] bytes) {
+        if (bytes.length > BUFFER_SIZE - position) {
+            flush();
+            if (bytes.length > BUFFER_SIZE) {
+                output(bytes, bytes.length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void flush() {
+        if (position > 0) {
+            output(buffer, position);
+            position = 0;
+        }
+    }
+
+    private void output(byte[] bytes, int length) {
+        try {
+            out.write(bytes, 0, length);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write " + length + " bytes to " + out, e);
+        }
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+}
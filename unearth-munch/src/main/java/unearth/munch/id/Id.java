@@ -16,10 +16,10 @@
  */
 package unearth.munch.id;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import unearth.hashable.Hashed;
 
@@ -50,7 +50,7 @@ public abstract class Id implements Hashed {
         return getHash().toString();
     }
 
-    private static final Map<Class<?>, String> NAMES = new HashMap<>();
+    private static final Map<Class<?>, String> NAMES = new ConcurrentHashMap<>();
 
     private static final String TAIL = "Id";
 
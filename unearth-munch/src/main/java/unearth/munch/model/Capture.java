@@ -0,0 +1,115 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+import unearth.munch.print.CauseFrame;
+import unearth.munch.print.FramePool;
+
+/**
+ * Takes throwables of some type apart, so causes can be created the same way from each.
+ *
+ * @param <T> Throwable type
+ * @param <E> Stack frame type
+ */
+abstract class Capture<T, E> {
+
+    static final Capture<Throwable, StackTraceElement> THROWABLES = new Capture<>() {
+
+        @Override
+        String className(Throwable throwable) {
+            return CauseStrand.className(throwable);
+        }
+
+        @Override
+        String message(Throwable throwable) {
+            return throwable.getMessage();
+        }
+
+        @Override
+        List<StackTraceElement> stackTrace(Throwable throwable) {
+            return Arrays.asList(throwable.getStackTrace());
+        }
+
+        @Override
+        CauseFrame frame(StackTraceElement element) {
+            return FramePool.shared().frame(element);
+        }
+
+        @Override
+        List<Throwable> suppressed(Throwable throwable) {
+            return Arrays.asList(throwable.getSuppressed());
+        }
+
+        @Override
+        Throwable cause(Throwable throwable) {
+            return throwable.getCause();
+        }
+    };
+
+    static final Capture<ThrowableParts<?>, CauseFrame> PARTS = new Capture<>() {
+
+        @Override
+        String className(ThrowableParts<?> parts) {
+            return parts.getClassName();
+        }
+
+        @Override
+        String message(ThrowableParts<?> parts) {
+            return parts.getMessage();
+        }
+
+        @Override
+        List<CauseFrame> stackTrace(ThrowableParts<?> parts) {
+            return parts.getCauseFrames();
+        }
+
+        /**
+         * Frames come out as they would from a throwable with the parsed stack trace.  Its stack trace elements can
+         * only tell native methods by line number, so a parsed native frame is not native anymore.
+         */
+        @Override
+        CauseFrame frame(CauseFrame frame) {
+            return frame.naytiv() ? FramePool.shared().frame(frame.toStackTraceElement()) : frame;
+        }
+
+        @Override
+        List<? extends ThrowableParts<?>> suppressed(ThrowableParts<?> parts) {
+            return parts.getSuppressed();
+        }
+
+        @Override
+        ThrowableParts<?> cause(ThrowableParts<?> parts) {
+            return parts.getCause();
+        }
+    };
+
+    abstract String className(T throwable);
+
+    abstract String message(T throwable);
+
+    abstract List<E> stackTrace(T throwable);
+
+    abstract CauseFrame frame(E element);
+
+    abstract List<? extends T> suppressed(T throwable);
+
+    abstract T cause(T throwable);
+}
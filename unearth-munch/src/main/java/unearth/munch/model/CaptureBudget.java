@@ -0,0 +1,185 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+import unearth.hashable.HashStrategies;
+
+/**
+ * Limits how much of a throwable is captured: The number of frames per cause, the length of the cause chain, and
+ * the number of suppressed exceptions per cause.  What is left out is counted, and the counts are kept in the model.
+ * Frames are kept from the top of the stack, and causes from the outermost one.
+ * <p>
+ * Suppressed exceptions become faults of their own, which may in turn have suppressed exceptions.  The kept ones
+ * share what their cause did not use of the suppressed limit, so the suppressed faults under a cause stay within its
+ * limit, however deep they nest.
+ * <p>
+ * Truncation is part of the ids, so a truncated throwable gets other ids than it had before there was a budget.  The
+ * {@link #defaults() default} budget is therefore unlimited in {@link HashStrategies#md5() md5} mode, which keeps the
+ * ids of earlier versions.  Rehashing storage to another strategy captures the stored faults again, so they get the
+ * ids that live captures get under that strategy.
+ */
+public final class CaptureBudget {
+
+    /**
+     * @return The {@link #bounded() bounded} budget, or the {@link #unlimited() unlimited} one if the
+     *     {@link HashStrategies#current() current} hash strategy is {@link HashStrategies#md5() md5}
+     */
+    public static CaptureBudget defaults() {
+        return HashStrategies.current() == HashStrategies.md5() ? UNLIMITED : BOUNDED;
+    }
+
+    /**
+     * @return A budget of 512 frames, 32 causes and 32 suppressed exceptions
+     */
+    public static CaptureBudget bounded() {
+        return BOUNDED;
+    }
+
+    public static CaptureBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    public static CaptureBudget create(int maxFrames, int maxCauses, int maxSuppressed) {
+        return new CaptureBudget(maxFrames, maxCauses, maxSuppressed);
+    }
+
+    private final int maxFrames;
+
+    private final int maxCauses;
+
+    private final int maxSuppressed;
+
+    private CaptureBudget(int maxFrames, int maxCauses, int maxSuppressed) {
+        if (maxFrames < 0 || maxCauses < 1 || maxSuppressed < 0) {
+            throw new IllegalArgumentException(
+                "Invalid budget: frames:" + maxFrames + " causes:" + maxCauses + " suppressed:" + maxSuppressed);
+        }
+        this.maxFrames = maxFrames;
+        this.maxCauses = maxCauses;
+        this.maxSuppressed = maxSuppressed;
+    }
+
+    public int getMaxFrames() {
+        return maxFrames;
+    }
+
+    public int getMaxCauses() {
+        return maxCauses;
+    }
+
+    public int getMaxSuppressed() {
+        return maxSuppressed;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() +
+               "[frames:" + maxFrames + " causes:" + maxCauses + " suppressed:" + maxSuppressed + "]";
+    }
+
+    int frames(int frames) {
+        return Math.min(frames, maxFrames);
+    }
+
+    int suppressed(Throwable[] suppressed) {
+        return suppressed == null ? 0 : suppressed(suppressed.length);
+    }
+
+    int suppressed(int suppressed) {
+        return Math.min(suppressed, maxSuppressed);
+    }
+
+    /**
+     * @param kept Number of suppressed exceptions kept by a cause
+     * @return Budget for each of them, with an equal share of the suppressed limit the cause did not use
+     */
+    CaptureBudget suppressedBudget(int kept) {
+        int share = kept == 0 ? 0 : (maxSuppressed - kept) / kept;
+        return share == maxSuppressed ? this : new CaptureBudget(maxFrames, maxCauses, share);
+    }
+
+    /**
+     * @return The kept part of the cause chain, innermost cause first, like {@link Cause#causes(Throwable)}
+     */
+    Chain<Throwable> chain(Throwable throwable) {
+        return chain(throwable, Throwable::getCause);
+    }
+
+    <T> Chain<T> chain(T throwable, UnaryOperator<T> cause) {
+        List<T> throwables = new ArrayList<>();
+        T next = throwable;
+        while (next != null && throwables.size() < maxCauses) {
+            throwables.add(next);
+            next = cause.apply(next);
+        }
+        Collections.reverse(throwables);
+        return new Chain<>(throwables, next == null ? 0 : remaining(throwables, next, cause));
+    }
+
+    private static final int DEFAULT_MAX_FRAMES = 512;
+
+    private static final int DEFAULT_MAX_CAUSES = 32;
+
+    private static final int DEFAULT_MAX_SUPPRESSED = 32;
+
+    private static final CaptureBudget BOUNDED =
+        new CaptureBudget(DEFAULT_MAX_FRAMES, DEFAULT_MAX_CAUSES, DEFAULT_MAX_SUPPRESSED);
+
+    private static final CaptureBudget UNLIMITED =
+        new CaptureBudget(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    /**
+     * Counts the rest of the chain, stopping if it turns out to be circular.
+     */
+    private static <T> int remaining(List<T> kept, T first, UnaryOperator<T> cause) {
+        Set<T> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        seen.addAll(kept);
+        int count = 0;
+        for (T next = first; next != null && seen.add(next); next = cause.apply(next)) {
+            count++;
+        }
+        return count;
+    }
+
+    static final class Chain<T> {
+
+        private final List<T> throwables;
+
+        private final int truncated;
+
+        private Chain(List<T> throwables, int truncated) {
+            this.throwables = throwables;
+            this.truncated = truncated;
+        }
+
+        List<T> getThrowables() {
+            return throwables;
+        }
+
+        int getTruncated() {
+            return truncated;
+        }
+    }
+}
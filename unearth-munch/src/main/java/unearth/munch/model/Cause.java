@@ -23,14 +23,14 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.function.Consumer;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
+import unearth.hashable.HashSink;
 import unearth.munch.ChameleonException;
 import unearth.munch.id.AbstractHashableIdentifiable;
 import unearth.munch.id.CauseId;
 import unearth.munch.print.CauseFrame;
-import unearth.util.Streams;
 
 /**
  * A cause has a {@link CauseStrand cause strand} and a given {@link #message message}.
@@ -38,34 +38,100 @@ import unearth.util.Streams;
 public final class Cause extends AbstractHashableIdentifiable<CauseId> {
 
     public static List<Cause> causes(Throwable throwable) {
-        return Streams.reverse(Streams.causes(throwable))
-            .map(t ->
-                new Cause(t.getMessage(), CauseStrand.create(t),
-                    suppressed(t)))
-            .collect(Collectors.toList());
+        return causes(throwable, CaptureBudget.defaults());
+    }
+
+    public static List<Cause> causes(Throwable throwable, CaptureBudget budget) {
+        return causes(budget.chain(throwable), budget, Capture.THROWABLES);
     }
 
     public static Cause create(String message, CauseStrand causeStrand) {
-        return new Cause(message, causeStrand);
+        return new Cause(message, causeStrand, null, 0);
     }
 
-    private final String message;
+    public static Cause create(
+        String message,
+        CauseStrand causeStrand,
+        Collection<Fault> suppressedFaults,
+        int truncatedSuppressed
+    ) {
+        return new Cause(message, causeStrand, suppressedFaults, truncatedSuppressed);
+    }
 
-    private final CauseStrand causeStrand;
+    /**
+     * Creates the causes from the outermost one in, so each cause strand can share frames with its encloser.
+     */
+    static <T, E> List<Cause> causes(CaptureBudget.Chain<T> chain, CaptureBudget budget, Capture<T, E> capture) {
+        List<T> throwables = chain.getThrowables();
+        Cause[] causes = new Cause[throwables.size()];
+        CauseStrand enclosing = null;
+        List<E> enclosingTrace = null;
+        for (int i = causes.length - 1; i >= 0; i--) {
+            T throwable = throwables.get(i);
+            List<E> stackTrace = capture.stackTrace(throwable);
+            CauseStrand causeStrand = CauseStrand.create(
+                capture.className(throwable), stackTrace, capture, budget, enclosing, enclosingTrace);
+            causes[i] = create(
+                capture.message(throwable),
+                causeStrand,
+                capture.suppressed(throwable),
+                budget,
+                (suppressed, suppressedBudget) -> Fault.create(suppressed, suppressedBudget, capture));
+            enclosing = causeStrand;
+            enclosingTrace = stackTrace;
+        }
+        return Arrays.asList(causes);
+    }
 
-    private final Collection<Fault> suppressedFaults;
+    static Cause create(
+        String message,
+        CauseStrand causeStrand,
+        Throwable[] suppressed,
+        CaptureBudget budget,
+        BiFunction<Throwable, CaptureBudget, Fault> fault
+    ) {
+        return create(
+            message,
+            causeStrand,
+            suppressed == null ? Collections.emptyList() : Arrays.asList(suppressed),
+            budget,
+            fault);
+    }
 
-    private Cause(
+    static <T> Cause create(
         String message,
-        CauseStrand causeStrand
+        CauseStrand causeStrand,
+        List<? extends T> suppressed,
+        CaptureBudget budget,
+        BiFunction<T, CaptureBudget, Fault> fault
     ) {
-        this(message, causeStrand, null);
+        int kept = budget.suppressed(suppressed.size());
+        CaptureBudget suppressedBudget = budget.suppressedBudget(kept);
+        return new Cause(
+            message,
+            causeStrand,
+            kept == 0
+                ? Collections.emptyList()
+                : suppressed.stream()
+                    .limit(kept)
+                    .map(t -> fault.apply(t, suppressedBudget))
+                    .collect(Collectors.toList()),
+            suppressed.size() - kept);
     }
 
+    private final String message;
+
+    private final CauseStrand causeStrand;
+
+    private final Collection<Fault> suppressedFaults;
+
+    private final int truncatedSuppressed;
+
     private Cause(
         String message,
         CauseStrand causeStrand,
-        Collection<Fault> suppressedFaults
+        Collection<Fault> suppressedFaults,
+        int truncatedSuppressed
     ) {
         this.message = message;
         this.causeStrand = Objects.requireNonNull(causeStrand);
@@ -73,12 +139,16 @@ public final class Cause extends AbstractHashableIdentifiable<CauseId> {
             suppressedFaults == null || suppressedFaults.isEmpty()
                 ? Collections.emptyList()
                 : List.copyOf(suppressedFaults);
+        if (truncatedSuppressed < 0) {
+            throw new IllegalArgumentException("Invalid truncated suppressed: " + truncatedSuppressed);
+        }
+        this.truncatedSuppressed = truncatedSuppressed;
     }
 
     @Override
-    public void hashTo(Consumer<byte[]> h) {
+    public void hashTo(HashSink h) {
         hash(h, causeStrand);
-        hash(h, message);
+        h.putString(message);
     }
 
     @Override
@@ -99,6 +169,18 @@ public final class Cause extends AbstractHashableIdentifiable<CauseId> {
         return message;
     }
 
+    public Collection<Fault> getSuppressedFaults() {
+        return suppressedFaults;
+    }
+
+    /**
+     * @return Number of suppressed exceptions left out by the {@link CaptureBudget capture budget}.  Like the
+     *     suppressed faults themselves, this is not part of the identity.
+     */
+    public int getTruncatedSuppressed() {
+        return truncatedSuppressed;
+    }
+
     Throwable toChameleon(Throwable cause) {
         Throwable exception =
             new ChameleonException(causeStrand.getClassName(), message, !suppressedFaults.isEmpty(), cause);
@@ -109,11 +191,4 @@ public final class Cause extends AbstractHashableIdentifiable<CauseId> {
             exception.addSuppressed(suppressedFault.toChameleon()));
         return exception;
     }
-
-    private static Collection<Fault> suppressed(Throwable t) {
-        Throwable[] suppressed = t.getSuppressed();
-        return suppressed == null || suppressed.length == 0
-            ? Collections.emptySet()
-            : Arrays.stream(suppressed).map(Fault::create).collect(Collectors.toList());
-    }
 }
@@ -0,0 +1,74 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.model;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import unearth.munch.print.CauseFrame;
+
+/**
+ * The parts of a cause in a fault's cause chain, for {@link Fault#recapture(Fault, CaptureBudget) capturing} the
+ * fault again.  The causes are innermost first, so the throwable is the last one.
+ */
+final class CauseParts implements ThrowableParts<CauseParts> {
+
+    static CauseParts of(Fault fault) {
+        return new CauseParts(fault.getCauses(), fault.getCauses().size() - 1);
+    }
+
+    private final List<Cause> causes;
+
+    private final int index;
+
+    private CauseParts(List<Cause> causes, int index) {
+        this.causes = causes;
+        this.index = index;
+    }
+
+    @Override
+    public String getClassName() {
+        return cause().getCauseStrand().getClassName();
+    }
+
+    @Override
+    public String getMessage() {
+        return cause().getMessage();
+    }
+
+    @Override
+    public List<CauseFrame> getCauseFrames() {
+        return cause().getCauseStrand().getCauseFrames();
+    }
+
+    @Override
+    public List<CauseParts> getSuppressed() {
+        return cause().getSuppressedFaults().stream()
+            .map(CauseParts::of)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public CauseParts getCause() {
+        return index > 0 ? new CauseParts(causes, index - 1) : null;
+    }
+
+    private Cause cause() {
+        return causes.get(index);
+    }
+}
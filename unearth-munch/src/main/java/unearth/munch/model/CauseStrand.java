@@ -17,14 +17,15 @@
 
 package unearth.munch.model;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import unearth.hashable.HashSink;
 import unearth.munch.ChameleonException;
 import unearth.munch.id.AbstractHashableIdentifiable;
 import unearth.munch.id.CauseStrandId;
@@ -36,29 +37,175 @@ import unearth.munch.print.CauseFrame;
 public final class CauseStrand extends AbstractHashableIdentifiable<CauseStrandId> {
 
     public static CauseStrand create(Throwable throwable) {
-        return new CauseStrand(className(throwable), causeFrames(throwable.getStackTrace()));
+        return create(throwable, CaptureBudget.defaults());
+    }
+
+    public static CauseStrand create(Throwable throwable, CaptureBudget budget) {
+        return create(className(throwable), throwable.getStackTrace(), budget);
     }
 
     public static CauseStrand create(String className, List<CauseFrame> stackFrames) {
-        return new CauseStrand(className, stackFrames);
+        return create(className, stackFrames, 0);
+    }
+
+    public static CauseStrand create(String className, List<CauseFrame> stackFrames, int truncatedFrames) {
+        if (stackFrames == null || stackFrames.isEmpty()) {
+            return new CauseStrand(className, null, null, truncatedFrames, null, 0);
+        }
+        List<Fold> folds = new ArrayList<>();
+        List<CauseFrame> foldedFrames = Fold.fold(stackFrames, folds);
+        return new CauseStrand(className, foldedFrames, folds, truncatedFrames, null, 0);
+    }
+
+    /**
+     * @param foldedFrames Frames, with each {@link Fold fold} kept once
+     * @param folds        Folds, in order
+     */
+    public static CauseStrand create(
+        String className,
+        List<CauseFrame> foldedFrames,
+        List<Fold> folds,
+        int truncatedFrames
+    ) {
+        return new CauseStrand(className, foldedFrames, folds, truncatedFrames, null, 0);
+    }
+
+    /**
+     * Folds the stack trace before applying the budget, so recursion counts as the cycle only.  A fold cut by the
+     * budget is dropped, and what is left of its cycle kept as plain frames.
+     */
+    static CauseStrand create(String className, StackTraceElement[] stackTrace, CaptureBudget budget) {
+        return create(className, stackTrace, budget, null, null);
+    }
+
+    /**
+     * Leaves out the frames shared with the enclosing cause, as {@link Throwable#printStackTrace()} does, unless
+     * either strand is truncated.
+     *
+     * @param enclosing      Strand of the enclosing cause, or null
+     * @param enclosingTrace Stack trace of the enclosing cause, or null
+     */
+    static CauseStrand create(
+        String className,
+        StackTraceElement[] stackTrace,
+        CaptureBudget budget,
+        CauseStrand enclosing,
+        StackTraceElement[] enclosingTrace
+    ) {
+        return create(
+            className,
+            Arrays.asList(stackTrace),
+            Capture.THROWABLES,
+            budget,
+            enclosing,
+            enclosingTrace == null ? null : Arrays.asList(enclosingTrace));
+    }
+
+    static <E> CauseStrand create(
+        String className,
+        List<E> stackTrace,
+        Capture<?, E> capture,
+        CaptureBudget budget,
+        CauseStrand enclosing,
+        List<E> enclosingTrace
+    ) {
+        int sharedFrames = enclosing == null || enclosing.truncatedFrames > 0
+            ? 0
+            : sharedFrames(stackTrace, enclosingTrace);
+        if (sharedFrames > 0) {
+            CauseStrand own = create(
+                className, stackTrace.subList(0, stackTrace.size() - sharedFrames), capture, budget, null, null);
+            if (own.truncatedFrames == 0) {
+                return own.enclosedBy(enclosing, sharedFrames);
+            }
+        }
+        List<Fold> folds = new ArrayList<>();
+        List<E> folded = Fold.fold(stackTrace, folds);
+        int frames = budget.frames(folded.size());
+        int captured = frames;
+        int keptFolds = 0;
+        while (keptFolds < folds.size() && folds.get(keptFolds).getEnd() <= frames) {
+            captured += folds.get(keptFolds++).getFolded();
+        }
+        return new CauseStrand(
+            className,
+            causeFrames(folded, frames, capture),
+            folds.subList(0, keptFolds),
+            stackTrace.size() - captured,
+            null,
+            0);
     }
 
     private final String className;
 
     private final List<CauseFrame> causeFrames;
 
-    private CauseStrand(String className, List<CauseFrame> stackFrames) {
+    private final List<Fold> folds;
+
+    private final int truncatedFrames;
+
+    private final CauseStrand enclosing;
+
+    private final int sharedFrames;
+
+    private CauseStrand(
+        String className,
+        List<CauseFrame> foldedFrames,
+        List<Fold> folds,
+        int truncatedFrames,
+        CauseStrand enclosing,
+        int sharedFrames
+    ) {
         this.className = className;
-        this.causeFrames =
-            stackFrames == null || ((Collection<CauseFrame>) stackFrames).isEmpty()
-                ? Collections.emptyList()
-                : List.copyOf(stackFrames);
+        this.causeFrames = foldedFrames == null || foldedFrames.isEmpty()
+            ? Collections.emptyList()
+            : List.copyOf(foldedFrames);
+        this.folds = folds == null || folds.isEmpty()
+            ? Collections.emptyList()
+            : List.copyOf(folds);
+        int position = 0;
+        for (Fold fold: this.folds) {
+            if (fold.getStart() < position || fold.getEnd() > causeFrames.size()) {
+                throw new IllegalArgumentException("Invalid fold for " + causeFrames.size() + " frames: " + fold);
+            }
+            position = fold.getEnd();
+        }
+        if (truncatedFrames < 0) {
+            throw new IllegalArgumentException("Invalid truncated frames: " + truncatedFrames);
+        }
+        this.truncatedFrames = truncatedFrames;
+        if (sharedFrames < 0 || (sharedFrames > 0) != (enclosing != null)) {
+            throw new IllegalArgumentException("Invalid shared frames: " + sharedFrames + " with " + enclosing);
+        }
+        if (sharedFrames > 0 && (truncatedFrames > 0 || sharedFrames > enclosing.getFrameCount())) {
+            throw new IllegalArgumentException(
+                "Cannot share " + sharedFrames + " frames, " + truncatedFrames + " truncated, with " + enclosing);
+        }
+        this.enclosing = enclosing;
+        this.sharedFrames = sharedFrames;
+    }
+
+    /**
+     * @param enclosing    Strand of the enclosing cause
+     * @param sharedFrames Number of frames at the bottom of the enclosing strand that this strand ends with
+     * @return A strand with the given shared frames in addition to its own, and the id of a strand holding all of
+     *     them
+     */
+    public CauseStrand enclosedBy(CauseStrand enclosing, int sharedFrames) {
+        return new CauseStrand(className, causeFrames, folds, truncatedFrames, enclosing, sharedFrames);
     }
 
+    /**
+     * Hashes all {@link #getCauseFrames() frames}, so neither folding nor sharing frames with an encloser changes
+     * the id.
+     */
     @Override
-    public void hashTo(Consumer<byte[]> h) {
-        hash(h, this.className);
-        hashables(h, this.causeFrames);
+    public void hashTo(HashSink h) {
+        h.putString(this.className);
+        hashFrames(h, 0);
+        if (truncatedFrames > 0) {
+            h.putInt(truncatedFrames);
+        }
     }
 
     @Override
@@ -70,31 +217,123 @@ public final class CauseStrand extends AbstractHashableIdentifiable<CauseStrandI
     protected StringBuilder withStringBody(StringBuilder sb) {
         int dotIndex = className.lastIndexOf(".");
         return sb.append(dotIndex >= 0 ? className.substring(dotIndex + 1) : className)
-            .append('/').append(causeFrames.size());
+            .append('/').append(causeFrames.size())
+            .append(folds.isEmpty() ? "" : "~" + folds.size())
+            .append(truncatedFrames > 0 ? "+" + truncatedFrames : "")
+            .append(sharedFrames > 0 ? "^" + sharedFrames : "");
     }
 
+    /**
+     * @return All frames, with folds unfolded and shared frames included
+     */
     public List<CauseFrame> getCauseFrames() {
+        List<CauseFrame> ownFrames = Fold.unfold(causeFrames, folds);
+        if (sharedFrames == 0) {
+            return ownFrames;
+        }
+        List<CauseFrame> enclosingFrames = enclosing.getCauseFrames();
+        List<CauseFrame> frames = new ArrayList<>(ownFrames.size() + sharedFrames);
+        frames.addAll(ownFrames);
+        frames.addAll(enclosingFrames.subList(enclosingFrames.size() - sharedFrames, enclosingFrames.size()));
+        return Collections.unmodifiableList(frames);
+    }
+
+    /**
+     * @return Number of frames in {@link #getCauseFrames()}
+     */
+    public int getFrameCount() {
+        int frameCount = causeFrames.size() + sharedFrames;
+        for (Fold fold: folds) {
+            frameCount += fold.getFolded();
+        }
+        return frameCount;
+    }
+
+    /**
+     * @return Own frames, with each {@link #getFolds() fold} kept once, and no {@link #getSharedFrames() shared}
+     *     frames
+     */
+    public List<CauseFrame> getFoldedFrames() {
         return causeFrames;
     }
 
+    /**
+     * @return Repeated cycles in the {@link #getFoldedFrames() folded frames}, in order
+     */
+    public List<Fold> getFolds() {
+        return folds;
+    }
+
     public String getClassName() {
         return className;
     }
 
-    private static List<CauseFrame> causeFrames(StackTraceElement[] stackTrace) {
-        return Arrays.stream(stackTrace).map(ste -> new CauseFrame(
-            CauseFrame.classLoader(ste.getClassLoaderName()),
-            CauseFrame.module(ste.getModuleName()),
-            CauseFrame.moduleVer(ste.getModuleVersion()),
-            CauseFrame.className(ste.getClassName()),
-            CauseFrame.method(ste.getMethodName()),
-            CauseFrame.file(ste.getFileName()),
-            ste.getLineNumber(),
-            ste.isNativeMethod()
-        )).collect(Collectors.toUnmodifiableList());
+    /**
+     * @return Number of frames left out by the {@link CaptureBudget capture budget}
+     */
+    public int getTruncatedFrames() {
+        return truncatedFrames;
+    }
+
+    /**
+     * @return Strand of the enclosing cause, if this strand {@link #getSharedFrames() shares} frames with it
+     */
+    public Optional<CauseStrand> getEnclosing() {
+        return Optional.ofNullable(enclosing);
+    }
+
+    /**
+     * @return Number of frames shared with the {@link #getEnclosing() enclosing} strand
+     */
+    public int getSharedFrames() {
+        return sharedFrames;
+    }
+
+    /**
+     * Hashes the {@link #getCauseFrames() frames} from the given one on, without unfolding them into a list.
+     */
+    private void hashFrames(HashSink h, int from) {
+        int frame = 0;
+        int position = 0;
+        for (int i = 0; i < folds.size(); i++) {
+            Fold fold = folds.get(i);
+            frame = hashFrames(h, from, frame, position, fold.getStart());
+            for (int repeat = 0; repeat < fold.getRepeats(); repeat++) {
+                frame = hashFrames(h, from, frame, fold.getStart(), fold.getEnd());
+            }
+            position = fold.getEnd();
+        }
+        frame = hashFrames(h, from, frame, position, causeFrames.size());
+        if (sharedFrames > 0) {
+            enclosing.hashFrames(h, enclosing.getFrameCount() - sharedFrames + Math.max(0, from - frame));
+        }
+    }
+
+    private int hashFrames(HashSink h, int from, int frame, int start, int end) {
+        for (int i = start; i < end; i++, frame++) {
+            if (frame >= from) {
+                hash(h, causeFrames.get(i));
+            }
+        }
+        return frame;
+    }
+
+    private static <E> int sharedFrames(List<E> stackTrace, List<E> enclosingTrace) {
+        int length = stackTrace.size();
+        int enclosingLength = enclosingTrace.size();
+        int shared = 0;
+        while (shared < length && shared < enclosingLength &&
+               stackTrace.get(length - 1 - shared).equals(enclosingTrace.get(enclosingLength - 1 - shared))) {
+            shared++;
+        }
+        return shared;
+    }
+
+    private static <E> List<CauseFrame> causeFrames(List<E> stackTrace, int frames, Capture<?, E> capture) {
+        return stackTrace.stream().limit(frames).map(capture::frame).collect(Collectors.toUnmodifiableList());
     }
 
-    private static String className(Throwable throwable) {
+    static String className(Throwable throwable) {
         return throwable instanceof ChameleonException
             ? ((ChameleonException) throwable).getProxiedClassName()
             : throwable.getClass().getName();
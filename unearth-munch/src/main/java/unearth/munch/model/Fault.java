@@ -22,9 +22,9 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import unearth.hashable.HashSink;
 import unearth.munch.id.AbstractHashableIdentifiable;
 import unearth.munch.id.FaultId;
 import unearth.util.Streams;
@@ -35,15 +35,48 @@ import unearth.util.Streams;
 public final class Fault extends AbstractHashableIdentifiable<FaultId> {
 
     public static Fault create(Throwable throwable) {
-        List<Cause> causes = Cause.causes(throwable);
-        FaultStrand faultStrand = FaultStrand.create(causes);
-        return new Fault(faultStrand, causes);
+        return create(throwable, CaptureBudget.defaults());
+    }
+
+    public static Fault create(Throwable throwable, CaptureBudget budget) {
+        return create(throwable, budget, Capture.THROWABLES);
+    }
+
+    /**
+     * @param parts The parts of a throwable, which need not be at hand itself
+     * @return A fault equal to the one the throwable would give
+     */
+    public static Fault create(ThrowableParts<?> parts) {
+        return create(parts, CaptureBudget.defaults());
+    }
+
+    public static Fault create(ThrowableParts<?> parts, CaptureBudget budget) {
+        return create(parts, budget, Capture.PARTS);
+    }
+
+    /**
+     * Captures a fault again under another budget, as if from the throwable it was made from.  What the fault's own
+     * budget left out stays left out, and is not counted again, so this is meant for faults that were captured whole.
+     *
+     * @param fault  Fault
+     * @param budget Budget
+     * @return A fault equal to the one the throwable would give under the budget
+     */
+    public static Fault recapture(Fault fault, CaptureBudget budget) {
+        return create(CauseParts.of(fault), budget, Capture.PARTS);
     }
 
     public static Fault create(FaultStrand faultStrand, Collection<Cause> causes) {
         return new Fault(faultStrand, causes);
     }
 
+    static <T> Fault create(T throwable, CaptureBudget budget, Capture<T, ?> capture) {
+        CaptureBudget.Chain<T> chain = budget.chain(throwable, capture::cause);
+        List<Cause> causes = Cause.causes(chain, budget, capture);
+        FaultStrand faultStrand = FaultStrand.create(causes, chain.getTruncated());
+        return new Fault(faultStrand, causes);
+    }
+
     private final FaultStrand faultStrand;
 
     private final List<Cause> causes;
@@ -58,7 +91,7 @@ public final class Fault extends AbstractHashableIdentifiable<FaultId> {
     }
 
     @Override
-    public void hashTo(Consumer<byte[]> h) {
+    public void hashTo(HashSink h) {
         hash(h, faultStrand);
         hashables(h, causes);
     }
@@ -22,8 +22,8 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.function.Consumer;
 
+import unearth.hashable.HashSink;
 import unearth.munch.id.AbstractHashableIdentifiable;
 import unearth.munch.id.FaultId;
 import unearth.munch.id.FaultStrandId;
@@ -63,7 +63,7 @@ public final class FaultEvent extends AbstractHashableIdentifiable<FeedEntryId>
         this(null, faultId, faultStrandId, null, time);
     }
 
-    private FaultEvent(
+    public FaultEvent(
         Integer throwableHashCode,
         FaultId faultId,
         FaultStrandId faultStrandId,
@@ -78,9 +78,8 @@ public final class FaultEvent extends AbstractHashableIdentifiable<FeedEntryId>
     }
 
     @Override
-    public void hashTo(Consumer<byte[]> h) {
-        hash(h, time.toEpochMilli());
-        hash(h, faultId);
+    public void hashTo(HashSink h) {
+        h.putLong(time.toEpochMilli()).putUuid(faultId.getHash());
     }
 
     @Override
@@ -96,7 +95,7 @@ public final class FaultEvent extends AbstractHashableIdentifiable<FeedEntryId>
         return new FeedEntryId(hash);
     }
 
-    public int getThrowableHashCode() {
+    public Integer getThrowableHashCode() {
         return throwableHashCode;
     }
 
@@ -21,9 +21,9 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import unearth.hashable.HashSink;
 import unearth.munch.id.AbstractHashableIdentifiable;
 import unearth.munch.id.FaultStrandId;
 
@@ -33,27 +33,44 @@ import unearth.munch.id.FaultStrandId;
 public final class FaultStrand extends AbstractHashableIdentifiable<FaultStrandId> {
 
     public static FaultStrand create(List<Cause> causes) {
+        return create(causes, 0);
+    }
+
+    public static FaultStrand create(List<Cause> causes, int truncatedCauses) {
         List<CauseStrand> causeStrands =
             causes.stream().map(Cause::getCauseStrand).collect(Collectors.toList());
-        return new FaultStrand(causeStrands);
+        return new FaultStrand(causeStrands, truncatedCauses);
     }
 
     public static FaultStrand create(Collection<CauseStrand> causeStrands) {
-        return new FaultStrand(causeStrands);
+        return create(causeStrands, 0);
+    }
+
+    public static FaultStrand create(Collection<CauseStrand> causeStrands, int truncatedCauses) {
+        return new FaultStrand(causeStrands, truncatedCauses);
     }
 
     private final List<CauseStrand> causeStrands;
 
-    private FaultStrand(Collection<CauseStrand> causeStrands) {
+    private final int truncatedCauses;
+
+    private FaultStrand(Collection<CauseStrand> causeStrands, int truncatedCauses) {
         if (Objects.requireNonNull(causeStrands).isEmpty()) {
             throw new IllegalArgumentException("Expected one or more causes");
         }
+        if (truncatedCauses < 0) {
+            throw new IllegalArgumentException("Invalid truncated causes: " + truncatedCauses);
+        }
         this.causeStrands = List.copyOf(causeStrands);
+        this.truncatedCauses = truncatedCauses;
     }
 
     @Override
-    public void hashTo(Consumer<byte[]> h) {
+    public void hashTo(HashSink h) {
         hashables(h, causeStrands);
+        if (truncatedCauses > 0) {
+            h.putInt(truncatedCauses);
+        }
     }
 
     @Override
@@ -72,6 +89,13 @@ public final class FaultStrand extends AbstractHashableIdentifiable<FaultStrandI
         return causeStrands;
     }
 
+    /**
+     * @return Number of innermost causes left out by the {@link CaptureBudget capture budget}
+     */
+    public int getTruncatedCauses() {
+        return truncatedCauses;
+    }
+
     int getCauseCount() {
         return causeStrands.size();
     }
@@ -0,0 +1,196 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import unearth.hashable.HashStrategies;
+import unearth.hashable.HashStrategy;
+import unearth.util.LruCache;
+
+/**
+ * Creates {@link Fault faults} from throwables, remembering the {@link FaultStrand fault strands} of recent stacks.
+ * <p>
+ * The stack traces and class names of a cause chain are fingerprinted with a cheap rolling hash.  If the fingerprint
+ * is known, and the stacks really are equal to the ones it was made from, the cached fault strand is reused and
+ * only the {@link Cause causes} are created and hashed anew.  Otherwise, the fault is built from scratch, and its
+ * fault strand remembered.
+ * <p>
+ * Fault strands cache their hashes, so the cache is emptied if the {@link HashStrategies#current() hash strategy}
+ * changes.
+ */
+public final class FaultStrandCache {
+
+    private final LruCache<Long, Known> known;
+
+    private final CaptureBudget budget;
+
+    private final AtomicReference<HashStrategy> strategy = new AtomicReference<>();
+
+    public FaultStrandCache(int size) {
+        this(size, null);
+    }
+
+    /**
+     * @param size   Number of fault strands to remember
+     * @param budget Budget, or null for the {@link CaptureBudget#defaults() defaults} of the current hash strategy
+     */
+    public FaultStrandCache(int size, CaptureBudget budget) {
+        this.known = LruCache.create(size);
+        this.budget = budget;
+    }
+
+    public Fault fault(Throwable throwable) {
+        vetStrategy();
+        return fault(throwable, budget == null ? CaptureBudget.defaults() : budget);
+    }
+
+    public long getHits() {
+        return known.getHits();
+    }
+
+    public long getMisses() {
+        return known.getMisses();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + known + "]";
+    }
+
+    /**
+     * Budgets differ only in their suppressed limits within one cache, so the cached fault strands hold for all.
+     */
+    private Fault fault(Throwable throwable, CaptureBudget budget) {
+        CaptureBudget.Chain<Throwable> captured = budget.chain(throwable);
+        List<Throwable> chain = captured.getThrowables();
+        int size = chain.size();
+        String[] classNames = new String[size];
+        StackTraceElement[][] stackTraces = new StackTraceElement[size][];
+        for (int i = 0; i < size; i++) {
+            classNames[i] = CauseStrand.className(chain.get(i));
+            stackTraces[i] = chain.get(i).getStackTrace();
+        }
+        long fingerprint = fingerprint(classNames, stackTraces, captured.getTruncated());
+
+        Known cached = known.get(fingerprint);
+        if (cached != null && cached.is(classNames, stackTraces, captured.getTruncated())) {
+            List<CauseStrand> causeStrands = cached.faultStrand.getCauseStrands();
+            List<Cause> causes = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                causes.add(cause(chain.get(i), causeStrands.get(i), budget));
+            }
+            return Fault.create(cached.faultStrand, causes);
+        }
+
+        Cause[] created = new Cause[size];
+        for (int i = size - 1; i >= 0; i--) {
+            created[i] = cause(
+                chain.get(i),
+                i == size - 1
+                    ? CauseStrand.create(classNames[i], stackTraces[i], budget)
+                    : CauseStrand.create(
+                        classNames[i],
+                        stackTraces[i],
+                        budget,
+                        created[i + 1].getCauseStrand(),
+                        stackTraces[i + 1]),
+                budget);
+        }
+        List<Cause> causes = Arrays.asList(created);
+        FaultStrand faultStrand = FaultStrand.create(causes, captured.getTruncated());
+        known.put(
+            fingerprint,
+            new Known(faultStrand, classNames, stackTraces, captured.getTruncated()));
+        return Fault.create(faultStrand, causes);
+    }
+
+    private void vetStrategy() {
+        HashStrategy current = HashStrategies.current();
+        if (strategy.get() == current) {
+            return;
+        }
+        HashStrategy previous = strategy.getAndSet(current);
+        if (previous != null && previous != current) {
+            known.clear();
+        }
+    }
+
+    private Cause cause(Throwable throwable, CauseStrand causeStrand, CaptureBudget budget) {
+        return Cause.create(
+            throwable.getMessage(),
+            causeStrand,
+            throwable.getSuppressed(),
+            budget,
+            this::fault);
+    }
+
+    private static final long PRIME = 0x100000001B3L;
+
+    private static long fingerprint(
+        String[] classNames,
+        StackTraceElement[][] stackTraces,
+        int truncatedCauses
+    ) {
+        long hash = classNames.length * PRIME + truncatedCauses;
+        for (int i = 0; i < classNames.length; i++) {
+            hash = hash * PRIME + classNames[i].hashCode();
+            hash = hash * PRIME + stackTraces[i].length;
+            for (StackTraceElement element: stackTraces[i]) {
+                hash = hash * PRIME + element.hashCode();
+            }
+        }
+        return hash;
+    }
+
+    private static final class Known {
+
+        private final FaultStrand faultStrand;
+
+        private final String[] classNames;
+
+        private final StackTraceElement[][] stackTraces;
+
+        private final int truncatedCauses;
+
+        private Known(
+            FaultStrand faultStrand,
+            String[] classNames,
+            StackTraceElement[][] stackTraces,
+            int truncatedCauses
+        ) {
+            this.faultStrand = faultStrand;
+            this.classNames = classNames;
+            this.stackTraces = stackTraces;
+            this.truncatedCauses = truncatedCauses;
+        }
+
+        private boolean is(
+            String[] classNames,
+            StackTraceElement[][] stackTraces,
+            int truncatedCauses
+        ) {
+            return this.truncatedCauses == truncatedCauses &&
+                   Arrays.equals(this.classNames, classNames) &&
+                   Arrays.deepEquals(this.stackTraces, stackTraces);
+        }
+    }
+}
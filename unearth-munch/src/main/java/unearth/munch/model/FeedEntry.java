@@ -17,8 +17,8 @@
 package unearth.munch.model;
 
 import java.util.UUID;
-import java.util.function.Consumer;
 
+import unearth.hashable.HashSink;
 import unearth.munch.id.AbstractHashableIdentifiable;
 import unearth.munch.id.FeedEntryId;
 
@@ -46,8 +46,8 @@ public final class FeedEntry extends AbstractHashableIdentifiable<FeedEntryId> {
     }
 
     @Override
-    public void hashTo(Consumer<byte[]> h) {
-        hash(h, faultSequenceNo, faultStrandSequenceNo, globalSequenceNo);
+    public void hashTo(HashSink h) {
+        h.putLong(faultSequenceNo).putLong(faultStrandSequenceNo).putLong(globalSequenceNo);
         hash(h, faultEvent);
     }
 
@@ -0,0 +1,169 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A run of repeated frames in a {@link CauseStrand cause strand}, as left by recursion.  The cycle is kept once, at
+ * {@link #getStart() start} in the folded frames, and stands for {@link #getRepeats() repeats} consecutive copies of
+ * itself.
+ */
+public final class Fold {
+
+    public static Fold create(int start, int length, int repeats) {
+        return new Fold(start, length, repeats);
+    }
+
+    private final int start;
+
+    private final int length;
+
+    private final int repeats;
+
+    private Fold(int start, int length, int repeats) {
+        if (start < 0 || length < 1 || repeats < 2) {
+            throw new IllegalArgumentException("Invalid fold: " + start + "/" + length + "x" + repeats);
+        }
+        this.start = start;
+        this.length = length;
+        this.repeats = repeats;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getRepeats() {
+        return repeats;
+    }
+
+    public int getEnd() {
+        return start + length;
+    }
+
+    /**
+     * @return Number of frames left out by folding
+     */
+    public int getFolded() {
+        return length * (repeats - 1);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(start, length, repeats);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Fold
+                            && start == ((Fold) o).start
+                            && length == ((Fold) o).length
+                            && repeats == ((Fold) o).repeats;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + start + "/" + length + "x" + repeats + "]";
+    }
+
+    static final int MIN_REPEATS = 3;
+
+    static final int MAX_CYCLE = 32;
+
+    /**
+     * Folds repeated cycles, greedily from the top, preferring the fold that leaves out the most items.
+     *
+     * @param items Items
+     * @param folds Receives the folds
+     * @param <T>   Item type
+     * @return The folded items, or the items themselves if there is nothing to fold
+     */
+    static <T> List<T> fold(List<T> items, List<Fold> folds) {
+        int size = items.size();
+        List<T> folded = null;
+        int i = 0;
+        while (i < size) {
+            int bestLength = 0;
+            int bestRepeats = 0;
+            for (int length = 1; length <= MAX_CYCLE && i + length * MIN_REPEATS <= size; length++) {
+                int repeats = repeats(items, i, length);
+                if (repeats >= MIN_REPEATS && length * (repeats - 1) > bestLength * (bestRepeats - 1)) {
+                    bestLength = length;
+                    bestRepeats = repeats;
+                }
+            }
+            if (bestLength == 0) {
+                if (folded != null) {
+                    folded.add(items.get(i));
+                }
+                i++;
+            } else {
+                if (folded == null) {
+                    folded = new ArrayList<>(items.subList(0, i));
+                }
+                folds.add(new Fold(folded.size(), bestLength, bestRepeats));
+                folded.addAll(items.subList(i, i + bestLength));
+                i += bestLength * bestRepeats;
+            }
+        }
+        return folded == null ? items : folded;
+    }
+
+    static <T> List<T> unfold(List<T> folded, List<Fold> folds) {
+        if (folds.isEmpty()) {
+            return folded;
+        }
+        List<T> items = new ArrayList<>(folded.size() + folds.stream().mapToInt(Fold::getFolded).sum());
+        int position = 0;
+        for (Fold fold: folds) {
+            items.addAll(folded.subList(position, fold.start));
+            List<T> cycle = folded.subList(fold.start, fold.getEnd());
+            for (int i = 0; i < fold.repeats; i++) {
+                items.addAll(cycle);
+            }
+            position = fold.getEnd();
+        }
+        items.addAll(folded.subList(position, folded.size()));
+        return Collections.unmodifiableList(items);
+    }
+
+    private static <T> int repeats(List<T> items, int start, int length) {
+        int repeats = 1;
+        while (start + (repeats + 1) * length <= items.size() && cycles(items, start, start + repeats * length, length)) {
+            repeats++;
+        }
+        return repeats;
+    }
+
+    private static <T> boolean cycles(List<T> items, int first, int second, int length) {
+        for (int i = 0; i < length; i++) {
+            if (!Objects.equals(items.get(first + i), items.get(second + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -21,8 +21,8 @@ import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.function.Consumer;
 
+import unearth.hashable.HashSink;
 import unearth.munch.id.AbstractHashableIdentifiable;
 import unearth.munch.id.FaultLogId;
 
@@ -51,9 +51,11 @@ public final class LogEntry extends AbstractHashableIdentifiable<FaultLogId> {
     }
 
     @Override
-    public void hashTo(Consumer<byte[]> h) {
-        hash(h, logMessage);
-        hash(h, args);
+    public void hashTo(HashSink h) {
+        h.putString(logMessage);
+        for (String arg: args) {
+            h.putString(arg);
+        }
     }
 
     @Override
@@ -0,0 +1,47 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.model;
+
+import java.util.List;
+
+import unearth.munch.print.CauseFrame;
+
+/**
+ * The parts of a throwable that a {@link Fault fault} is made of, for throwables that are only known by their
+ * parts, such as parsed stack traces.
+ *
+ * @param <T> Type of the cause and suppressed throwables
+ */
+public interface ThrowableParts<T extends ThrowableParts<T>> {
+
+    String getClassName();
+
+    String getMessage();
+
+    /**
+     * @return All frames, including the ones shared with an enclosing throwable
+     */
+    List<CauseFrame> getCauseFrames();
+
+    List<T> getSuppressed();
+
+    /**
+     * @return The cause, or null
+     */
+    T getCause();
+}
@@ -0,0 +1,110 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@link String} operations the parsers need, over {@link CharSequence} views of the input.
+ */
+final class Chars {
+
+    static int indexOf(CharSequence chars, String part, int from) {
+        int last = chars.length() - part.length();
+        for (int i = Math.max(0, from); i <= last; i++) {
+            if (regionMatches(chars, i, part)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static boolean contains(CharSequence chars, String part) {
+        return indexOf(chars, part, 0) >= 0;
+    }
+
+    static boolean startsWith(CharSequence chars, String prefix) {
+        return chars.length() >= prefix.length() && regionMatches(chars, 0, prefix);
+    }
+
+    /**
+     * @see String#isBlank()
+     */
+    static boolean isBlank(CharSequence chars) {
+        for (int i = 0; i < chars.length(); i++) {
+            if (!Character.isWhitespace(chars.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @see String#trim()
+     */
+    static CharSequence trim(CharSequence chars) {
+        int end = chars.length();
+        int start = leading(chars);
+        while (end > start && chars.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return start == 0 && end == chars.length() ? chars : chars.subSequence(start, end);
+    }
+
+    /**
+     * @return Number of leading characters that {@link #trim(CharSequence) trim} would remove
+     */
+    static int leading(CharSequence chars) {
+        int start = 0;
+        while (start < chars.length() && chars.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    /**
+     * @return The non-blank lines
+     */
+    static List<CharSequence> lines(CharSequence chars) {
+        List<CharSequence> lines = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= chars.length(); i++) {
+            if (i == chars.length() || chars.charAt(i) == '\n') {
+                CharSequence line = chars.subSequence(start, i);
+                if (!isBlank(line)) {
+                    lines.add(line);
+                }
+                start = i + 1;
+            }
+        }
+        return lines;
+    }
+
+    private Chars() {
+    }
+
+    private static boolean regionMatches(CharSequence chars, int offset, String part) {
+        for (int i = 0; i < part.length(); i++) {
+            if (chars.charAt(offset + i) != part.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -37,7 +37,7 @@ public enum ExceptionHeadingType implements ExceptionHeadingPicker {
         }
         
         @Override
-        public String[] toParts(String line) {
+        public String[] toParts(CharSequence line) {
             return COLON.split(line, 2);
         }
     };
@@ -48,8 +48,8 @@ public enum ExceptionHeadingType implements ExceptionHeadingPicker {
         this.prefix = prefix;
     }
     
-    public String[] toParts(String line) {
-        return line.startsWith(prefix) ? COLON.split(line, 3) : null;
+    public String[] toParts(CharSequence line) {
+        return Chars.startsWith(line, prefix) ? COLON.split(line, 3) : null;
     }
     
     @Override
@@ -0,0 +1,169 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.parser;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import unearth.hashable.HashStrategies;
+import unearth.hashable.HashStrategy;
+import unearth.munch.print.CauseFrame;
+import unearth.munch.print.FramePool;
+import unearth.util.LruCache;
+
+/**
+ * Remembers the frames that stack trace lines {@link StackTraceLexer#frame(CharSequence) lexed} to, so that the
+ * lines submissions keep repeating are looked up instead of lexed.  Lines are looked up without copying them, and
+ * only copied when stored.
+ * <p>
+ * Like the {@link FramePool frame pool} it gets its frames from, it is bounded, and is emptied if the
+ * {@link HashStrategies#current() hash strategy} changes.
+ */
+public final class FrameLines {
+    
+    public static FrameLines shared() {
+        return SHARED;
+    }
+    
+    public static FrameLines create(int size) {
+        return new FrameLines(size);
+    }
+    
+    private final LruCache<Line, CauseFrame> lines;
+    
+    private final AtomicReference<HashStrategy> strategy = new AtomicReference<>();
+    
+    private FrameLines(int size) {
+        this.lines = LruCache.create(size);
+    }
+    
+    /**
+     * @param line A line
+     * @return The line's frame, as {@link StackTraceLexer#frame(CharSequence) lexed}
+     */
+    public CauseFrame frame(CharSequence line) {
+        vetStrategy();
+        Line probe = new Line(line);
+        CauseFrame cached = lines.get(probe);
+        if (cached != null) {
+            return cached;
+        }
+        CauseFrame frame = StackTraceLexer.frame(line);
+        if (frame != null) {
+            lines.put(new Line(line.toString(), probe.hash), frame);
+        }
+        return frame;
+    }
+    
+    public long getHits() {
+        return lines.getHits();
+    }
+    
+    public long getMisses() {
+        return lines.getMisses();
+    }
+    
+    /**
+     * @return Share of lookups that were hits, or 0 if there have been none
+     */
+    public double getHitRatio() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+    
+    public int getCount() {
+        return lines.getCount();
+    }
+    
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + lines + "]";
+    }
+    
+    private void vetStrategy() {
+        HashStrategy current = HashStrategies.current();
+        if (strategy.get() == current) {
+            return;
+        }
+        HashStrategy previous = strategy.getAndSet(current);
+        if (previous != null && previous != current) {
+            lines.clear();
+        }
+    }
+    
+    private static final int SHARED_SIZE = 100_000;
+    
+    private static final FrameLines SHARED = new FrameLines(SHARED_SIZE);
+    
+    /**
+     * Compares lines by their characters, so that views can be looked up.
+     */
+    private static final class Line {
+        
+        private final CharSequence chars;
+        
+        private final int hash;
+        
+        private Line(CharSequence chars) {
+            this(chars, hash(chars));
+        }
+        
+        private Line(CharSequence chars, int hash) {
+            this.chars = chars;
+            this.hash = hash;
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Line)) {
+                return false;
+            }
+            Line line = (Line) obj;
+            if (line.hash != hash || line.chars.length() != chars.length()) {
+                return false;
+            }
+            for (int i = 0; i < chars.length(); i++) {
+                if (line.chars.charAt(i) != chars.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        @Override
+        public String toString() {
+            return chars.toString();
+        }
+        
+        private static int hash(CharSequence chars) {
+            int hash = 0;
+            for (int i = 0; i < chars.length(); i++) {
+                hash = 31 * hash + chars.charAt(i);
+            }
+            return hash;
+        }
+    }
+}
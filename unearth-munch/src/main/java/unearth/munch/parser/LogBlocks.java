@@ -0,0 +1,147 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Finds stack trace blocks in UTF-8 log text, looking only at the bytes that start each line.  A block is a heading
+ * line followed by continuation lines: {@code at} frames, {@code ... n more}, {@code Caused by:} and
+ * {@code Suppressed:}.  Any other line ends the block, so the text can be cut safely in front of it.
+ */
+final class LogBlocks {
+    
+    /**
+     * @param buffer Log text
+     * @param from   Offset to start looking from
+     * @param limit  End of the text we may look at
+     * @return Start of the first complete line at or after {@code from} that can't be inside a block, or -1
+     */
+    static int boundary(ByteBuffer buffer, int from, int limit) {
+        int line = from == 0 || buffer.get(from - 1) == '\n' ? from : lineEnd(buffer, from, limit) + 1;
+        while (line < limit) {
+            int end = lineEnd(buffer, line, limit);
+            if (end == limit) {
+                return -1;
+            }
+            if (!continuation(buffer, line, end)) {
+                return line;
+            }
+            line = end + 1;
+        }
+        return -1;
+    }
+    
+    /**
+     * @param buffer Log text
+     * @param limit  End of the text
+     * @return Start of the last complete line, after the first, that can't be inside a block, or -1
+     */
+    static int lastBoundary(ByteBuffer buffer, int limit) {
+        int end = limit - 1;
+        while (end >= 0 && buffer.get(end) != '\n') {
+            end--;
+        }
+        while (end > 0) {
+            int start = end - 1;
+            while (start >= 0 && buffer.get(start) != '\n') {
+                start--;
+            }
+            start++;
+            if (start > 0 && !continuation(buffer, start, end)) {
+                return start;
+            }
+            end = start - 1;
+        }
+        return -1;
+    }
+    
+    /**
+     * @param buffer Log text
+     * @param from   Start of a line which is a {@link #boundary(ByteBuffer, int, int) boundary}
+     * @param to     Another boundary, or the end of the text
+     * @param blocks Receives each block as a slice of the buffer
+     */
+    static void scan(ByteBuffer buffer, int from, int to, Consumer<ByteBuffer> blocks) {
+        int heading = -1;
+        int block = -1;
+        int line = from;
+        while (line < to) {
+            int end = lineEnd(buffer, line, to);
+            if (continuation(buffer, line, end)) {
+                if (block < 0 && heading >= 0) {
+                    block = heading;
+                }
+            } else {
+                if (block >= 0) {
+                    blocks.accept(buffer.slice(block, line - block));
+                    block = -1;
+                }
+                heading = line;
+            }
+            line = end + 1;
+        }
+        if (block >= 0) {
+            blocks.accept(buffer.slice(block, to - block));
+        }
+    }
+    
+    private LogBlocks() {
+    }
+    
+    private static final byte[] AT = "at ".getBytes(StandardCharsets.UTF_8);
+    
+    private static final byte[] MORE = "... ".getBytes(StandardCharsets.UTF_8);
+    
+    private static final byte[] CAUSED_BY = "Caused by: ".getBytes(StandardCharsets.UTF_8);
+    
+    private static final byte[] SUPPRESSED = ThrowableParser.SUPPRESSED.getBytes(StandardCharsets.UTF_8);
+    
+    private static int lineEnd(ByteBuffer buffer, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return limit;
+    }
+    
+    private static boolean continuation(ByteBuffer buffer, int start, int end) {
+        int i = start;
+        while (i < end && (buffer.get(i) == ' ' || buffer.get(i) == '\t')) {
+            i++;
+        }
+        return i > start && (startsWith(buffer, i, end, AT) || startsWith(buffer, i, end, MORE))
+               || startsWith(buffer, i, end, CAUSED_BY)
+               || startsWith(buffer, i, end, SUPPRESSED);
+    }
+    
+    private static boolean startsWith(ByteBuffer buffer, int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+
+import unearth.munch.model.Fault;
+
+/**
+ * Extracts the stack traces in a log file, as faults.  Plain files are memory-mapped a chunk at a time, gzipped files
+ * are decompressed into chunks as we go.  Chunks are cut on lines that can't be inside a stack trace, and parsed in
+ * parallel in a fork-join pool.  Only a {@link #create(ForkJoinPool, int) window} of chunks is in flight at any time,
+ * so memory use does not grow with the file.
+ * <p>
+ * A stack trace is found by its {@code at} lines, and the heading is the line before them.  Exception messages
+ * that span lines are not supported, and neither are traces which can't be {@link ThrowableParser parsed}.  Those
+ * are skipped, and {@link #getUnparsed() counted}.
+ */
+public final class LogScanner {
+    
+    public static LogScanner create() {
+        return create(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+    
+    /**
+     * @param pool      Pool to parse in
+     * @param chunkSize Size of each chunk, at most 1Gb. Twice the pool's parallelism of chunks are in flight at any
+     *                  time
+     * @return Scanner
+     */
+    public static LogScanner create(ForkJoinPool pool, int chunkSize) {
+        return new LogScanner(pool, chunkSize);
+    }
+    
+    private final ForkJoinPool pool;
+    
+    private final int chunkSize;
+    
+    private final int window;
+    
+    private final LongAdder unparsed = new LongAdder();
+    
+    private LogScanner(ForkJoinPool pool, int chunkSize) {
+        this.pool = Objects.requireNonNull(pool, "pool");
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.window = 2 * pool.getParallelism();
+    }
+    
+    /**
+     * @param path Log file, gzipped if the name ends with {@value #GZ}
+     * @return Faults in the order they appear. The stream should be closed, to close the file
+     */
+    public Stream<Fault> faults(Path path) {
+        try {
+            return faults(path.getFileName().toString().endsWith(GZ)
+                ? new Streamed(new GZIPInputStream(Files.newInputStream(path), GZIP_BUFFER))
+                : new Mapped(FileChannel.open(path, StandardOpenOption.READ)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open " + path, e);
+        }
+    }
+    
+    /**
+     * @param in Log text
+     * @return Faults in the order they appear.  Closing the stream closes the input
+     */
+    public Stream<Fault> faults(InputStream in) {
+        return faults(new Streamed(Objects.requireNonNull(in, "in")));
+    }
+    
+    /**
+     * @return Number of stack traces found, but not parsed
+     */
+    public long getUnparsed() {
+        return unparsed.sum();
+    }
+    
+    private Stream<Fault> faults(Chunks chunks) {
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                new Faults(chunks),
+                Spliterator.ORDERED | Spliterator.NONNULL),
+            false
+        ).onClose(() -> {
+            try {
+                chunks.close();
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to close " + chunks, e);
+            }
+        });
+    }
+    
+    /**
+     * Logs tend to repeat themselves, so identical stack traces in a chunk are only parsed once.
+     */
+    private List<Fault> scan(ByteBuffer buffer, int from, int to) {
+        List<Fault> faults = new ArrayList<>();
+        Map<ByteBuffer, Fault> parsed = new HashMap<>();
+        LogBlocks.scan(buffer, from, to, block -> {
+            Fault fault = parsed.get(block);
+            if (fault == null) {
+                try {
+                    fault = ThrowableParser.parseFault(block);
+                } catch (RuntimeException e) {
+                    unparsed.increment();
+                    return;
+                }
+                parsed.put(block, fault);
+            }
+            faults.add(fault);
+        });
+        return faults;
+    }
+    
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + pool + " chunkSize:" + chunkSize + "]";
+    }
+    
+    /**
+     * @return Index after the last line break, or the length if there is none
+     */
+    private static int lastLine(byte[] bytes, int length) {
+        for (int i = length; i > 0; i--) {
+            if (bytes[i - 1] == '\n') {
+                return i;
+            }
+        }
+        return length;
+    }
+    
+    private static final String GZ = ".gz";
+    
+    private static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+    
+    private static final int GZIP_BUFFER = 64 * 1024;
+    
+    /**
+     * How far past its end a chunk is first mapped, to find the end of a stack trace that crosses it.
+     */
+    private static final int OVERLAP = 64 * 1024;
+    
+    /**
+     * How far past its end a chunk may be mapped, or a streamed chunk may grow.  A stack trace that runs on past this
+     * is cut off there.
+     */
+    private static final int MAX_OVERLAP = 64 * 1024 * 1024;
+    
+    /**
+     * Keeps a chunk and its overlap within what can be mapped in one buffer.
+     */
+    private static final int MAX_CHUNK_SIZE = 1024 * 1024 * 1024;
+    
+    private interface Chunks extends Closeable {
+        
+        /**
+         * @return Parse of the next chunk, or null if there are no more
+         */
+        Supplier<List<Fault>> next() throws IOException;
+    }
+    
+    private final class Faults implements Iterator<Fault> {
+        
+        private final Chunks chunks;
+        
+        private final Deque<ForkJoinTask<List<Fault>>> inFlight = new ArrayDeque<>();
+        
+        private Iterator<Fault> current = Collections.emptyIterator();
+        
+        private boolean exhausted;
+        
+        private Faults(Chunks chunks) {
+            this.chunks = chunks;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                fill();
+                ForkJoinTask<List<Fault>> next = inFlight.poll();
+                if (next == null) {
+                    return false;
+                }
+                current = next.join().iterator();
+            }
+            return true;
+        }
+        
+        @Override
+        public Fault next() {
+            if (hasNext()) {
+                return current.next();
+            }
+            throw new NoSuchElementException();
+        }
+        
+        private void fill() {
+            while (!exhausted && inFlight.size() < window) {
+                Supplier<List<Fault>> chunk;
+                try {
+                    chunk = chunks.next();
+                } catch (IOException e) {
+                    throw new IllegalStateException("Failed to read " + chunks, e);
+                }
+                if (chunk == null) {
+                    exhausted = true;
+                } else {
+                    inFlight.add(pool.submit(chunk::get));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Maps each chunk when it is parsed.  The chunk's stack traces are the ones that start between its first and
+     * last {@link LogBlocks#boundary(ByteBuffer, int, int) boundaries}, so the chunks agree on who owns a trace that
+     * crosses between them.
+     */
+    private final class Mapped implements Chunks {
+        
+        private final FileChannel channel;
+        
+        private final long size;
+        
+        private long position;
+        
+        private Mapped(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+        
+        @Override
+        public Supplier<List<Fault>> next() {
+            if (position >= size) {
+                return null;
+            }
+            long start = position;
+            long end = Math.min(size, start + chunkSize);
+            position = end;
+            return () -> faults(start, end);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+        
+        private List<Fault> faults(long start, long end) {
+            long base = Math.max(0, start - 1);
+            int chunkStart = Math.toIntExact(start - base);
+            int chunkEnd = Math.toIntExact(end - base);
+            for (long overlap = OVERLAP; ; overlap = Math.min(2 * overlap, MAX_OVERLAP)) {
+                long limit = Math.min(size, end + overlap);
+                ByteBuffer buffer = map(base, limit);
+                int mapped = buffer.limit();
+                int from = LogBlocks.boundary(buffer, chunkStart, mapped);
+                if (from < 0 || from >= chunkEnd) {
+                    return Collections.emptyList();
+                }
+                int to = end == size ? mapped : LogBlocks.boundary(buffer, chunkEnd, mapped);
+                if (to >= 0 || limit == size || overlap == MAX_OVERLAP) {
+                    return scan(buffer, from, to < 0 ? mapped : to);
+                }
+            }
+        }
+        
+        private ByteBuffer map(long start, long end) {
+            try {
+                return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to map " + start + "-" + end + " of " + channel, e);
+            }
+        }
+    }
+    
+    /**
+     * Reads chunks up to the last {@link LogBlocks#lastBoundary(ByteBuffer, int) boundary}, and carries the rest
+     * over to the next one.  A chunk grows if it's all one stack trace, up to {@link #MAX_OVERLAP} past the chunk
+     * size.  Then it is cut at its last line.
+     */
+    private final class Streamed implements Chunks {
+        
+        private final InputStream in;
+        
+        private final int maxLength = chunkSize + MAX_OVERLAP;
+        
+        private byte[] carry = new byte[0];
+        
+        private boolean done;
+        
+        private Streamed(InputStream in) {
+            this.in = in;
+        }
+        
+        @Override
+        public Supplier<List<Fault>> next() throws IOException {
+            if (done) {
+                return null;
+            }
+            byte[] bytes = Arrays.copyOf(carry, grown(carry.length));
+            int length = carry.length;
+            while (true) {
+                length += in.readNBytes(bytes, length, bytes.length - length);
+                if (length < bytes.length) {
+                    done = true;
+                    carry = null;
+                    return length == 0 ? null : chunk(bytes, length);
+                }
+                int cut = LogBlocks.lastBoundary(ByteBuffer.wrap(bytes), length);
+                if (cut <= 0 && length == maxLength) {
+                    cut = lastLine(bytes, length);
+                }
+                if (cut > 0) {
+                    carry = Arrays.copyOfRange(bytes, cut, length);
+                    return chunk(bytes, cut);
+                }
+                bytes = Arrays.copyOf(bytes, grown(bytes.length));
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+        
+        private Supplier<List<Fault>> chunk(byte[] bytes, int length) {
+            return () -> scan(ByteBuffer.wrap(bytes), 0, length);
+        }
+        
+        private int grown(int length) {
+            return (int) Math.min(maxLength, Math.max(chunkSize, 2L * length));
+        }
+
+    }
+}
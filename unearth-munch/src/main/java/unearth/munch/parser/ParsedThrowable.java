@@ -25,14 +25,22 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import unearth.munch.ChameleonException;
+import unearth.munch.model.ThrowableParts;
 import unearth.munch.print.CauseFrame;
 
-final class ParsedThrowable {
+final class ParsedThrowable implements ThrowableParts<ParsedThrowable> {
     
     static Throwable reconstructed(List<ParsedThrowable> parsedThrowables) {
         return reconstructed(null, parsedThrowables);
     }
     
+    /**
+     * @return The outermost throwable, with its causes and suppressed throwables linked up
+     */
+    static ParsedThrowable linked(List<ParsedThrowable> parsedThrowables) {
+        return linked(null, parsedThrowables);
+    }
+    
     private final ExceptionHeading heading;
     
     private final List<CauseFrame> stackTrace;
@@ -41,6 +49,8 @@ final class ParsedThrowable {
     
     private final int more;
     
+    private final ParsedThrowable cause;
+    
     ParsedThrowable(ExceptionHeading heading, CauseFrame... stackTrace) {
         this(heading, Arrays.asList(stackTrace));
     }
@@ -69,17 +79,56 @@ final class ParsedThrowable {
         List<CauseFrame> stackTrace,
         List<List<ParsedThrowable>> suppressions,
         int more
+    ) {
+        this(heading, stackTrace, suppressions, more, null);
+    }
+    
+    private ParsedThrowable(
+        ExceptionHeading heading,
+        List<CauseFrame> stackTrace,
+        List<List<ParsedThrowable>> suppressions,
+        int more,
+        ParsedThrowable cause
     ) {
         this.heading = heading;
         this.stackTrace = stackTrace;
         this.suppressions = suppressions;
         this.more = more;
+        this.cause = cause;
+    }
+    
+    @Override
+    public String getClassName() {
+        return heading.getName();
+    }
+    
+    @Override
+    public String getMessage() {
+        return heading.getMessage();
+    }
+    
+    @Override
+    public List<CauseFrame> getCauseFrames() {
+        return stackTrace;
+    }
+    
+    @Override
+    public List<ParsedThrowable> getSuppressed() {
+        return suppressions.stream()
+            .map(parsedThrowables ->
+                linked(this, parsedThrowables))
+            .collect(Collectors.toList());
+    }
+    
+    @Override
+    public ParsedThrowable getCause() {
+        return cause;
     }
     
     ParsedThrowable withSuppressed(List<List<ParsedThrowable>> suppressions) {
         return suppressions == null || suppressions.isEmpty()
             ? this
-            : new ParsedThrowable(heading, stackTrace, suppressions, more);
+            : new ParsedThrowable(heading, stackTrace, suppressions, more, cause);
     }
     
     ParsedThrowable enclosedBy(ParsedThrowable encloser) {
@@ -97,7 +146,12 @@ final class ParsedThrowable {
             encloser.stackTrace.stream().skip(enclosingFrames))
             .collect(Collectors.toList()),
             suppressions,
-            more);
+            more,
+            cause);
+    }
+    
+    private ParsedThrowable causedBy(ParsedThrowable cause) {
+        return new ParsedThrowable(heading, stackTrace, suppressions, more, cause);
     }
     
     ChameleonException reconstruct(Throwable caused) {
@@ -120,6 +174,31 @@ final class ParsedThrowable {
     private static Throwable reconstructed(
         ParsedThrowable enclosing,
         List<ParsedThrowable> parsedThrowables
+    ) {
+        Throwable cause = null;
+        for (ParsedThrowable parsedThrowable: enclosed(enclosing, parsedThrowables)) {
+            cause = parsedThrowable.reconstruct(cause);
+        }
+        return cause;
+    }
+    
+    private static ParsedThrowable linked(
+        ParsedThrowable enclosing,
+        List<ParsedThrowable> parsedThrowables
+    ) {
+        ParsedThrowable cause = null;
+        for (ParsedThrowable parsedThrowable: enclosed(enclosing, parsedThrowables)) {
+            cause = parsedThrowable.causedBy(cause);
+        }
+        return cause;
+    }
+    
+    /**
+     * @return The throwables with their shared frames filled in, innermost first
+     */
+    private static List<ParsedThrowable> enclosed(
+        ParsedThrowable enclosing,
+        List<ParsedThrowable> parsedThrowables
     ) {
         List<ParsedThrowable> list = new ArrayList<>(parsedThrowables);
         for (int i = 0; i < list.size(); i++) {
@@ -129,11 +208,7 @@ final class ParsedThrowable {
             list.set(i, list.get(i).enclosedBy(encloser));
         }
         Collections.reverse(list);
-        Throwable cause = null;
-        for (ParsedThrowable parsedThrowable: list) {
-            cause = parsedThrowable.reconstruct(cause);
-        }
-        return cause;
+        return list;
     }
     
     @Override
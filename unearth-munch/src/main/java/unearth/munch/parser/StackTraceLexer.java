@@ -0,0 +1,284 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.parser;
+
+import unearth.munch.print.CauseFrame;
+import unearth.munch.print.FramePool;
+
+/**
+ * Reads a stack trace line in one pass, without regular expressions.  It accepts exactly the lines that the
+ * earlier regular expressions matched, and yields the same frames.  The tests keep the expressions, as
+ * {@code StackTraceElementType}, and check the two against each other.
+ */
+final class StackTraceLexer {
+
+    /**
+     * @param line A line
+     * @return A frame, a {@link CauseFrame#isRef() reference} for {@code ... n more}, or null if the line is neither
+     * @throws IllegalStateException If the line looks like a frame, but its numbers can't be read
+     */
+    static CauseFrame frame(CharSequence line) {
+        int length = line.length();
+        int start = skipWhitespace(line, 0, length);
+        CauseFrame frame = length - start > 3
+                           && line.charAt(start) == 'a'
+                           && line.charAt(start + 1) == 't'
+                           && isWhitespace(line.charAt(start + 2))
+            ? frame(line, start + 3, length)
+            : null;
+        return frame == null ? more(line, start, length) : frame;
+    }
+
+    private StackTraceLexer() {
+    }
+
+    private static CauseFrame frame(CharSequence line, int start, int end) {
+        if (line.charAt(end - 1) != ')') {
+            return null;
+        }
+        int at = -1;
+        int slash = -1;
+        int open = -1;
+        for (int i = start; i < end - 1 && open < 0; i++) {
+            char c = line.charAt(i);
+            if (c == '@') {
+                if (at >= 0 || slash >= 0) {
+                    return null;
+                }
+                at = i;
+            } else if (c == '/') {
+                if (slash >= 0) {
+                    return null;
+                }
+                slash = i;
+            } else if (c == '(') {
+                open = i;
+            } else if (!isWord(c) && c != '.' && c != '$') {
+                return null;
+            }
+        }
+        if (open < 0 || at >= 0 && slash < 0) {
+            return null;
+        }
+        int close = end - 1;
+        if (slash < 0) {
+            return basic(line, start, open, close);
+        }
+        int moduleEnd = at < 0 ? slash : at;
+        if (!isWords(line, start, moduleEnd, false) || at >= 0 && !isWords(line, at + 1, slash, false)) {
+            return null;
+        }
+        String module = string(line, start, moduleEnd);
+        String moduleVersion = at < 0 ? null : string(line, at + 1, slash);
+        int colon = indexOf(line, ':', open + 1, close);
+        if (colon >= 0) {
+            return isWords(line, open + 1, colon, true) && isDigits(line, colon + 1, close)
+                ? frame(module, moduleVersion, line, slash + 1, open, colon, close)
+                : null;
+        }
+        return isWords(line, slash + 1, open, false) && isWordsOrWhitespace(line, open + 1, close)
+            ? frame(module, moduleVersion, line, slash + 1, open, string(line, open + 1, close), -1, true)
+            : null;
+    }
+
+    private static CauseFrame basic(CharSequence line, int start, int open, int close) {
+        int colon = indexOf(line, ':', open + 1, close);
+        if (colon >= 0) {
+            return isWords(line, open + 1, colon, true) && isDigits(line, colon + 1, close)
+                ? frame(null, null, line, start, open, colon, close)
+                : null;
+        }
+        if (isWords(line, open + 1, close, true)) {
+            return frame(null, null, line, start, open, string(line, open + 1, close), -1, false);
+        }
+        return isWordsOrWhitespace(line, open + 1, close)
+            ? frame(null, null, line, start, open, string(line, open + 1, close), -1, true)
+            : null;
+    }
+
+    private static CauseFrame frame(
+        String module,
+        String moduleVersion,
+        CharSequence line,
+        int methodStart,
+        int open,
+        int colon,
+        int close
+    ) {
+        return frame(
+            module,
+            moduleVersion,
+            line,
+            methodStart,
+            open,
+            string(line, open + 1, colon),
+            number(line, colon + 1, close),
+            false);
+    }
+
+    private static CauseFrame frame(
+        String module,
+        String moduleVersion,
+        CharSequence line,
+        int methodStart,
+        int methodEnd,
+        String file,
+        int lineNo,
+        boolean naytiv
+    ) {
+        int lastDot = lastIndexOf(line, '.', methodStart, methodEnd);
+        return FramePool.shared().frame(
+            null,
+            module,
+            moduleVersion,
+            lastDot < 0 ? null : string(line, methodStart, lastDot),
+            lastDot < 0 ? null : string(line, lastDot + 1, methodEnd),
+            file,
+            lineNo,
+            naytiv);
+    }
+
+    /**
+     * Like {@code \s*...\s*(\d*)\s*more}, where the dots are any three characters, and the leading whitespace is
+     * given back one by one until the rest matches.
+     */
+    private static CauseFrame more(CharSequence line, int whitespaceEnd, int end) {
+        int moreStart = end - MORE.length();
+        if (moreStart < 3 || !MORE.contentEquals(line.subSequence(moreStart, end))) {
+            return null;
+        }
+        for (int dotsStart = whitespaceEnd; dotsStart >= 0; dotsStart--) {
+            int dotsEnd = dotsStart + 3;
+            if (dotsEnd > moreStart || isLineTerminator(line, dotsStart, dotsEnd)) {
+                continue;
+            }
+            int digitsStart = skipWhitespace(line, dotsEnd, moreStart);
+            int digitsEnd = digitsStart;
+            while (digitsEnd < moreStart && isDigit(line.charAt(digitsEnd))) {
+                digitsEnd++;
+            }
+            if (skipWhitespace(line, digitsEnd, moreStart) == moreStart) {
+                return new CauseFrame(number(line, digitsStart, digitsEnd));
+            }
+        }
+        return null;
+    }
+
+    private static final String MORE = "more";
+
+    private static boolean isDigits(CharSequence line, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!isDigit(line.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int number(CharSequence line, int start, int end) {
+        if (start == end) {
+            throw new IllegalStateException("No number: " + line);
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + line.charAt(i) - '0';
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Invalid number: " + line);
+            }
+        }
+        return (int) value;
+    }
+
+    private static boolean isWords(CharSequence line, int start, int end, boolean dollars) {
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (!isWord(c) && c != '.' && (!dollars || c != '$')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWordsOrWhitespace(CharSequence line, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (!isWord(c) && !isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLineTerminator(CharSequence line, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int skipWhitespace(CharSequence line, int start, int end) {
+        int i = start;
+        while (i < end && isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int indexOf(CharSequence line, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (line.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(CharSequence line, char c, int start, int end) {
+        for (int i = end - 1; i >= start; i--) {
+            if (line.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String string(CharSequence line, int start, int end) {
+        return line.subSequence(start, end).toString();
+    }
+
+    /**
+     * Like {@code \w}.
+     */
+    private static boolean isWord(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || isDigit(c) || c == '_';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Like {@code \s}.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
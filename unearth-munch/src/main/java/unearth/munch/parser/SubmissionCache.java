@@ -0,0 +1,110 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.parser;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import unearth.hashable.HashStrategies;
+import unearth.hashable.HashStrategy;
+import unearth.munch.model.Fault;
+import unearth.util.LruCache;
+
+/**
+ * Remembers the faults that submitted stack traces {@link ThrowableParser#parseFault(CharSequence) parsed} to, by a
+ * 128-bit {@link HashStrategies#murmur3() murmur3} fingerprint of the text.  A client that keeps submitting the same
+ * text gets its fault looked up, instead of parsed.
+ * <p>
+ * Murmur3 is not a cryptographic hash, so a client could craft a text with the fingerprint of another.  Entries keep
+ * the text, and a hit is only served if the submission equals it.  Otherwise the submission is parsed, and replaces
+ * the entry.
+ * <p>
+ * Faults cache their hashes, so the cache is emptied if the {@link HashStrategies#current() hash strategy} changes.
+ */
+public final class SubmissionCache {
+    
+    public static SubmissionCache create(int size) {
+        return new SubmissionCache(size, SubmissionCache::murmur3);
+    }
+    
+    private final LruCache<UUID, Submission> submissions;
+    
+    private final Function<CharSequence, UUID> fingerprint;
+    
+    private final AtomicReference<HashStrategy> strategy = new AtomicReference<>();
+    
+    SubmissionCache(int size, Function<CharSequence, UUID> fingerprint) {
+        this.submissions = LruCache.create(size);
+        this.fingerprint = fingerprint;
+    }
+    
+    /**
+     * @param submission Stack trace text
+     * @return Fault
+     * @throws IllegalArgumentException If the text could not be parsed
+     */
+    public Fault fault(CharSequence submission) {
+        vetStrategy();
+        UUID fingerprint = this.fingerprint.apply(submission);
+        Submission cached = submissions.computeIfAbsent(fingerprint, __ -> parse(submission));
+        if (cached.text().contentEquals(submission)) {
+            return cached.fault();
+        }
+        Submission parsed = parse(submission);
+        submissions.put(fingerprint, parsed);
+        return parsed.fault();
+    }
+    
+    public long getHits() {
+        return submissions.getHits();
+    }
+    
+    public long getMisses() {
+        return submissions.getMisses();
+    }
+    
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + submissions + "]";
+    }
+    
+    private void vetStrategy() {
+        HashStrategy current = HashStrategies.current();
+        if (strategy.get() == current) {
+            return;
+        }
+        HashStrategy previous = strategy.getAndSet(current);
+        if (previous != null && previous != current) {
+            submissions.clear();
+        }
+    }
+    
+    private static Submission parse(CharSequence submission) {
+        return new Submission(submission.toString(), ThrowableParser.parseFault(submission));
+    }
+    
+    private static UUID murmur3(CharSequence submission) {
+        HashStrategy.Hasher hasher = HashStrategies.murmur3().hasher();
+        hasher.putChars(submission);
+        return hasher.digest();
+    }
+    
+    private record Submission(String text, Fault fault) {
+    }
+}
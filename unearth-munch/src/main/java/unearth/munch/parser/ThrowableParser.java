@@ -17,35 +17,70 @@
 package unearth.munch.parser;
 
 import java.nio.ByteBuffer;
-import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
+
+import unearth.munch.model.Fault;
+import unearth.util.Utf8Chars;
 
 public final class ThrowableParser {
     
     static final String SUPPRESSED = "Suppressed: ";
     
+    /**
+     * @param buffer UTF-8 bytes, which are read in place
+     * @return Parsed throwable
+     */
     public static Throwable parse(ByteBuffer buffer) {
-        return parse(new String(buffer.array(), StandardCharsets.UTF_8));
+        return parse(Utf8Chars.of(buffer));
+    }
+    
+    /**
+     * @param in Stack trace text.  Only the parts that end up in the throwable are copied
+     * @return Parsed throwable
+     */
+    public static Throwable parse(CharSequence in) {
+        return parse(in, ParsedThrowable::reconstructed);
+    }
+    
+    public static Fault parseFault(ByteBuffer buffer) {
+        return parseFault(Utf8Chars.of(buffer));
+    }
+    
+    /**
+     * Creates the fault straight from the parsed text, without reconstructing the throwable first.
+     *
+     * @param in Stack trace text
+     * @return Fault, equal to the one the {@link #parse(CharSequence) parsed} throwable would give
+     */
+    public static Fault parseFault(CharSequence in) {
+        return parse(in, parsedThrowables -> {
+            if (parsedThrowables.isEmpty()) {
+                throw new IllegalArgumentException("No exception found");
+            }
+            return Fault.create(ParsedThrowable.linked(parsedThrowables));
+        });
     }
     
-    public static Throwable parse(String in) {
+    private ThrowableParser() {
+    }
+    
+    private static <T> T parse(CharSequence in, Function<List<ParsedThrowable>, T> result) {
         Objects.requireNonNull(in, "in");
-        if (in.contains(SUPPRESSED)) {
-            return WellformedThrowableParser.parse(in);
+        if (Chars.contains(in, SUPPRESSED)) {
+            return result.apply(WellformedThrowableParser.parse(in));
         }
         try {
-            return TolerantThrowableParser.parse(in);
+            return result.apply(TolerantThrowableParser.parse(in));
         } catch (Exception e) {
             return failedParse(in, e);
         }
     }
     
-    private ThrowableParser() {
-    }
-    
-    private static <T> T failedParse(String in, Exception e) {
+    private static <T> T failedParse(CharSequence in, Exception e) {
         
         throw new IllegalArgumentException(
-            "Failed to parse as exception: " + in.substring(0, Math.min(30, in.length())) + "...", e);
+            "Failed to parse as exception: " + in.subSequence(0, Math.min(30, in.length())) + "...", e);
     }
 }
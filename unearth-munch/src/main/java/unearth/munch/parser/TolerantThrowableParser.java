@@ -17,10 +17,11 @@
 
 package unearth.munch.parser;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -32,16 +33,12 @@ final class TolerantThrowableParser {
     
     static final String CAUSED_BY = "Caused by: ";
     
-    static final Pattern LINE = Pattern.compile("\n");
-    
     static final String AT = "\n\tat ";
     
-    static Throwable parse(String in) {
-        List<String> trimmedLines = trimmed(in);
+    static List<ParsedThrowable> parse(CharSequence in) {
+        List<CharSequence> trimmedLines = trimmed(in);
         List<Integer> causeIndices = causeIndices(trimmedLines);
-        List<ParsedThrowable> parsedThrowables =
-            parsed(trimmedLines, causeIndices);
-        return ParsedThrowable.reconstructed(parsedThrowables);
+        return parsed(trimmedLines, causeIndices);
     }
     
     private TolerantThrowableParser() {
@@ -52,99 +49,119 @@ final class TolerantThrowableParser {
     
     private static final String ERROR = Error.class.getSimpleName();
     
+    private static final String AT_PREAMBLE = "at ";
+    
     private static final Pattern AT_PREAMBLE_PATTERN = Pattern.compile("\\s+at\\s");
     
-    private static List<Integer> causeIndices(List<String> trimmedLines) {
+    private static List<Integer> causeIndices(List<CharSequence> trimmedLines) {
         return IntStream.range(0, trimmedLines.size())
             .filter(index ->
                 !isStacktraceLine(trimmedLines, index))
             .filter(index -> {
-                String line = trimmedLines.get(index);
-                return types(EXCEPTION, ERROR).anyMatch(line::contains) || line.startsWith(CAUSED_BY);
+                CharSequence line = trimmedLines.get(index);
+                return types(EXCEPTION, ERROR).anyMatch(type ->
+                    Chars.contains(line, type)) || Chars.startsWith(line, CAUSED_BY);
             })
             .boxed()
             .collect(Collectors.toList());
     }
     
-    private static boolean isStacktraceLine(List<String> trimmedLines, int index) {
-        return trimmedLines.get(index).startsWith("at ");
+    private static boolean isStacktraceLine(List<CharSequence> trimmedLines, int index) {
+        return Chars.startsWith(trimmedLines.get(index), "at ");
     }
     
     private static Stream<String> types(String... types) {
         return Arrays.stream(types).map(type -> type + ": ");
     }
     
-    private static List<String> trimmed(String in) {
-        String[] lines = LINE.split(AT_PREAMBLE_PATTERN.matcher(in.trim()).replaceAll(AT));
-        return Arrays.stream(lines)
-            .filter(Objects::nonNull)
-            .filter(line -> !line.isBlank())
-            .map(String::trim)
-            .collect(Collectors.toList());
+    /**
+     * Splits the input into trimmed lines, also breaking before every {@code at} that follows whitespace.  Lines are
+     * views of the input, unless an {@code at} is followed by anything but a space.
+     */
+    private static List<CharSequence> trimmed(CharSequence in) {
+        CharSequence trimmed = Chars.trim(in);
+        Matcher matcher = AT_PREAMBLE_PATTERN.matcher(trimmed);
+        List<CharSequence> lines = new ArrayList<>();
+        int start = 0;
+        while (matcher.find()) {
+            if (trimmed.charAt(matcher.end() - 1) != ' ') {
+                return trimmed(matcher.replaceAll(AT));
+            }
+            addTrimmed(trimmed.subSequence(start, matcher.start()), lines);
+            start = matcher.end() - AT_PREAMBLE.length();
+        }
+        addTrimmed(trimmed.subSequence(start, trimmed.length()), lines);
+        return lines;
     }
     
-    private static List<ParsedThrowable> parsed(List<String> trimmmedLines, List<Integer> causeIndices) {
-        return causeIndices.stream().map(causeIndex -> {
+    private static void addTrimmed(CharSequence chars, List<CharSequence> lines) {
+        for (CharSequence line: Chars.lines(chars)) {
+            lines.add(Chars.trim(line));
+        }
+    }
+    
+    private static List<ParsedThrowable> parsed(List<CharSequence> trimmmedLines, List<Integer> causeIndices) {
+        return IntStream.range(0, causeIndices.size()).mapToObj(cause -> {
                 CauseFrame[] causeFrames =
-                    stackTrace(trimmmedLines, causeIndices, causeIndex);
+                    stackTrace(trimmmedLines, causeIndices, cause);
                 ExceptionHeading exceptionHeading =
-                    getExceptionHeading(trimmmedLines, causeIndex);
+                    getExceptionHeading(trimmmedLines, causeIndices.get(cause));
                 return new ParsedThrowable(
                     exceptionHeading, causeFrames);
             }
         ).collect(Collectors.toList());
     }
     
-    private static ExceptionHeading getExceptionHeading(List<String> lines, int causeIndex) {
-        String line = lines.get(causeIndex);
+    private static ExceptionHeading getExceptionHeading(List<CharSequence> lines, int causeIndex) {
+        CharSequence line = lines.get(causeIndex);
         Optional<String> simple = Stream.of(EXCEPTION, ERROR)
-            .filter(type -> line.contains(type + ": "))
+            .filter(type -> Chars.contains(line, type + ": "))
             .findFirst();
         Optional<ExceptionHeading> simpleParsed = simple.map(type ->
             getExceptionHeading(type, line));
         if (simpleParsed.isPresent()) {
             return simpleParsed.get();
         }
-        if (line.contains(CAUSED_BY)) {
+        if (Chars.contains(line, CAUSED_BY)) {
             return getCauseExceptionHeading(line);
         }
         throw new IllegalStateException("Not cause index: " + causeIndex + ": " + lines.get(causeIndex));
     }
     
-    private static ExceptionHeading getExceptionHeading(String type, String line) {
-        int hit = line.indexOf(type + ": ");
+    private static ExceptionHeading getExceptionHeading(String type, CharSequence line) {
+        int hit = Chars.indexOf(line, type + ": ", 0);
         int i = hit;
         while (true) {
             if (i == 0 || Character.isWhitespace(line.charAt(i - 1))) {
-                String exceptionName = line.substring(i, hit) + type;
-                String message = line.substring(hit + type.length() + 2);
+                String exceptionName = line.subSequence(i, hit) + type;
+                String message = line.subSequence(hit + type.length() + 2, line.length()).toString();
                 return new ExceptionHeading(exceptionName, message);
             }
             i--;
         }
     }
     
-    private static ExceptionHeading getCauseExceptionHeading(String line) {
-        int startIndex = line.indexOf(CAUSED_BY);
-        int nextIndex = line.indexOf(":", startIndex);
-        String exceptionName = line.substring(startIndex + CAUSED_BY.length(), nextIndex);
-        String message = line.substring(startIndex + CAUSED_BY.length() + 2);
+    private static ExceptionHeading getCauseExceptionHeading(CharSequence line) {
+        int startIndex = Chars.indexOf(line, CAUSED_BY, 0);
+        int nextIndex = Chars.indexOf(line, ":", startIndex);
+        String exceptionName = line.subSequence(startIndex + CAUSED_BY.length(), nextIndex).toString();
+        String message = line.subSequence(startIndex + CAUSED_BY.length() + 2, line.length()).toString();
         return new ExceptionHeading(exceptionName, message);
     }
     
-    private static CauseFrame[] stackTrace(List<String> trimmedLines, List<Integer> causeIndices, int causeIndex) {
-        int endIndex = causeIndex >= causeIndices.size() - 1
-            ? trimmedLines.size() - 1
-            : causeIndices.get(causeIndex + 1);
+    private static CauseFrame[] stackTrace(List<CharSequence> trimmedLines, List<Integer> causeIndices, int cause) {
+        int endIndex = cause >= causeIndices.size() - 1
+            ? trimmedLines.size()
+            : causeIndices.get(cause + 1);
         return parsed(
             trimmedLines,
-            causeIndex + 1,
+            causeIndices.get(cause) + 1,
             endIndex);
     }
     
-    private static CauseFrame[] parsed(List<String> trimmedLines, int startIndex, int endIndex) {
+    private static CauseFrame[] parsed(List<CharSequence> trimmedLines, int startIndex, int endIndex) {
         if (startIndex > endIndex) {
-            String lines =
+            CharSequence lines =
                 trimmedLines.size() > startIndex ? trimmedLines.get(startIndex) : trimmedLines.size() + " lines";
             throw new IllegalArgumentException("Line start " + startIndex + " > end " + endIndex + " @ " + lines);
         }
@@ -154,16 +171,7 @@ final class TolerantThrowableParser {
             .toArray(CauseFrame[]::new);
     }
     
-    private static Optional<CauseFrame> parseCauseFrame(String line) {
-        return Arrays.stream(StackTraceElementType.values()).flatMap(type ->
-            reconstructed(type, line))
-            .findFirst();
-    }
-    
-    private static Stream<CauseFrame> reconstructed(StackTraceElementType type, String line) {
-        return Optional.ofNullable(type.toParts(line)).stream()
-            .map(matches ->
-                new StackTraceParts(type, matches))
-            .flatMap(StackTraceParts::reconstruct);
+    private static Optional<CauseFrame> parseCauseFrame(CharSequence line) {
+        return Optional.ofNullable(FrameLines.shared().frame(line));
     }
 }
@@ -25,7 +25,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -35,9 +34,9 @@ import unearth.util.Streams;
 
 final class WellformedThrowableParser {
     
-    static Throwable parse(String in) {
+    static List<ParsedThrowable> parse(CharSequence in) {
         int level = 0;
-        List<String> lines = lines(in);
+        List<CharSequence> lines = Chars.lines(in);
         List<String> indents = getIndents(lines);
         return parse(level, lines, indents);
     }
@@ -49,19 +48,15 @@ final class WellformedThrowableParser {
     
     private static final String CAUSED_BY = "Caused by: ";
     
-    private static final Pattern LINE = Pattern.compile("\n");
-    
-    private static Optional<ExceptionHeading> parseExceptionHeading(String line) {
-        return Optional.ofNullable(line).map(String::trim).flatMap(l ->
+    private static Optional<ExceptionHeading> parseExceptionHeading(CharSequence line) {
+        return Optional.ofNullable(line).map(Chars::trim).flatMap(l ->
             Arrays.stream(ExceptionHeadingType.values()).flatMap(type ->
                 reconstructed(type, l).stream())
                 .findFirst());
     }
     
-    private static Throwable parse(int level, List<String> lines, List<String> indents) {
-        List<ParsedThrowable> throwables =
-            parseLevel(lines, 0, lines.size(), level, indents, true);
-        return ParsedThrowable.reconstructed(throwables);
+    private static List<ParsedThrowable> parse(int level, List<CharSequence> lines, List<String> indents) {
+        return parseLevel(lines, 0, lines.size(), level, indents, true);
     }
     
     private static Map<Integer, Integer> indexToIndex(int[] ts, int lastIndex) {
@@ -88,7 +83,7 @@ final class WellformedThrowableParser {
     }
     
     private static List<ParsedThrowable> parseLevel(
-        List<String> lines,
+        List<CharSequence> lines,
         int startIndex,
         int stopIndex,
         int level,
@@ -136,7 +131,7 @@ final class WellformedThrowableParser {
     }
     
     private static List<ParsedThrowable> parseCauses(
-        List<String> lines,
+        List<CharSequence> lines,
         int level,
         List<String> indents,
         Map<Integer, Integer> causeStartStops
@@ -148,7 +143,7 @@ final class WellformedThrowableParser {
     }
     
     private static List<List<ParsedThrowable>> parseSuppressions(
-        List<String> lines,
+        List<CharSequence> lines,
         int level,
         List<String> indents,
         Map<Integer, Integer> suppressStartStops
@@ -173,56 +168,39 @@ final class WellformedThrowableParser {
             .findFirst();
     }
     
-    private static List<CauseFrame> stackFrames(List<String> lines, int startIndex, int stopIndex) {
+    private static List<CauseFrame> stackFrames(List<CharSequence> lines, int startIndex, int stopIndex) {
         return lines.subList(startIndex, stopIndex).stream()
             .map(WellformedThrowableParser::parseCauseFrame)
             .flatMap(Optional::stream)
             .collect(Collectors.toList());
     }
     
-    private static List<String> lines(String in) {
-        return Arrays.stream(LINE.split(in))
-            .filter(obj ->
-                !(obj == null || obj.isBlank()))
-            .collect(Collectors.toList());
-    }
-    
-    private static List<String> getIndents(List<String> lines) {
+    private static List<String> getIndents(List<CharSequence> lines) {
         return lines.stream()
             .map(line ->
-                Character.isWhitespace(line.charAt(0)) ? line.substring(0, line.indexOf(line.trim())) : "")
+                Character.isWhitespace(line.charAt(0)) ? line.subSequence(0, Chars.leading(line)).toString() : "")
             .distinct()
             .sorted(Comparator.comparing(String::length))
             .collect(Collectors.toList());
     }
     
     private static int[] getIndexes(
-        List<String> lines,
+        List<CharSequence> lines,
         int startIndex,
         int endIndex,
         String indent,
         String type
     ) {
         return IntStream.range(startIndex, endIndex)
-            .filter(i -> lines.get(i).startsWith(indent + type))
+            .filter(i -> Chars.startsWith(lines.get(i), indent + type))
             .toArray();
     }
     
-    private static Optional<CauseFrame> parseCauseFrame(String line) {
-        return Arrays.stream(StackTraceElementType.values())
-            .flatMap(type ->
-                reconstructed(type, line))
-            .findFirst();
-    }
-    
-    private static Stream<CauseFrame> reconstructed(StackTraceElementType type, String line) {
-        return Optional.ofNullable(type.toParts(line)).stream()
-            .map(matches ->
-                new StackTraceParts(type, matches))
-            .flatMap(StackTraceParts::reconstruct);
+    private static Optional<CauseFrame> parseCauseFrame(CharSequence line) {
+        return Optional.ofNullable(FrameLines.shared().frame(line));
     }
     
-    private static Optional<ExceptionHeading> reconstructed(ExceptionHeadingType type, String line) {
+    private static Optional<ExceptionHeading> reconstructed(ExceptionHeadingType type, CharSequence line) {
         return Optional.ofNullable(type.toParts(line)).map(matches ->
             new ExceptionHeading(type.type(matches), type.message(matches)));
     }
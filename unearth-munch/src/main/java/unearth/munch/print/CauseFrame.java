@@ -17,11 +17,12 @@
 package unearth.munch.print;
 
 import java.util.Arrays;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import unearth.hashable.AbstractHashable;
+import unearth.hashable.HashSink;
+import unearth.util.LruCache;
 import unearth.util.StringlyTyped;
 
 public final class CauseFrame extends AbstractHashable {
@@ -62,9 +63,9 @@ public final class CauseFrame extends AbstractHashable {
     
     private final File file;
     
-    private final Integer line;
+    private final int line;
     
-    private final Boolean naytiv;
+    private final boolean naytiv;
     
     private final int more;
     
@@ -241,20 +242,18 @@ public final class CauseFrame extends AbstractHashable {
     }
     
     @Override
-    public void hashTo(Consumer<byte[]> h) {
+    public void hashTo(HashSink h) {
         if (isRef()) {
-            hash(h, more);
+            h.putInt(more);
         } else {
-            hash(
-                h,
-                classLoader == null ? "" : classLoader.string(),
-                module == null ? "" : module.string(),
-                moduleVer == null ? "" : moduleVer.string(),
-                className.string(),
-                file.string(),
-                method.string());
-            hash(h, line);
-            hash(h, naytiv);
+            h.putString(classLoader == null ? "" : classLoader.string())
+                .putString(module == null ? "" : module.string())
+                .putString(moduleVer == null ? "" : moduleVer.string())
+                .putString(className.string())
+                .putString(file.string())
+                .putString(method.string())
+                .putInt(line)
+                .putBoolean(naytiv);
         }
     }
     
@@ -263,7 +262,7 @@ public final class CauseFrame extends AbstractHashable {
             classLoader,
             module,
             moduleVer,
-            className(shortened(className().string())),
+            SHORTENED.computeIfAbsent(className().string(), name -> className(shortened(name))),
             method,
             file,
             line,
@@ -275,8 +274,16 @@ public final class CauseFrame extends AbstractHashable {
         return defaultPrint(sb);
     }
     
+    /**
+     * Shortened names are shared by all the frames of a class.
+     */
+    private static final LruCache<String, ClassName> SHORTENED = LruCache.create(10_000);
+    
     private static String shortened(String className) {
         int dot = className.lastIndexOf(".");
+        if (dot < 0) {
+            return className;
+        }
         return Stream.concat(
             Arrays.stream(className.substring(0, dot).split("\\."))
                 .map(part -> part.substring(0, 1)),
@@ -17,6 +17,7 @@
 
 package unearth.munch.print;
 
+import java.io.IOException;
 import java.util.Collection;
 
 import unearth.munch.model.Cause;
@@ -29,4 +30,26 @@ public interface CausesRenderer {
     }
     
     CausesRendering render(Collection<Cause> causeChain);
+    
+    /**
+     * Writes the causes in the order the {@link #render(Fault) rendering} iterates them, each as its class name and
+     * message, followed by its stack.
+     *
+     * @param fault       Fault
+     * @param stackIndent Indent of stack lines, defaults to a tab
+     * @param out         Where to write
+     * @return The appendable
+     */
+    default <A extends Appendable> A render(Fault fault, String stackIndent, A out) {
+        try {
+            for (CausesRendering rendering: render(fault)) {
+                for (String line: rendering.getStrings(stackIndent)) {
+                    out.append(line).append('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to render to " + out, e);
+        }
+        return out;
+    }
 }
@@ -38,7 +38,7 @@ public final class CausesRendering implements Iterable<CausesRendering> {
     
     CausesRendering(String className, String message, Collection<String> stack, CausesRendering cause) {
         this.className = className;
-        this.message = message == null || message.isBlank() ? "null" : message.trim();
+        this.message = message(message);
         this.stack = stack == null || stack.isEmpty() ? Collections.emptyList() : List.copyOf(stack);
         this.cause = cause;
     }
@@ -64,7 +64,7 @@ public final class CausesRendering implements Iterable<CausesRendering> {
     }
     
     public Collection<String> getStrings(String stackIndent) {
-        String indent = stackIndent == null ? DEFAULT_INDENT : stackIndent;
+        String indent = indent(stackIndent);
         return Stream.concat(
             Stream.of(className + ": " + message),
             stack.stream().map(line -> indent + line)
@@ -76,5 +76,13 @@ public final class CausesRendering implements Iterable<CausesRendering> {
         return Streams.chain(this, CausesRendering::getCause).iterator();
     }
     
+    static String message(String message) {
+        return message == null || message.isBlank() ? "null" : message.trim();
+    }
+    
+    static String indent(String stackIndent) {
+        return stackIndent == null ? DEFAULT_INDENT : stackIndent;
+    }
+    
     private static final String DEFAULT_INDENT = "\t";
 }
@@ -17,19 +17,23 @@
 
 package unearth.munch.print;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import unearth.munch.model.Cause;
-import unearth.util.Streams;
+import unearth.munch.model.CauseStrand;
+import unearth.munch.model.Fold;
 
 public final class ConfigurableStackRenderer implements StackRenderer {
     
@@ -69,8 +73,15 @@ public final class ConfigurableStackRenderer implements StackRenderer {
     
     private final boolean omitStack;
     
+    private final RenderCache cache;
+    
+    /**
+     * The settings are functions, which can't be compared, so each configuration gets its own fingerprint.
+     */
+    private final long fingerprint = FINGERPRINTS.incrementAndGet();
+    
     public ConfigurableStackRenderer() {
-        this(null, null, null, null, null, false);
+        this(null, null, null, null, null, false, null);
     }
     
     private ConfigurableStackRenderer(
@@ -79,7 +90,8 @@ public final class ConfigurableStackRenderer implements StackRenderer {
         FramePrinter framePrinter,
         List<GroupedFrameTransform> reshapers,
         FrameLister squasher,
-        boolean omitStack
+        boolean omitStack,
+        RenderCache cache
     ) {
         this.grouper = grouper == null
             ? causeFrame -> Optional.empty()
@@ -96,79 +108,145 @@ public final class ConfigurableStackRenderer implements StackRenderer {
             : framePrinter;
         this.squasher = squasher;
         this.omitStack = omitStack;
+        this.cache = cache;
     }
     
     public StackRenderer framePrinter(FramePrinter framePrinter) {
         return new ConfigurableStackRenderer(
-            grouper, groupPrinter, framePrinter, reshapers, squasher, omitStack);
+            grouper, groupPrinter, framePrinter, reshapers, squasher, omitStack, cache);
     }
     
     public ConfigurableStackRenderer group(PackageGrouper grouper) {
         return new ConfigurableStackRenderer(
-            grouper, groupPrinter, framePrinter, reshapers, squasher, omitStack);
+            grouper, groupPrinter, framePrinter, reshapers, squasher, omitStack, cache);
     }
     
     public ConfigurableStackRenderer squash(FrameLister squasher) {
         return new ConfigurableStackRenderer(
-            grouper, groupPrinter, framePrinter, reshapers, squasher, omitStack);
+            grouper, groupPrinter, framePrinter, reshapers, squasher, omitStack, cache);
     }
     
     public final ConfigurableStackRenderer reshape(GroupedFrameTransform... reshapers) {
         return new ConfigurableStackRenderer(
-            grouper, groupPrinter, framePrinter, added(reshapers), squasher, omitStack);
+            grouper, groupPrinter, framePrinter, added(reshapers), squasher, omitStack, cache);
     }
     
     public final ConfigurableStackRenderer noStack() {
         return new ConfigurableStackRenderer(
-            grouper, groupPrinter, framePrinter, reshapers, squasher, true);
+            grouper, groupPrinter, framePrinter, reshapers, squasher, true, cache);
+    }
+    
+    /**
+     * @param cache Cache to remember renderings in
+     * @return A renderer that looks up the strands it has rendered before
+     */
+    public final ConfigurableStackRenderer cached(RenderCache cache) {
+        return new ConfigurableStackRenderer(
+            grouper, groupPrinter, framePrinter, reshapers, squasher, omitStack, cache);
     }
     
     public final ConfigurableStackRenderer reshape(FrameTransform... reshapers) {
         List<GroupedFrameTransform> added =
             added(Arrays.stream(reshapers).map(ConfigurableStackRenderer::ungrouped));
         return new ConfigurableStackRenderer(
-            grouper, groupPrinter, framePrinter, added, squasher, omitStack);
+            grouper, groupPrinter, framePrinter, added, squasher, omitStack, cache);
     }
     
     @Override
     public List<String> render(Cause cause) {
-        return renderFrames(cause.getCauseStrand().getCauseFrames());
-    }
-    
-    private List<String> renderFrames(List<CauseFrame> causeFrames) {
         if (omitStack) {
             return Collections.emptyList();
         }
-        GroupedList<Collection<String>, CauseFrame> groupedList =
-            GroupedList.group(causeFrames, grouper);
+        if (cache != null) {
+            return cache.rendering(fingerprint, cause.getCauseStrand(), this::listed);
+        }
+        return listed(cause.getCauseStrand());
+    }
+    
+    /**
+     * Writes the lines straight to the appendable.  Frames are printed into a scratch buffer of their own first, so
+     * the frame printer always starts out with an empty builder.
+     */
+    @Override
+    public <A extends Appendable> A render(Cause cause, String indent, A out) {
+        if (cache != null) {
+            return StackRenderer.super.render(cause, indent, out);
+        }
+        if (!omitStack) {
+            render(cause.getCauseStrand(), new AppendedLines(indent, out));
+        }
+        return out;
+    }
+    
+    private List<String> listed(CauseStrand causeStrand) {
         List<String> list = new ArrayList<>();
-        groupedList.forEach((names, frames) -> {
-            boolean grouped = names != null;
-            if (grouped) {
-                list.addAll(printGroupHeading(names, names.size()));
+        render(causeStrand, new ListedLines(list));
+        return list;
+    }
+    
+    private void render(CauseStrand causeStrand, Lines lines) {
+        List<CauseFrame> frames = causeStrand.getFoldedFrames();
+        int position = 0;
+        for (Fold fold: causeStrand.getFolds()) {
+            renderFrames(frames.subList(position, fold.getStart()), lines);
+            renderFrames(frames.subList(fold.getStart(), fold.getEnd()), lines);
+            lines.add("... " + fold.getLength() + (fold.getLength() == 1 ? " frame" : " frames") +
+                      " repeated " + fold.getRepeats() + " times");
+            position = fold.getEnd();
+        }
+        renderFrames(frames.subList(position, frames.size()), lines);
+        if (causeStrand.getTruncatedFrames() > 0) {
+            lines.add("... " + causeStrand.getTruncatedFrames() + " frames truncated");
+        }
+        if (causeStrand.getSharedFrames() > 0) {
+            lines.add("... " + causeStrand.getSharedFrames() + " more");
+        }
+    }
+    
+    /**
+     * Renders each run of frames in the same group, as a view of the frames.
+     */
+    private void renderFrames(List<CauseFrame> causeFrames, Lines lines) {
+        int start = 0;
+        Collection<String> names = null;
+        for (int i = 0; i < causeFrames.size(); i++) {
+            Collection<String> group = grouper.apply(causeFrames.get(i)).orElse(null);
+            if (i > start && !Objects.equals(names, group)) {
+                renderGroup(names, causeFrames.subList(start, i), lines);
+                start = i;
             }
-            if (grouped && squasher != null) {
-                squashed(names, frames)
-                    .forEach(list::add);
-            } else {
-                frames.stream()
-                    .map(reshape(names))
-                    .map(item ->
-                        print(grouped, item))
-                    .forEach(list::add);
+            names = group;
+        }
+        if (start < causeFrames.size()) {
+            renderGroup(names, causeFrames.subList(start, causeFrames.size()), lines);
+        }
+    }
+    
+    private void renderGroup(Collection<String> names, List<CauseFrame> frames, Lines lines) {
+        boolean grouped = names != null;
+        if (grouped) {
+            lines.add(printGroupHeading(names, names.size()));
+        }
+        if (grouped && squasher != null) {
+            squashed(names, frames)
+                .forEach(lines::add);
+        } else {
+            for (CauseFrame frame: frames) {
+                lines.add(grouped, reshape(names, frame));
             }
-        });
-        return list;
+        }
     }
     
     private Stream<String> squashed(Collection<String> names, List<CauseFrame> frames) {
         return squasher.apply(names, frames);
     }
     
-    private Function<CauseFrame, CauseFrame> reshape(Collection<String> group) {
-        return causeFrame ->
-            Streams.quickReduce(reshapers, causeFrame, (cf, reshaper) ->
-                reshaper.apply(group, cf));
+    private CauseFrame reshape(Collection<String> group, CauseFrame causeFrame) {
+        CauseFrame reshaped = causeFrame;
+        for (GroupedFrameTransform reshaper: reshapers) {
+            reshaped = reshaper.apply(group, reshaped);
+        }
+        return reshaped;
     }
     
     private List<GroupedFrameTransform> added(GroupedFrameTransform... reshapers) {
@@ -179,23 +257,83 @@ public final class ConfigurableStackRenderer implements StackRenderer {
         return Stream.concat(this.reshapers.stream(), reshapers).collect(Collectors.toList());
     }
     
-    private String print(boolean grouped, CauseFrame item) {
-        return indented(grouped, framePrinter.apply(new StringBuilder(), item).toString());
-    }
-    
-    private Collection<String> printGroupHeading(Collection<String> group, int groupSize) {
+    private String printGroupHeading(Collection<String> group, int groupSize) {
         String groupString = group.size() > 1 ? String.join("/", group) : group.iterator().next();
-        String printedGroup = groupPrinter.apply(groupString, groupSize);
-        return Collections.singleton(indented(false, printedGroup));
-    }
-    
-    private String indented(boolean indent, String printed) {
-        return (indent ? INDENT : "") + printed;
+        return groupPrinter.apply(groupString, groupSize);
     }
     
     private static final String INDENT = "  ";
     
+    private static final AtomicLong FINGERPRINTS = new AtomicLong();
+    
     private static GroupedFrameTransform ungrouped(Function<CauseFrame, CauseFrame> fun) {
         return (group, causeFrame) -> fun.apply(causeFrame);
     }
+    
+    private interface Lines {
+        
+        void add(String line);
+        
+        void add(boolean indent, CauseFrame frame);
+    }
+    
+    private final class ListedLines implements Lines {
+        
+        private final List<String> list;
+        
+        private ListedLines(List<String> list) {
+            this.list = list;
+        }
+        
+        @Override
+        public void add(String line) {
+            list.add(line);
+        }
+        
+        @Override
+        public void add(boolean indent, CauseFrame frame) {
+            StringBuilder sb = new StringBuilder();
+            if (indent) {
+                sb.append(INDENT);
+            }
+            list.add(framePrinter.apply(sb, frame).toString());
+        }
+    }
+    
+    private final class AppendedLines implements Lines {
+        
+        private final String indent;
+        
+        private final Appendable out;
+        
+        private final StringBuilder scratch = new StringBuilder();
+        
+        private AppendedLines(String indent, Appendable out) {
+            this.indent = indent == null ? "" : indent;
+            this.out = Objects.requireNonNull(out, "out");
+        }
+        
+        @Override
+        public void add(String line) {
+            try {
+                out.append(indent).append(line).append('\n');
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to render to " + out, e);
+            }
+        }
+        
+        @Override
+        public void add(boolean indent, CauseFrame frame) {
+            scratch.setLength(0);
+            try {
+                out.append(this.indent);
+                if (indent) {
+                    out.append(INDENT);
+                }
+                out.append(framePrinter.apply(scratch, frame)).append('\n');
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to render to " + out, e);
+            }
+        }
+    }
 }
@@ -0,0 +1,157 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.print;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import unearth.hashable.HashStrategies;
+import unearth.hashable.HashStrategy;
+import unearth.util.LruCache;
+
+/**
+ * Interns {@link CauseFrame cause frames}, so that strands share the frames they have in common, and frames share
+ * their strings.  Frames are looked up by content, and captured frames also by their {@link StackTraceElement}.
+ * Content is compared field by field, so a hit neither hashes the frame nor interns its strings.  Concurrent misses
+ * on the same content may each make a frame, and the last one is kept.
+ * <p>
+ * The pool is bounded, and forgets the least recently used frames.  Pooled frames cache their hashes, so the pool is
+ * emptied if the {@link HashStrategies#current() hash strategy} changes.
+ */
+public final class FramePool {
+
+    public static FramePool shared() {
+        return SHARED;
+    }
+
+    public static FramePool create(int size) {
+        return new FramePool(size);
+    }
+
+    private final LruCache<StackTraceElement, CauseFrame> elements;
+
+    private final LruCache<Key, CauseFrame> frames;
+
+    private final LruCache<String, String> strings;
+
+    private final AtomicReference<HashStrategy> strategy = new AtomicReference<>();
+
+    private FramePool(int size) {
+        this.elements = LruCache.create(size);
+        this.frames = LruCache.create(size);
+        this.strings = LruCache.create(size);
+    }
+
+    public CauseFrame frame(StackTraceElement element) {
+        vetStrategy();
+        return elements.computeIfAbsent(element, ste -> frame(
+            ste.getClassLoaderName(),
+            ste.getModuleName(),
+            ste.getModuleVersion(),
+            ste.getClassName(),
+            ste.getMethodName(),
+            ste.getFileName(),
+            ste.getLineNumber(),
+            ste.isNativeMethod()));
+    }
+
+    public CauseFrame frame(
+        String classLoader,
+        String module,
+        String moduleVer,
+        String className,
+        String method,
+        String file,
+        int line,
+        boolean naytiv
+    ) {
+        vetStrategy();
+        CauseFrame pooled = frames.get(new Key(classLoader, module, moduleVer, className, method, file, line, naytiv));
+        if (pooled != null) {
+            return pooled;
+        }
+        Key key = new Key(
+            string(classLoader),
+            string(module),
+            string(moduleVer),
+            string(className),
+            string(method),
+            string(file),
+            line,
+            naytiv);
+        CauseFrame frame = new CauseFrame(
+            CauseFrame.classLoader(key.classLoader()),
+            CauseFrame.module(key.module()),
+            CauseFrame.moduleVer(key.moduleVer()),
+            CauseFrame.className(key.className()),
+            CauseFrame.method(key.method()),
+            CauseFrame.file(key.file()),
+            line,
+            naytiv);
+        frames.put(key, frame);
+        return frame;
+    }
+
+    public long getHits() {
+        return elements.getHits() + frames.getHits();
+    }
+
+    /**
+     * @return Number of new frames
+     */
+    public long getMisses() {
+        return frames.getMisses();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[elements:" + elements + " frames:" + frames + " strings:" + strings + "]";
+    }
+
+    private String string(String string) {
+        return string == null ? null : strings.computeIfAbsent(string, __ -> string);
+    }
+
+    private void vetStrategy() {
+        HashStrategy current = HashStrategies.current();
+        if (strategy.get() == current) {
+            return;
+        }
+        HashStrategy previous = strategy.getAndSet(current);
+        if (previous != null && previous != current) {
+            elements.clear();
+            frames.clear();
+            strings.clear();
+        }
+    }
+
+    private static final int SHARED_SIZE = 100_000;
+
+    private static final FramePool SHARED = new FramePool(SHARED_SIZE);
+
+    private record Key(
+        String classLoader,
+        String module,
+        String moduleVer,
+        String className,
+        String method,
+        String file,
+        int line,
+        boolean naytiv
+    ) {
+    }
+}
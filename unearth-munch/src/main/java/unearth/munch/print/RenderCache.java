@@ -0,0 +1,98 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.print;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+import unearth.munch.id.CauseStrandId;
+import unearth.munch.model.CauseStrand;
+import unearth.util.LruCache;
+
+/**
+ * Remembers rendered stacks.  A rendering depends only on the cause strand, the frames it shares with its encloser, and
+ * the renderer, so it is keyed by the strand's id, its shared frames and the renderer's fingerprint.
+ */
+public final class RenderCache {
+    
+    public static RenderCache shared() {
+        return SHARED;
+    }
+    
+    public static RenderCache create(int size) {
+        return new RenderCache(size);
+    }
+    
+    private final LruCache<Key, List<String>> renderings;
+    
+    private RenderCache(int size) {
+        this.renderings = LruCache.create(size);
+    }
+    
+    List<String> rendering(long fingerprint, CauseStrand causeStrand, Function<CauseStrand, List<String>> render) {
+        return renderings.computeIfAbsent(
+            new Key(causeStrand.getId(), causeStrand.getSharedFrames(), fingerprint),
+            __ -> List.copyOf(render.apply(causeStrand)));
+    }
+    
+    public long getHits() {
+        return renderings.getHits();
+    }
+    
+    public long getMisses() {
+        return renderings.getMisses();
+    }
+    
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + renderings + "]";
+    }
+    
+    private static final int SHARED_SIZE = 10_000;
+    
+    private static final RenderCache SHARED = new RenderCache(SHARED_SIZE);
+    
+    private static final class Key {
+        
+        private final CauseStrandId causeStrandId;
+        
+        private final int sharedFrames;
+        
+        private final long fingerprint;
+        
+        private Key(CauseStrandId causeStrandId, int sharedFrames, long fingerprint) {
+            this.causeStrandId = causeStrandId;
+            this.sharedFrames = sharedFrames;
+            this.fingerprint = fingerprint;
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * (31 * causeStrandId.hashCode() + sharedFrames) + Long.hashCode(fingerprint);
+        }
+        
+        @Override
+        public boolean equals(Object obj) {
+            return obj == this || obj instanceof Key
+                                  && ((Key) obj).fingerprint == fingerprint
+                                  && ((Key) obj).sharedFrames == sharedFrames
+                                  && Objects.equals(((Key) obj).causeStrandId, causeStrandId);
+        }
+    }
+}
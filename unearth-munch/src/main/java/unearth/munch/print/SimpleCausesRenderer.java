@@ -17,9 +17,14 @@
 
 package unearth.munch.print;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
 
 import unearth.munch.model.Cause;
+import unearth.munch.model.Fault;
 import unearth.util.Streams;
 
 public final class SimpleCausesRenderer implements CausesRenderer {
@@ -30,15 +35,63 @@ public final class SimpleCausesRenderer implements CausesRenderer {
         this.renderer = renderer;
     }
     
+    @Override
+    public CausesRendering render(Fault fault) {
+        int truncatedCauses = fault.getFaultStrand().getTruncatedCauses();
+        if (truncatedCauses == 0) {
+            return render(fault.getCauses());
+        }
+        Cause innermost = fault.getCauses().get(0);
+        return render(fault.getCauses(), cause -> {
+            List<String> stack = renderer.render(cause);
+            if (cause != innermost) {
+                return stack;
+            }
+            List<String> truncated = new ArrayList<>(stack);
+            truncated.add("... " + truncatedCauses + " causes truncated");
+            return truncated;
+        });
+    }
+
+    /**
+     * Streams each stack straight from the {@link StackRenderer#render(Cause, String, Appendable) stack renderer}.
+     */
+    @Override
+    public <A extends Appendable> A render(Fault fault, String stackIndent, A out) {
+        String indent = CausesRendering.indent(stackIndent);
+        int truncatedCauses = fault.getFaultStrand().getTruncatedCauses();
+        Cause innermost = fault.getCauses().get(0);
+        try {
+            for (Cause cause: fault.getCauses()) {
+                out.append(cause.getCauseStrand().getClassName())
+                    .append(": ")
+                    .append(CausesRendering.message(cause.getMessage()))
+                    .append('\n');
+                renderer.render(cause, indent, out);
+                if (truncatedCauses > 0 && cause == innermost) {
+                    out.append(indent).append("... ").append(Integer.toString(truncatedCauses)).append(" causes truncated")
+                        .append('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to render to " + out, e);
+        }
+        return out;
+    }
+
     @Override
     public CausesRendering render(Collection<Cause> causeCollection) {
+        return render(causeCollection, renderer::render);
+    }
+
+    private static CausesRendering render(Collection<Cause> causeCollection, Function<Cause, List<String>> renderer) {
         return Streams.quickReduce(
             Streams.reverse(causeCollection),
             (rendering, cause) ->
                 new CausesRendering(
                     cause.getCauseStrand().getClassName(),
                     cause.getMessage(),
-                    renderer.render(cause),
+                    renderer.apply(cause),
                     rendering));
     }
 }
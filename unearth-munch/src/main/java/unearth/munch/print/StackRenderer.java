@@ -17,6 +17,7 @@
 
 package unearth.munch.print;
 
+import java.io.IOException;
 import java.util.List;
 
 import unearth.munch.model.Cause;
@@ -24,4 +25,23 @@ import unearth.munch.model.Cause;
 public interface StackRenderer {
     
     List<String> render(Cause cause);
+    
+    /**
+     * Writes the {@link #render(Cause) rendered} lines, each prefixed by the indent and followed by a newline.
+     *
+     * @param cause  Cause
+     * @param indent Indent, may be null
+     * @param out    Where to write
+     * @return The appendable
+     */
+    default <A extends Appendable> A render(Cause cause, String indent, A out) {
+        try {
+            for (String line: render(cause)) {
+                out.append(indent == null ? "" : indent).append(line).append('\n');
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to render to " + out, e);
+        }
+        return out;
+    }
 }
@@ -0,0 +1,136 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.print;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Groups frames like {@link SimplePackageGrouper}, but looks the class name up in a trie of the group names, compiled
+ * up front.  A lookup walks the class name once, and allocates nothing.
+ * <p>
+ * Names are matched as plain prefixes, so {@code java} also covers {@code javax}.  The longest matching name wins,
+ * and if it is in more than one group, the first of them.
+ */
+public final class TriePackageGrouper implements ConfigurableStackRenderer.PackageGrouper {
+    
+    private final Node root;
+    
+    public TriePackageGrouper(List<String> groups) {
+        this(Collections.singleton(groups));
+    }
+    
+    public TriePackageGrouper(Collection<Collection<String>> groups) {
+        Builder builder = new Builder();
+        if (groups != null) {
+            for (Collection<String> group: groups) {
+                if (group != null && !group.isEmpty()) {
+                    Optional<Collection<String>> grouped = Optional.of(group);
+                    for (String name: group) {
+                        builder.add(name, grouped);
+                    }
+                }
+            }
+        }
+        this.root = builder.compile();
+    }
+    
+    @Override
+    public Optional<Collection<String>> apply(CauseFrame causeFrame) {
+        String className = causeFrame.className().string();
+        Node node = root;
+        Optional<Collection<String>> group = node.group;
+        for (int i = 0, length = className == null ? 0 : className.length(); i < length && node != null; i++) {
+            node = node.child(className.charAt(i));
+            if (node != null && node.group != null) {
+                group = node.group;
+            }
+        }
+        return group == null ? Optional.empty() : group;
+    }
+    
+    private static final class Node {
+        
+        private final char[] keys;
+        
+        private final Node[] children;
+        
+        private final Optional<Collection<String>> group;
+        
+        private Node(char[] keys, Node[] children, Optional<Collection<String>> group) {
+            this.keys = keys;
+            this.children = children;
+            this.group = group;
+        }
+        
+        private Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index < 0 ? null : children[index];
+        }
+    }
+    
+    /**
+     * Mutable trie, compiled into sorted arrays of keys and children.
+     */
+    private static final class Builder {
+        
+        private final List<Character> keys = new ArrayList<>();
+        
+        private final List<Builder> children = new ArrayList<>();
+        
+        private Optional<Collection<String>> group;
+        
+        private void add(String name, Optional<Collection<String>> group) {
+            if (name == null) {
+                return;
+            }
+            Builder builder = this;
+            for (int i = 0; i < name.length(); i++) {
+                builder = builder.child(name.charAt(i));
+            }
+            if (builder.group == null) {
+                builder.group = group;
+            }
+        }
+        
+        private Builder child(char c) {
+            int index = Collections.binarySearch(keys, c);
+            if (index >= 0) {
+                return children.get(index);
+            }
+            Builder child = new Builder();
+            keys.add(-index - 1, c);
+            children.add(-index - 1, child);
+            return child;
+        }
+        
+        private Node compile() {
+            char[] compiledKeys = new char[keys.size()];
+            Node[] compiledChildren = new Node[children.size()];
+            for (int i = 0; i < compiledKeys.length; i++) {
+                compiledKeys[i] = keys.get(i);
+                compiledChildren[i] = children.get(i).compile();
+            }
+            return new Node(compiledKeys, compiledChildren, group);
+        }
+    }
+}
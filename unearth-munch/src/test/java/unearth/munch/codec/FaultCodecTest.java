@@ -0,0 +1,211 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import unearth.munch.id.Id;
+import unearth.munch.model.CaptureBudget;
+import unearth.munch.model.Cause;
+import unearth.munch.model.CauseStrand;
+import unearth.munch.model.Fault;
+import unearth.munch.model.FaultEvent;
+import unearth.munch.model.FeedEntry;
+import unearth.munch.model.LogEntry;
+import unearth.munch.print.CauseFrame;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FaultCodecTest {
+
+    @Test
+    public void roundTripsFault() {
+        Fault fault = Fault.create(complex(), CaptureBudget.create(512, 32, 2));
+        Fault decoded = FaultDecoder.fault(FaultEncoder.toBytes(fault));
+
+        assertSame(fault, decoded);
+    }
+
+    @Test
+    public void roundTripsTruncatedFault() {
+        Fault fault = Fault.create(complex(), CaptureBudget.create(8, 2, 1));
+        Fault decoded = FaultDecoder.fault(FaultEncoder.toBytes(fault));
+
+        assertSame(fault, decoded);
+    }
+
+    @Test
+    public void streamsMessages() {
+        Fault fault = Fault.create(complex());
+        FeedEntry feedEntry = new FeedEntry(
+            new FaultEvent(
+                42,
+                fault.getId(),
+                fault.getFaultStrand().getId(),
+                LogEntry.create("Failed {} for {}", "thing", "\u00e6\u00f8\u00e5"),
+                Instant.ofEpochSecond(1_600_000_000L, 123_456_789)),
+            3L,
+            2L,
+            1L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new FaultEncoder(out).encode(fault).encode(fault.getFaultStrand()).encode(feedEntry);
+
+        FaultDecoder decoder = new FaultDecoder(new ByteArrayInputStream(out.toByteArray()));
+        assertSame(fault, decoder.decodeFault());
+        assertEquals(fault.getFaultStrand().getId(), decoder.decodeFaultStrand().getId());
+        FeedEntry decoded = decoder.decodeFeedEntry();
+        assertEquals(feedEntry.getId(), decoded.getId());
+        assertEquals(feedEntry.getFaultEvent().getTime(), decoded.getFaultEvent().getTime());
+        assertEquals(feedEntry.getFaultEvent().getFaultStrandId(), decoded.getFaultEvent().getFaultStrandId());
+        assertEquals(feedEntry.getFaultEvent().getThrowableHashCode(), decoded.getFaultEvent().getThrowableHashCode());
+        assertEquals(feedEntry.getFaultEvent().getLogEntry().getId(), decoded.getFaultEvent().getLogEntry().getId());
+        assertEquals(feedEntry.getFaultSequenceNo(), decoded.getFaultSequenceNo());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsOtherKinds() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new FaultEncoder(out).encode(Fault.create(complex()).getFaultStrand());
+
+        new FaultDecoder(new ByteArrayInputStream(out.toByteArray())).decodeFault();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsOtherVersions() {
+        byte[] bytes = FaultEncoder.toBytes(Fault.create(complex()));
+        bytes[1]++;
+
+        FaultDecoder.fault(bytes);
+    }
+
+    @Test
+    public void smallerThanJson() throws IOException {
+        Fault fault = Fault.create(complex());
+        byte[] binary = FaultEncoder.toBytes(fault);
+        byte[] json = new ObjectMapper().writeValueAsBytes(dto(fault));
+
+        assertTrue(binary.length + " vs " + json.length, binary.length * 5 < json.length);
+    }
+
+    private static void assertSame(Fault expected, Fault actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getFaultStrand().getId(), actual.getFaultStrand().getId());
+        assertEquals(expected.getFaultStrand().getTruncatedCauses(), actual.getFaultStrand().getTruncatedCauses());
+        assertEquals(expected.getCauses().size(), actual.getCauses().size());
+        for (int i = 0; i < expected.getCauses().size(); i++) {
+            Cause expectedCause = expected.getCauses().get(i);
+            Cause actualCause = actual.getCauses().get(i);
+            assertEquals(expectedCause.getMessage(), actualCause.getMessage());
+            assertEquals(expectedCause.getTruncatedSuppressed(), actualCause.getTruncatedSuppressed());
+            assertSame(expectedCause.getCauseStrand(), actualCause.getCauseStrand());
+            assertEquals(expectedCause.getSuppressedFaults().size(), actualCause.getSuppressedFaults().size());
+            List<Fault> actualSuppressed = List.copyOf(actualCause.getSuppressedFaults());
+            int j = 0;
+            for (Fault suppressed: expectedCause.getSuppressedFaults()) {
+                assertSame(suppressed, actualSuppressed.get(j++));
+            }
+        }
+    }
+
+    private static void assertSame(CauseStrand expected, CauseStrand actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getCauseFrames(), actual.getCauseFrames());
+        assertEquals(expected.getFolds(), actual.getFolds());
+        assertEquals(expected.getTruncatedFrames(), actual.getTruncatedFrames());
+        assertEquals(expected.getSharedFrames(), actual.getSharedFrames());
+    }
+
+    /**
+     * Wrapped, recursive and suppressed.
+     */
+    private static Throwable complex() {
+        try {
+            recurse(50);
+        } catch (RuntimeException e) {
+            IllegalStateException wrapper = new IllegalStateException("Failed to recurse", e);
+            Arrays.asList("first", "second", "third")
+                .forEach(message -> wrapper.addSuppressed(new IllegalArgumentException(message)));
+            return wrapper;
+        }
+        throw new IllegalStateException("No exception");
+    }
+
+    private static void recurse(int depth) {
+        if (depth == 0) {
+            try {
+                throw new IllegalArgumentException("bottom");
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("middle", e);
+            }
+        }
+        recurse(depth - 1);
+    }
+
+    /**
+     * Like the DTOs built by the server's renderer, with full stacks.
+     */
+    private static Map<String, Object> dto(Fault fault) {
+        Map<String, Object> dto = new LinkedHashMap<>();
+        dto.put("id", id(fault.getId()));
+        dto.put("faultStrandId", id(fault.getFaultStrand().getId()));
+        dto.put("causes", fault.getCauses().stream().map(cause -> {
+            Map<String, Object> causeDto = new LinkedHashMap<>();
+            causeDto.put("id", id(cause.getId()));
+            causeDto.put("message", cause.getMessage());
+            Map<String, Object> causeStrandDto = new LinkedHashMap<>();
+            causeStrandDto.put("id", id(cause.getCauseStrand().getId()));
+            causeStrandDto.put("className", cause.getCauseStrand().getClassName());
+            causeStrandDto.put("fullStack", cause.getCauseStrand().getCauseFrames().stream()
+                .map(FaultCodecTest::frame)
+                .collect(Collectors.toList()));
+            causeDto.put("causeStrand", causeStrandDto);
+            return causeDto;
+        }).collect(Collectors.toList()));
+        return dto;
+    }
+
+    private static Map<String, Object> id(Id id) {
+        Map<String, Object> dto = new LinkedHashMap<>();
+        dto.put("hash", id.getHash().toString());
+        dto.put("link", "http://localhost:8080/api/v1/" + id.getType() + "/" + id.getHash());
+        return dto;
+    }
+
+    private static Map<String, Object> frame(CauseFrame frame) {
+        Map<String, Object> dto = new LinkedHashMap<>();
+        dto.put("classLoaderName", frame.classLoader().string());
+        dto.put("moduleName", frame.module().string());
+        dto.put("moduleVersion", frame.moduleVer().string());
+        dto.put("declaringClass", frame.className().string());
+        dto.put("methodName", frame.method().string());
+        dto.put("fileName", frame.file().string());
+        dto.put("lineNumber", frame.line());
+        return dto;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import org.junit.After;
+import org.junit.Test;
+import unearth.hashable.HashStrategies;
+import unearth.hashable.HashStrategy;
+import unearth.munch.print.ConfigurableStackRenderer;
+import unearth.munch.print.SimpleCausesRenderer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CaptureBudgetTest {
+
+    private final CaptureBudget budget = CaptureBudget.create(50, 3, 5);
+
+    private final HashStrategy original = HashStrategies.current();
+
+    @After
+    public void restore() {
+        HashStrategies.use(original);
+    }
+
+    @Test
+    public void truncatesFrames() {
+        Throwable throwable = deep(200);
+        CaptureBudget small = CaptureBudget.create(5, 3, 5);
+        Fault fault = Fault.create(throwable, small);
+        CauseStrand causeStrand = fault.getFaultStrand().getCauseStrands().get(0);
+
+        assertEquals(5, causeStrand.getFoldedFrames().size());
+        assertTrue(causeStrand.getTruncatedFrames() > 0);
+        assertEquals(
+            throwable.getStackTrace().length,
+            causeStrand.getCauseFrames().size() + causeStrand.getTruncatedFrames());
+        assertEquals(fault.getId(), Fault.create(throwable, small).getId());
+        assertNotEquals(fault.getId(), Fault.create(throwable, CaptureBudget.unlimited()).getId());
+    }
+
+    @Test
+    public void truncatesCauses() {
+        Throwable throwable = chain(10);
+        Fault fault = Fault.create(throwable, budget);
+
+        assertEquals(3, fault.getCauses().size());
+        assertEquals(7, fault.getFaultStrand().getTruncatedCauses());
+        assertEquals("level 10", fault.getCauses().get(2).getMessage());
+    }
+
+    @Test
+    public void stopsAtCircularCauses() {
+        Exception first = new Exception("first");
+        Exception second = new Exception("second", first);
+        Exception third = new Exception("third", second);
+        first.initCause(third);
+        Fault fault = Fault.create(third, CaptureBudget.create(50, 2, 5));
+
+        assertEquals(2, fault.getCauses().size());
+        assertEquals(1, fault.getFaultStrand().getTruncatedCauses());
+    }
+
+    @Test
+    public void truncatesSuppressed() {
+        Throwable throwable = new IllegalStateException("retried");
+        IntStream.range(0, 20).forEach(i -> throwable.addSuppressed(new IllegalStateException("attempt " + i)));
+        Fault fault = Fault.create(throwable, budget);
+
+        assertEquals(15, fault.getCauses().get(0).getTruncatedSuppressed());
+        assertEquals(5, fault.toChameleon().getSuppressed().length);
+    }
+
+    @Test
+    public void sharesSuppressedWithNested() {
+        Throwable throwable = suppressing("top", 2, 3, 3);
+        Cause top = Fault.create(throwable, budget).getCauses().get(0);
+        Cause cached = new FaultStrandCache(10, budget).fault(throwable).getCauses().get(0);
+
+        for (Cause cause: List.of(top, cached)) {
+            assertEquals(2, cause.getSuppressedFaults().size());
+            for (Fault suppressed: cause.getSuppressedFaults()) {
+                Cause nested = suppressed.getCauses().get(0);
+                assertEquals(1, nested.getSuppressedFaults().size());
+                assertEquals(2, nested.getTruncatedSuppressed());
+                Cause innermost = nested.getSuppressedFaults().iterator().next().getCauses().get(0);
+                assertEquals(0, innermost.getSuppressedFaults().size());
+                assertEquals(3, innermost.getTruncatedSuppressed());
+            }
+        }
+    }
+
+    @Test
+    public void rendersTruncation() {
+        Fault fault = Fault.create(chain(10), CaptureBudget.create(10, 3, 5));
+        List<String> strings = StreamSupport.stream(
+            new SimpleCausesRenderer(new ConfigurableStackRenderer()).render(fault).spliterator(), false)
+            .flatMap(rendering -> rendering.getStrings().stream())
+            .collect(Collectors.toList());
+
+        assertEquals(3, strings.stream().filter(line -> line.endsWith("frames truncated")).count());
+        assertEquals(1, strings.stream().filter(line -> line.endsWith("7 causes truncated")).count());
+    }
+
+    @Test
+    public void md5CapturesWhole() {
+        Throwable throwable = distinctFrames(1200);
+        HashStrategies.use(HashStrategies.md5());
+        Fault md5 = Fault.create(throwable);
+        HashStrategies.use(HashStrategies.murmur3());
+        Fault murmur3 = Fault.create(throwable);
+
+        assertEquals(0, md5.getCauses().get(0).getCauseStrand().getTruncatedFrames());
+        assertTrue(murmur3.getCauses().get(0).getCauseStrand().getTruncatedFrames() > 0);
+        HashStrategies.use(HashStrategies.md5());
+        assertEquals(md5.getId(), Fault.create(throwable, CaptureBudget.unlimited()).getId());
+        assertEquals(md5.getId(), new FaultStrandCache(10).fault(throwable).getId());
+    }
+
+    @Test
+    public void cacheAgrees() {
+        Throwable throwable = chain(10);
+        assertEquals(
+            Fault.create(throwable, budget).getId(),
+            new FaultStrandCache(10, budget).fault(throwable).getId());
+    }
+
+    private static Throwable suppressing(String message, int... counts) {
+        Throwable throwable = new IllegalStateException(message);
+        if (counts.length > 0) {
+            int[] rest = Arrays.copyOfRange(counts, 1, counts.length);
+            IntStream.range(0, counts[0]).forEach(i -> throwable.addSuppressed(suppressing(message + "/" + i, rest)));
+        }
+        return throwable;
+    }
+
+    private static Throwable chain(int length) {
+        Throwable throwable = deep(100);
+        for (int i = 2; i <= length; i++) {
+            throwable = new IllegalStateException("level " + i, throwable);
+        }
+        return throwable;
+    }
+
+    /**
+     * A stack too varied to fold, and longer than the bounded budget.
+     */
+    private static Throwable distinctFrames(int count) {
+        Throwable throwable = new IllegalArgumentException("bottom");
+        throwable.setStackTrace(IntStream.range(0, count)
+            .mapToObj(i -> new StackTraceElement("app.Service" + i, "work", "Service" + i + ".java", i + 1))
+            .toArray(StackTraceElement[]::new));
+        return throwable;
+    }
+
+    private static Throwable deep(int depth) {
+        return depth == 0 ? new IllegalStateException("bottom") : deep(depth - 1);
+    }
+}
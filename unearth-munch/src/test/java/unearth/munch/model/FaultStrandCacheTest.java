@@ -0,0 +1,99 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.model;
+
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Test;
+import unearth.hashable.HashStrategies;
+import unearth.hashable.HashStrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class FaultStrandCacheTest {
+
+    private final FaultStrandCache cache = new FaultStrandCache(100);
+
+    private final HashStrategy original = HashStrategies.current();
+
+    @After
+    public void restore() {
+        HashStrategies.use(original);
+    }
+
+    @Test
+    public void reusesKnownStrands() {
+        Throwable[] failures = failures("first", "second");
+        Fault first = cache.fault(failures[0]);
+        Fault second = cache.fault(failures[1]);
+
+        assertSame(first.getFaultStrand(), second.getFaultStrand());
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void sameIdsAsCreate() {
+        Throwable[] failures = failures("first", "second", "suppressed");
+        cache.fault(failures[0]);
+        Throwable throwable = failures[1];
+        throwable.addSuppressed(failures[2]);
+        Fault cached = cache.fault(throwable);
+        Fault created = Fault.create(throwable);
+
+        assertEquals(created.getId(), cached.getId());
+        assertEquals(created.getFaultStrand().getId(), cached.getFaultStrand().getId());
+        assertEquals(created.toChameleon().getSuppressed().length, cached.toChameleon().getSuppressed().length);
+    }
+
+    @Test
+    public void tellsStacksApart() {
+        Fault first = cache.fault(failures("first")[0]);
+        Fault other = cache.fault(new IllegalStateException("other"));
+
+        assertNotSame(first.getFaultStrand(), other.getFaultStrand());
+        assertNotEquals(first.getFaultStrand().getId(), other.getFaultStrand().getId());
+        assertEquals(0, cache.getHits());
+    }
+
+    @Test
+    public void forgetsStrandsOfOtherStrategies() {
+        Throwable[] failures = failures("first", "second");
+        HashStrategies.use(HashStrategies.murmur3());
+        Fault murmur3 = cache.fault(failures[0]);
+        HashStrategies.use(HashStrategies.md5());
+        Fault md5 = cache.fault(failures[1]);
+
+        assertNotSame(murmur3.getFaultStrand(), md5.getFaultStrand());
+        assertEquals(Fault.create(failures[1]).getFaultStrand().getId(), md5.getFaultStrand().getId());
+        assertEquals(0, cache.getHits());
+    }
+
+    private static Throwable[] failures(String... messages) {
+        return Arrays.stream(messages).map(FaultStrandCacheTest::failure).toArray(Throwable[]::new);
+    }
+
+    private static Throwable failure(String message) {
+        return new IllegalStateException(message, new IllegalArgumentException("cause of " + message));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import unearth.hashable.HashStrategies;
+import unearth.hashable.HashStrategy;
+import unearth.munch.print.CauseFrame;
+import unearth.munch.print.ConfigurableStackRenderer;
+import unearth.munch.print.FramePool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FoldTest {
+
+    @Test
+    public void foldsCycles() {
+        List<String> items = Arrays.asList("a", "b", "c", "b", "c", "b", "c", "b", "c", "d", "e", "e", "e");
+        List<Fold> folds = new ArrayList<>();
+        List<String> folded = Fold.fold(items, folds);
+
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), folded);
+        assertEquals(Arrays.asList(Fold.create(1, 2, 4), Fold.create(4, 1, 3)), folds);
+        assertEquals(items, Fold.unfold(folded, folds));
+    }
+
+    @Test
+    public void leavesShortRepeats() {
+        List<String> items = Arrays.asList("a", "b", "b", "c", "d", "c", "d");
+        List<Fold> folds = new ArrayList<>();
+
+        assertSame(items, Fold.fold(items, folds));
+        assertTrue(folds.isEmpty());
+    }
+
+    @Test
+    public void foldsRecursion() {
+        Throwable throwable = ping(300);
+        CauseStrand causeStrand = CauseStrand.create(throwable, CaptureBudget.unlimited());
+
+        assertEquals(1, causeStrand.getFolds().size());
+        assertEquals(2, causeStrand.getFolds().get(0).getLength());
+        assertTrue(causeStrand.getFoldedFrames().size() < 100);
+        assertEquals(throwable.getStackTrace().length, causeStrand.getCauseFrames().size());
+        assertEquals(
+            Arrays.stream(throwable.getStackTrace()).map(FramePool.shared()::frame).collect(Collectors.toList()),
+            causeStrand.getCauseFrames());
+    }
+
+    @Test
+    public void sameIdUnfolded() {
+        CauseStrand causeStrand = CauseStrand.create(ping(300));
+
+        assertEquals(
+            causeStrand.getId(),
+            CauseStrand.create(causeStrand.getClassName(), causeStrand.getCauseFrames()).getId());
+        assertEquals(
+            causeStrand.getId(),
+            CauseStrand.create(
+                causeStrand.getClassName(),
+                causeStrand.getFoldedFrames(),
+                causeStrand.getFolds(),
+                causeStrand.getTruncatedFrames()
+            ).getId());
+    }
+
+    @Test
+    public void hashesUnfoldedFrames() {
+        HashStrategy original = HashStrategies.current();
+        HashStrategies.use(HashStrategies.md5());
+        try {
+            CauseStrand causeStrand = CauseStrand.create(ping(300));
+            HashStrategy.Hasher hasher = HashStrategies.md5().hasher();
+            hasher.putString(causeStrand.getClassName());
+            for (CauseFrame causeFrame: causeStrand.getCauseFrames()) {
+                causeFrame.hashTo(hasher);
+            }
+
+            assertEquals(hasher.digest(), causeStrand.getHash());
+        } finally {
+            HashStrategies.use(original);
+        }
+    }
+
+    @Test
+    public void rendersFolds() {
+        Fault fault = Fault.create(ping(300));
+        List<String> rendered = new ConfigurableStackRenderer().render(fault.getCauses().get(0));
+
+        assertTrue(rendered.size() < 100);
+        assertEquals(1, rendered.stream().filter(line -> line.matches("\\.\\.\\. 2 frames repeated \\d+ times")).count());
+    }
+
+    private static Throwable ping(int depth) {
+        return depth == 0 ? new IllegalStateException("bottom") : pong(depth - 1);
+    }
+
+    private static Throwable pong(int depth) {
+        return depth == 0 ? new IllegalStateException("bottom") : ping(depth - 1);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.model;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.After;
+import org.junit.Test;
+import unearth.hashable.HashStrategies;
+import unearth.hashable.HashStrategy;
+
+import static org.junit.Assert.assertTrue;
+
+public class HashAllocationTest {
+
+    private final HashStrategy original = HashStrategies.current();
+
+    @After
+    public void restore() {
+        HashStrategies.use(original);
+    }
+
+    @Test
+    public void merkleAllocatesOnlyIds() {
+        assertOnlyIds(HashStrategies.merkle(HashStrategies.murmur3()));
+    }
+
+    @Test
+    public void deepAllocatesOnlyIds() {
+        assertOnlyIds(HashStrategies.murmur3());
+    }
+
+    private static void assertOnlyIds(HashStrategy strategy) {
+        HashStrategies.use(strategy);
+        Throwable throwable = new IllegalStateException("outer", new IllegalArgumentException("inner"));
+        Fault.create(throwable).getHash();
+
+        Fault fault = Fault.create(throwable);
+        int ids = strategy.isMerkle() ? ids(fault) : 1;
+        long start = allocated();
+        long before = allocated();
+        fault.getHash();
+        long bytes = allocated() - before - (before - start);
+
+        assertTrue(bytes + " bytes for " + ids + " ids", bytes <= (long) ids * UUID_BYTES);
+    }
+
+    private static int ids(Fault fault) {
+        return 2 + fault.getCauses().stream()
+            .mapToInt(cause -> 2 + cause.getCauseStrand().getCauseFrames().size())
+            .sum();
+    }
+
+    private static final int UUID_BYTES = 32;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static long allocated() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.model;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+import unearth.hashable.HashSink;
+import unearth.hashable.HashStrategies;
+import unearth.hashable.HashStrategy;
+import unearth.munch.print.CauseFrame;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MerkleHashingTest {
+
+    private final HashStrategy original = HashStrategies.current();
+
+    @After
+    public void restore() {
+        HashStrategies.use(original);
+    }
+
+    @Test
+    public void merkleIsStable() {
+        HashStrategies.use(HashStrategies.merkle(HashStrategies.murmur3()));
+        Throwable throwable = deep(200);
+        assertEquals(Fault.create(throwable).getHash(), Fault.create(throwable).getHash());
+    }
+
+    @Test
+    public void merkleDiffersFromDeep() {
+        Throwable throwable = deep(200);
+        HashStrategies.use(HashStrategies.murmur3());
+        UUID deep = Fault.create(throwable).getHash();
+        HashStrategies.use(HashStrategies.merkle(HashStrategies.murmur3()));
+        UUID merkle = Fault.create(throwable).getHash();
+        assertNotEquals(deep, merkle);
+    }
+
+    @Test
+    public void merkleSeesFrameChanges() {
+        HashStrategies.use(HashStrategies.merkle(HashStrategies.murmur3()));
+        CauseStrand strand = CauseStrand.create(deep(200));
+        List<CauseFrame> frames = strand.getCauseFrames();
+        List<CauseFrame> changed = IntStream.range(0, frames.size())
+            .mapToObj(i -> i == frames.size() / 2 ? otherLine(frames.get(i)) : frames.get(i))
+            .collect(Collectors.toList());
+        assertNotEquals(strand.getHash(), CauseStrand.create(strand.getClassName(), changed).getHash());
+    }
+
+    @Test
+    public void merkleFeedsEachFrameOnce() {
+        Throwable throwable = deep(200);
+        long deep = charsPerThrowable(HashStrategies.murmur3(), throwable);
+        long merkle = charsPerThrowable(HashStrategies.merkle(HashStrategies.murmur3()), throwable);
+        assertTrue("deep " + deep + " chars, merkle " + merkle + " chars", merkle * 3 < deep);
+    }
+
+    private static long charsPerThrowable(HashStrategy strategy, Throwable throwable) {
+        CountingStrategy counting = new CountingStrategy(strategy);
+        HashStrategies.use(strategy.isMerkle() ? HashStrategies.merkle(counting) : counting);
+        allIds(Fault.create(throwable));
+        return counting.chars.get();
+    }
+
+    /**
+     * Asks for every id that storage would need.
+     */
+    private static void allIds(Fault fault) {
+        fault.getHash();
+        fault.getFaultStrand().getHash();
+        for (Cause cause: fault.getCauses()) {
+            cause.getHash();
+            cause.getCauseStrand().getHash();
+            for (CauseFrame frame: cause.getCauseStrand().getCauseFrames()) {
+                frame.getHash();
+            }
+        }
+    }
+
+    private static final class CountingStrategy implements HashStrategy {
+
+        private final HashStrategy strategy;
+
+        private final AtomicLong chars = new AtomicLong();
+
+        private CountingStrategy(HashStrategy strategy) {
+            this.strategy = strategy;
+        }
+
+        @Override
+        public String getName() {
+            return "counting-" + strategy.getName();
+        }
+
+        @Override
+        public Hasher hasher() {
+            Hasher hasher = strategy.hasher();
+            return new Hasher() {
+
+                @Override
+                public UUID digest() {
+                    return hasher.digest();
+                }
+
+                @Override
+                public HashSink putBytes(byte[] bytes) {
+                    hasher.putBytes(bytes);
+                    return this;
+                }
+
+                @Override
+                public HashSink putInt(int value) {
+                    hasher.putInt(value);
+                    return this;
+                }
+
+                @Override
+                public HashSink putLong(long value) {
+                    hasher.putLong(value);
+                    return this;
+                }
+
+                @Override
+                public HashSink putChars(CharSequence chars) {
+                    if (chars != null) {
+                        CountingStrategy.this.chars.addAndGet(chars.length());
+                    }
+                    hasher.putChars(chars);
+                    return this;
+                }
+            };
+        }
+    }
+
+    private static CauseFrame otherLine(CauseFrame frame) {
+        return new CauseFrame(
+            frame.classLoader(),
+            frame.module(),
+            frame.moduleVer(),
+            frame.className(),
+            frame.method(),
+            frame.file(),
+            frame.line() + 1,
+            frame.naytiv());
+    }
+
+    private static Throwable deep(int depth) {
+        try {
+            recurse(depth);
+        } catch (RuntimeException e) {
+            return e;
+        }
+        throw new IllegalStateException("No exception");
+    }
+
+    private static void recurse(int depth) {
+        if (depth == 0) {
+            throw new IllegalStateException(
+                "outer",
+                new IllegalArgumentException("middle", new IllegalStateException("inner")));
+        }
+        recurse(depth - 1);
+    }
+}
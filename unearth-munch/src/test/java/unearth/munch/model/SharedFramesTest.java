@@ -0,0 +1,160 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.model;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.junit.Test;
+import unearth.munch.parser.ThrowableParser;
+import unearth.munch.print.ConfigurableStackRenderer;
+import unearth.munch.print.FramePool;
+import unearth.munch.print.SimpleCausesRenderer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SharedFramesTest {
+
+    @Test
+    public void sharesWithEncloser() {
+        Throwable throwable = wrapped(5);
+        List<Cause> causes = Fault.create(throwable).getCauses();
+        List<Throwable> throwables = chain(throwable);
+
+        for (int i = 0; i < causes.size(); i++) {
+            CauseStrand causeStrand = causes.get(i).getCauseStrand();
+            assertEquals(
+                Arrays.stream(throwables.get(i).getStackTrace())
+                    .map(FramePool.shared()::frame)
+                    .collect(Collectors.toList()),
+                causeStrand.getCauseFrames());
+            assertEquals(throwables.get(i).getStackTrace().length, causeStrand.getFrameCount());
+            if (i == causes.size() - 1) {
+                assertFalse(causeStrand.getEnclosing().isPresent());
+            } else {
+                assertTrue(causeStrand.getSharedFrames() > 0);
+                assertEquals(causes.get(i + 1).getCauseStrand(), causeStrand.getEnclosing().orElseThrow());
+            }
+        }
+    }
+
+    @Test
+    public void keepsOwnFramesOnly() {
+        FaultStrand faultStrand = Fault.create(wrapped(5)).getFaultStrand();
+        int own = faultStrand.getCauseStrands().stream().mapToInt(strand -> strand.getFoldedFrames().size()).sum();
+        int all = faultStrand.getCauseStrands().stream().mapToInt(CauseStrand::getFrameCount).sum();
+
+        assertTrue(own + " of " + all, own * 3 < all);
+    }
+
+    @Test
+    public void sameIdFromCache() {
+        Throwable throwable = wrapped(5);
+
+        assertEquals(Fault.create(throwable).getId(), new FaultStrandCache(10).fault(throwable).getId());
+    }
+
+    @Test
+    public void sameIdInAnyEncloser() {
+        Throwable inner = new IllegalStateException("inner");
+        CauseStrand first = inner(Fault.create(wrappedHere(inner)));
+        CauseStrand second = inner(Fault.create(wrappedThere(inner)));
+
+        assertTrue(first.getSharedFrames() > 0);
+        assertTrue(second.getSharedFrames() > 0);
+        assertNotEquals(first.getEnclosing(), second.getEnclosing());
+        assertEquals(first.getId(), second.getId());
+        assertEquals(CauseStrand.create(inner, CaptureBudget.unlimited()).getId(), first.getId());
+    }
+
+    @Test
+    public void sharesParsedFrames() {
+        Throwable throwable = wrapped(5);
+        StringWriter out = new StringWriter();
+        throwable.printStackTrace(new PrintWriter(out));
+        List<Cause> causes = Fault.create(throwable).getCauses();
+        List<Cause> parsed = Fault.create(ThrowableParser.parse(out.toString())).getCauses();
+
+        assertEquals(causes.size(), parsed.size());
+        for (int i = 0; i < causes.size(); i++) {
+            assertEquals(
+                causes.get(i).getCauseStrand().getSharedFrames(),
+                parsed.get(i).getCauseStrand().getSharedFrames());
+        }
+    }
+
+    @Test
+    public void rendersMore() {
+        Fault fault = Fault.create(wrapped(5));
+        List<String> strings = StreamSupport.stream(
+            new SimpleCausesRenderer(new ConfigurableStackRenderer()).render(fault).spliterator(), false)
+            .flatMap(rendering -> rendering.getStrings().stream())
+            .collect(Collectors.toList());
+
+        assertEquals(4, strings.stream().filter(line -> line.trim().matches("\\.\\.\\. \\d+ more")).count());
+    }
+
+    private static CauseStrand inner(Fault fault) {
+        return fault.getCauses().stream()
+            .filter(cause -> cause.getMessage().equals("inner"))
+            .findFirst()
+            .orElseThrow()
+            .getCauseStrand();
+    }
+
+    private static Throwable wrappedHere(Throwable inner) {
+        return new IllegalArgumentException("here", inner);
+    }
+
+    private static Throwable wrappedThere(Throwable inner) {
+        return new IllegalArgumentException("there", inner);
+    }
+
+    private static List<Throwable> chain(Throwable throwable) {
+        List<Throwable> throwables = CaptureBudget.unlimited().chain(throwable).getThrowables();
+        assertEquals(5, throwables.size());
+        return throwables;
+    }
+
+    private static Throwable wrapped(int depth) {
+        try {
+            rethrow(depth);
+        } catch (RuntimeException e) {
+            return e;
+        }
+        throw new IllegalStateException("No exception");
+    }
+
+    private static void rethrow(int depth) {
+        if (depth == 1) {
+            throw new IllegalStateException("bottom");
+        }
+        try {
+            rethrow(depth - 1);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("level " + depth, e);
+        }
+    }
+}
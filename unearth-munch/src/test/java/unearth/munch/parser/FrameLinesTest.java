@@ -0,0 +1,128 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+import unearth.hashable.HashStrategies;
+import unearth.hashable.HashStrategy;
+import unearth.munch.print.CauseFrame;
+import unearth.util.Utf8Chars;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class FrameLinesTest {
+    
+    private final HashStrategy original = HashStrategies.current();
+    
+    @After
+    public void restore() {
+        HashStrategies.use(original);
+    }
+    
+    @Test
+    public void repeatedLinesHit() {
+        FrameLines frameLines = FrameLines.create(100);
+        CauseFrame frame = frameLines.frame(LINE);
+        assertEquals(StackTraceLexer.frame(LINE), frame);
+        assertSame(frame, frameLines.frame(new StringBuilder(LINE)));
+        assertSame(frame, frameLines.frame(LINE));
+        assertEquals(2, frameLines.getHits());
+        assertEquals(1, frameLines.getMisses());
+        assertEquals(2.0 / 3, frameLines.getHitRatio(), 0.0001);
+    }
+    
+    @Test
+    public void viewsAreCopiedWhenStored() {
+        FrameLines frameLines = FrameLines.create(100);
+        byte[] bytes = LINE.getBytes(StandardCharsets.UTF_8);
+        CauseFrame frame = frameLines.frame(Utf8Chars.of(ByteBuffer.wrap(bytes)));
+        bytes[LINE.indexOf("run")] = 'f';
+        assertSame(frame, frameLines.frame(LINE));
+        assertEquals(
+            StackTraceLexer.frame(LINE.replace(".run(", ".fun(")),
+            frameLines.frame(Utf8Chars.of(ByteBuffer.wrap(bytes))));
+    }
+    
+    @Test
+    public void nonFramesAreNotStored() {
+        FrameLines frameLines = FrameLines.create(100);
+        assertNull(frameLines.frame("java.lang.IllegalStateException: at (this)"));
+        assertEquals(0, frameLines.getCount());
+        assertEquals(12, frameLines.frame("\t... 12 more").getMore());
+    }
+    
+    @Test
+    public void isBounded() {
+        FrameLines frameLines = FrameLines.create(100);
+        for (int i = 0; i < 1_000; i++) {
+            frameLines.frame(LINE.replace("42", Integer.toString(i)));
+        }
+        assertTrue(frameLines.getCount() <= 100);
+    }
+    
+    @Test
+    public void forgetsFramesOfOtherStrategies() {
+        HashStrategies.use(HashStrategies.murmur3());
+        FrameLines frameLines = FrameLines.create(100);
+        frameLines.frame(LINE);
+        HashStrategies.use(HashStrategies.md5());
+        frameLines.frame(LINE);
+        assertEquals(0, frameLines.getHits());
+    }
+    
+    @Test
+    public void isShareable() throws ExecutionException, InterruptedException {
+        FrameLines frameLines = FrameLines.create(1_000);
+        List<String> lines = IntStream.range(0, 500)
+            .mapToObj(i -> LINE.replace("42", Integer.toString(i)))
+            .collect(Collectors.toList());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<CauseFrame>>> results = IntStream.range(0, 8)
+                .mapToObj(__ -> executor.submit(() -> lines.stream()
+                    .map(frameLines::frame)
+                    .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+            for (Future<List<CauseFrame>> result: results) {
+                List<CauseFrame> frames = result.get();
+                for (int i = 0; i < lines.size(); i++) {
+                    assertEquals(StackTraceLexer.frame(lines.get(i)), frames.get(i));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(frameLines.getHits() > 0);
+    }
+    
+    private static final String LINE = "at org.springframework.web.servlet.FrameworkServlet.run(FrameworkServlet.java:42)";
+}
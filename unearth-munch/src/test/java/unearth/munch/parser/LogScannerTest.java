@@ -0,0 +1,185 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import unearth.munch.model.Fault;
+
+import static org.junit.Assert.assertEquals;
+
+public class LogScannerTest {
+    
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    
+    private Path dir;
+    
+    @Before
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory(getClass().getSimpleName());
+    }
+    
+    @After
+    public void teardown() throws IOException {
+        pool.shutdown();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file: files.collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+    
+    @Test
+    public void scanMapped() throws IOException {
+        List<String> traces = traces(200);
+        Path log = write("app.log", log(traces), false);
+        for (int chunkSize: new int[] { 100, 1024, 64 * 1024 }) {
+            assertEquals(faults(traces), scan(LogScanner.create(pool, chunkSize), log));
+        }
+    }
+    
+    @Test
+    public void scanGzipped() throws IOException {
+        List<String> traces = traces(200);
+        Path log = write("app.log.gz", log(traces), true);
+        for (int chunkSize: new int[] { 100, 1024, 64 * 1024 }) {
+            assertEquals(faults(traces), scan(LogScanner.create(pool, chunkSize), log));
+        }
+    }
+    
+    @Test
+    public void scanStream() {
+        List<String> traces = traces(20);
+        LogScanner scanner = LogScanner.create(pool, 512);
+        try (Stream<Fault> faults = scanner.faults(new ByteArrayInputStream(log(traces)))) {
+            assertEquals(faults(traces), faults.collect(Collectors.toList()));
+        }
+    }
+    
+    @Test
+    public void countUnparsed() {
+        String log = "Starting\nnot an exception\n\tat foo\nDone\n" + new String(log(traces(1)), StandardCharsets.UTF_8);
+        LogScanner scanner = LogScanner.create(pool, 1024);
+        try (Stream<Fault> faults = scanner.faults(new ByteArrayInputStream(log.getBytes(StandardCharsets.UTF_8)))) {
+            assertEquals(1, faults.count());
+        }
+        assertEquals(1, scanner.getUnparsed());
+    }
+    
+    @Test
+    public void scanLarge() throws IOException {
+        List<String> traces = traces(50);
+        byte[] log = log(traces);
+        Path file = dir.resolve("big.log");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int i = 0; i < 50; i++) {
+                out.write(log);
+            }
+        }
+        LogScanner scanner = LogScanner.create(ForkJoinPool.commonPool(), 1024 * 1024);
+        assertEquals(50 * traces.size(), scan(scanner, file).size());
+    }
+    
+    private Path write(String name, byte[] bytes, boolean gzip) throws IOException {
+        Path file = dir.resolve(name);
+        try (OutputStream out = gzip ? new GZIPOutputStream(Files.newOutputStream(file)) : Files.newOutputStream(file)) {
+            out.write(bytes);
+        }
+        return file;
+    }
+    
+    private static List<Fault> scan(LogScanner scanner, Path log) {
+        try (Stream<Fault> faults = scanner.faults(log)) {
+            return faults.collect(Collectors.toList());
+        }
+    }
+    
+    private static List<Fault> faults(List<String> traces) {
+        return traces.stream().map(ThrowableParser::parseFault).collect(Collectors.toList());
+    }
+    
+    private static byte[] log(List<String> traces) {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < traces.size(); i++) {
+            log.append("2020-02-02 12:00:0").append(i % 10).append(" INFO  [main] app.Service - Working on ").append(i)
+                .append('\n');
+            log.append("2020-02-02 12:00:0").append(i % 10).append(" ERROR [main] app.Service - Failed on ").append(i)
+                .append('\n')
+                .append(traces.get(i));
+        }
+        return log.append("2020-02-02 12:00:10 INFO  [main] app.Service - Done\n")
+            .toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private static List<String> traces(int count) {
+        List<String> traces = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            traces.add(print(failure(i)));
+        }
+        return traces;
+    }
+    
+    private static Throwable failure(int i) {
+        try {
+            recurse(i % 7, i);
+        } catch (RuntimeException e) {
+            return e;
+        }
+        throw new IllegalStateException("No exception");
+    }
+    
+    private static void recurse(int depth, int i) {
+        if (depth > 0) {
+            recurse(depth - 1, i);
+            return;
+        }
+        IllegalStateException failure = new IllegalStateException(
+            "Failed " + i,
+            i % 2 == 0 ? new UncheckedIOException(new IOException("Broken " + i)) : null);
+        if (i % 3 == 0) {
+            failure.addSuppressed(new IllegalArgumentException("Also " + i));
+        }
+        throw failure;
+    }
+    
+    private static String print(Throwable throwable) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PrintWriter pw = new PrintWriter(baos)) {
+            throwable.printStackTrace(pw);
+        }
+        return baos.toString(StandardCharsets.UTF_8);
+    }
+}
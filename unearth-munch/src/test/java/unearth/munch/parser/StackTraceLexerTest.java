@@ -0,0 +1,211 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import unearth.munch.print.CauseFrame;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StackTraceLexerTest {
+
+    @Test
+    public void readsAllShapes() {
+        assertFrame("\tat java.base@11.0.2/java.lang.Thread.run(Thread.java:834)", "java.base", "11.0.2", 834, false);
+        assertFrame("\tat java.base/java.lang.Thread.run(Thread.java:834)", "java.base", "", 834, false);
+        assertFrame("\tat java.lang.Thread.run(Thread.java:834)", "", "", 834, false);
+        assertFrame("\tat java.lang.Thread.run(Thread.java)", "", "", -1, false);
+        assertFrame("\tat java.base@11/jdk.internal.misc.Unsafe.park(Native Method)", "java.base", "11", -1, true);
+        assertFrame("\tat java.base/jdk.internal.misc.Unsafe.park(Native Method)", "java.base", "", -1, true);
+        assertFrame("\tat jdk.internal.misc.Unsafe.park(Native Method)", "", "", -1, true);
+        assertFrame("\tat jdk.internal.misc.Unsafe.park(Unknown Source)", "", "", -1, true);
+        assertEquals(12, StackTraceLexer.frame("\t... 12 more").getMore());
+    }
+
+    @Test
+    public void agreesOnCorpus() {
+        for (String line: corpus()) {
+            assertAgrees(line);
+        }
+    }
+
+    @Test
+    public void agreesOnNoise() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder line = new StringBuilder(random.nextBoolean() ? "\tat " : random.nextBoolean() ? "\t..." : "");
+            int length = random.nextInt(24);
+            for (int j = 0; j < length; j++) {
+                line.append(NOISE.charAt(random.nextInt(NOISE.length())));
+            }
+            if (random.nextBoolean()) {
+                line.append(random.nextBoolean() ? ")" : " more");
+            }
+            assertAgrees(line.toString());
+        }
+    }
+
+    @Test
+    public void agreesOnNearMisses() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            List<String> tokens = new ArrayList<>(SHAPES.get(random.nextInt(SHAPES.size())));
+            for (int j = random.nextInt(3); j > 0; j--) {
+                int index = random.nextInt(tokens.size());
+                String token = TOKENS[random.nextInt(TOKENS.length)];
+                switch (random.nextInt(3)) {
+                    case 0:
+                        tokens.set(index, token);
+                        break;
+                    case 1:
+                        tokens.add(index, token);
+                        break;
+                    default:
+                        tokens.remove(index);
+                }
+            }
+            assertAgrees(String.join("", tokens));
+        }
+    }
+
+    /**
+     * Times the lexer against the regular expressions, through the frame pool both go to.  Wall-clock timing is
+     * at the mercy of the machine, so this is run by hand.
+     */
+    @Ignore
+    @Test
+    public void isFiveTimesFaster() {
+        List<String> corpus = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            corpus.addAll(corpus());
+        }
+        for (int i = 0; i < 30; i++) {
+            time(corpus, StackTraceLexerTest::regex);
+            time(corpus, StackTraceLexer::frame);
+        }
+        long regex = Long.MAX_VALUE;
+        long lexer = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            regex = Math.min(regex, time(corpus, StackTraceLexerTest::regex));
+            lexer = Math.min(lexer, time(corpus, StackTraceLexer::frame));
+        }
+        System.out.println(
+            "Per line of " + corpus.size() + ": regex " + regex / corpus.size() + "ns, " +
+            "lexer " + lexer / corpus.size() + "ns");
+        assertTrue(regex + " vs " + lexer, lexer * 5 <= regex);
+    }
+
+    private static final List<List<String>> SHAPES = List.of(
+        List.of("\tat ", "java.base", "@", "11.0.2", "/", "a.b.C$D.m", "(", "F.java", ":", "834", ")"),
+        List.of("\tat ", "java.base", "/", "a.b.C$D.m", "(", "F.java", ":", "834", ")"),
+        List.of("\tat ", "a.b.C$D.m", "(", "F.java", ":", "834", ")"),
+        List.of("\tat ", "a.b.C$D.m", "(", "F.java", ")"),
+        List.of("\tat ", "java.base", "@", "11.0.2", "/", "a.b.C.m", "(", "Native Method", ")"),
+        List.of("\tat ", "java.base", "/", "a.b.C.m", "(", "Native Method", ")"),
+        List.of("\tat ", "a.b.C$D.m", "(", "Unknown Source", ")"),
+        List.of("\t", "...", " ", "834", " ", "more"));
+
+    private static final String[] TOKENS = {
+        "java.base", "@", "11.0.2", "/", "a.b.C$D.m", "C.m", "m", "(", "F.java", ":", "834", "", ")", " ", "\t",
+        "Native Method", "$", ".", "99999999999", "-1", "Unknown Source", "...", "more", "at"
+    };
+
+    private static final String NOISE = "at $.@/():0123456789 \tmoreNative_Method\r";
+
+    private static long time(List<String> corpus, Function<String, CauseFrame> parser) {
+        long start = System.nanoTime();
+        for (String line: corpus) {
+            parser.apply(line);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static List<String> corpus() {
+        List<String> corpus = new ArrayList<>(Arrays.asList(
+            "java.lang.IllegalStateException: Failed",
+            "Caused by: java.io.IOException: Bad stuff",
+            "\tat java.base@11.0.2/java.lang.Thread.run(Thread.java:834)",
+            "\tat java.base@11/jdk.internal.misc.Unsafe.park(Native Method)",
+            "\tat jdk.internal.misc.Unsafe.park(Unknown Source)",
+            "\tat foo.Bar$Zot.lambda$run$0(Bar.java)",
+            "\t... 42 more"));
+        Thread.getAllStackTraces().values().stream()
+            .flatMap(Arrays::stream)
+            .map(element -> "\tat " + element)
+            .forEach(corpus::add);
+        Arrays.stream(new Throwable().getStackTrace())
+            .map(element -> "\tat " + element)
+            .forEach(corpus::add);
+        return corpus;
+    }
+
+    private static void assertFrame(String line, String module, String moduleVersion, int lineNo, boolean naytiv) {
+        assertAgrees(line);
+        CauseFrame frame = StackTraceLexer.frame(line);
+        assertEquals(module, frame.module().string());
+        assertEquals(moduleVersion, frame.moduleVer().string());
+        assertEquals(lineNo, frame.line());
+        assertEquals(naytiv, frame.naytiv());
+    }
+
+    private static void assertAgrees(String line) {
+        assertEquals(line, outcome(line, StackTraceLexerTest::regex), outcome(line, StackTraceLexer::frame));
+    }
+
+    private static String outcome(String line, Function<String, CauseFrame> parser) {
+        try {
+            CauseFrame frame = parser.apply(line);
+            return frame == null ? "none"
+                : frame.isRef() ? "more " + frame.getMore()
+                : String.join(
+                    "|",
+                    Objects.toString(frame.module().string()),
+                    Objects.toString(frame.moduleVer().string()),
+                    Objects.toString(frame.className().string()),
+                    Objects.toString(frame.method().string()),
+                    Objects.toString(frame.file().string()),
+                    String.valueOf(frame.line()),
+                    String.valueOf(frame.naytiv()));
+        } catch (RuntimeException e) {
+            return "failed";
+        }
+    }
+
+    /**
+     * The regular expression cascade, as the parsers had it.
+     */
+    private static CauseFrame regex(String line) {
+        return Arrays.stream(StackTraceElementType.values())
+            .flatMap(type ->
+                Optional.ofNullable(type.toParts(line)).stream()
+                    .map(parts -> new StackTraceParts(type, parts))
+                    .flatMap(StackTraceParts::reconstruct))
+            .findFirst()
+            .orElse(null);
+    }
+}
@@ -21,6 +21,7 @@ import java.util.Arrays;
 import java.util.stream.Stream;
 
 import unearth.munch.print.CauseFrame;
+import unearth.munch.print.FramePool;
 
 final class StackTraceParts {
     
@@ -40,13 +41,13 @@ final class StackTraceParts {
         try {
             Integer lineNumber = type.lineNo(parts);
             String file = type.file(parts);
-            return Stream.of(new CauseFrame(
+            return Stream.of(FramePool.shared().frame(
                 null,
-                CauseFrame.module(type.module(parts)),
-                CauseFrame.moduleVer(type.moduleVersion(parts)),
-                CauseFrame.className(type.className(parts)),
-                CauseFrame.method(type.method(parts)),
-                CauseFrame.file(file == null ? type.otherSource(parts) : file),
+                type.module(parts),
+                type.moduleVersion(parts),
+                type.className(parts),
+                type.method(parts),
+                file == null ? type.otherSource(parts) : file,
                 lineNumber == null ? -1 : lineNumber,
                 type.isNativeMethod()
             ));
@@ -0,0 +1,129 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Test;
+import unearth.hashable.HashStrategies;
+import unearth.hashable.HashStrategy;
+import unearth.munch.model.Fault;
+import unearth.util.Utf8Chars;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+public class SubmissionCacheTest {
+    
+    private final HashStrategy original = HashStrategies.current();
+    
+    @After
+    public void restore() {
+        HashStrategies.use(original);
+    }
+    
+    @Test
+    public void identicalTextHits() {
+        SubmissionCache cache = SubmissionCache.create(10);
+        String submission = print(failure(1));
+        Fault fault = cache.fault(submission);
+        assertEquals(ThrowableParser.parseFault(submission), fault);
+        assertSame(fault, cache.fault(Utf8Chars.of(ByteBuffer.wrap(submission.getBytes(StandardCharsets.UTF_8)))));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+    
+    @Test
+    public void otherTextMisses() {
+        SubmissionCache cache = SubmissionCache.create(10);
+        String submission = print(failure(1));
+        Fault fault = cache.fault(submission);
+        assertNotEquals(fault, cache.fault(submission.replace("Failed 1", "Failed 2")));
+        assertEquals(fault, cache.fault(submission + "\n"));
+        assertEquals(0, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+    
+    @Test
+    public void comparesTextOnHits() {
+        UUID collision = UUID.randomUUID();
+        SubmissionCache cache = new SubmissionCache(10, __ -> collision);
+        String submission = print(failure(1));
+        String forgery = print(failure(2));
+        assertEquals(ThrowableParser.parseFault(submission), cache.fault(submission));
+        assertEquals(ThrowableParser.parseFault(forgery), cache.fault(forgery));
+        assertEquals(ThrowableParser.parseFault(forgery), cache.fault(forgery));
+        assertEquals(ThrowableParser.parseFault(submission), cache.fault(submission));
+    }
+    
+    @Test
+    public void forgetsFaultsOfOtherStrategies() {
+        HashStrategies.use(HashStrategies.murmur3());
+        SubmissionCache cache = SubmissionCache.create(10);
+        String submission = print(failure(1));
+        UUID murmur3 = cache.fault(submission).getHash();
+        HashStrategies.use(HashStrategies.md5());
+        assertNotEquals(murmur3, cache.fault(submission).getHash());
+        assertEquals(0, cache.getHits());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void failsLikeTheParser() {
+        SubmissionCache.create(10).fault("Nothing to see here");
+    }
+    
+    @Test
+    public void replay() {
+        List<String> crashLoop = IntStream.range(0, 10)
+            .mapToObj(i -> print(failure(i)))
+            .collect(Collectors.toList());
+        SubmissionCache cache = SubmissionCache.create(100);
+        for (int i = 0; i < REPLAYS; i++) {
+            for (String submission: crashLoop) {
+                assertEquals(ThrowableParser.parseFault(submission), cache.fault(submission));
+            }
+        }
+        assertEquals(10, cache.getMisses());
+        assertEquals(REPLAYS * crashLoop.size() - 10, cache.getHits());
+    }
+    
+    private static final int REPLAYS = 10;
+    
+    private static Throwable failure(int i) {
+        return new IllegalStateException("Failed " + i, new UncheckedIOException(new IOException("Broken " + i)));
+    }
+    
+    private static String print(Throwable throwable) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (PrintWriter pw = new PrintWriter(baos)) {
+            throwable.printStackTrace(pw);
+        }
+        return baos.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -20,9 +20,13 @@ import java.io.ByteArrayOutputStream;
 import java.io.InterruptedIOException;
 import java.io.PrintWriter;
 import java.net.ConnectException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.regex.Pattern;
 
 import org.junit.Test;
+import unearth.munch.ChameleonException;
+import unearth.munch.model.Fault;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -73,6 +77,46 @@ public class ThrowableParserTest {
         }
     }
     
+    @Test
+    public void parseFaults() {
+        String conflated;
+        try {
+            andFail();
+            throw new IllegalStateException();
+        } catch (Exception e) {
+            conflated = conflate(print(e));
+        }
+        try {
+            andFailSuppressed();
+        } catch (MyRuntimeException e) {
+            for (String text: new String[] { print(e), conflated, print(recursed(50)), SUPP, SUPP_0 }) {
+                assertEquals(Fault.create(ThrowableParser.parse(text)), ThrowableParser.parseFault(text));
+            }
+        }
+    }
+    
+    @Test
+    public void chameleonsHaveNoStackOfTheirOwn() {
+        assertEquals(0, new ChameleonException("foo.Bar", "baz", false, null).getStackTrace().length);
+    }
+    
+    @Test
+    public void parseBuffers() {
+        try {
+            andFail();
+        } catch (Exception e) {
+            String simple = print(new IllegalStateException("Non-ASCII: \u00e6\u00f8\u00e5 \u20ac \ud83d\ude00", e));
+            for (String output: new String[] { simple, SUPP, SUPP_0 }) {
+                byte[] bytes = output.getBytes(StandardCharsets.UTF_8);
+                ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+                assertEquals(
+                    Fault.create(ThrowableParser.parse(output)),
+                    Fault.create(ThrowableParser.parse(direct)));
+                assertEquals(0, direct.position());
+            }
+        }
+    }
+    
     @Test
     public void parseSimple() {
         try {
@@ -245,6 +289,13 @@ public class ThrowableParserTest {
         return new String(out.toByteArray());
     }
     
+    private static Throwable recursed(int depth) {
+        if (depth == 0) {
+            return new IllegalStateException("Deep", new IllegalArgumentException("Deeper"));
+        }
+        return recursed(depth - 1);
+    }
+    
     private static void andFail() {
         try {
             andFailAgain();
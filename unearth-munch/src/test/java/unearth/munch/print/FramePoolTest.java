@@ -0,0 +1,104 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.print;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import unearth.munch.model.CauseStrand;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class FramePoolTest {
+
+    @Test
+    public void sharesFrames() {
+        FramePool pool = FramePool.create(1000);
+        StackTraceElement[] first = new Throwable().getStackTrace();
+        StackTraceElement[] second = new Throwable().getStackTrace();
+
+        assertSame(pool.frame(first[1]), pool.frame(second[1]));
+        assertSame(
+            pool.frame(first[0]),
+            pool.frame(
+                first[0].getClassLoaderName(),
+                first[0].getModuleName(),
+                first[0].getModuleVersion(),
+                first[0].getClassName(),
+                first[0].getMethodName(),
+                first[0].getFileName(),
+                first[0].getLineNumber(),
+                first[0].isNativeMethod()));
+    }
+
+    @Test
+    public void sameIdsAsUnpooled() {
+        FramePool pool = FramePool.create(1000);
+        for (StackTraceElement element: new Throwable().getStackTrace()) {
+            assertEquals(unpooled(element).getHash(), pool.frame(element).getHash());
+        }
+    }
+
+    @Test
+    public void sharesFramesAcrossStrands() {
+        List<StackTraceElement[]> stackTraces = IntStream.range(0, STRANDS)
+            .mapToObj(i -> new Throwable().getStackTrace())
+            .collect(Collectors.toList());
+        StackTraceElement[] stackTrace = stackTraces.get(0);
+
+        assertEquals(STRANDS * stackTrace.length, distinctFrames(stackTraces, FramePoolTest::unpooled));
+        FramePool pool = FramePool.create(1000);
+        assertEquals(new HashSet<>(Arrays.asList(stackTrace)).size(), distinctFrames(stackTraces, pool::frame));
+    }
+
+    private static final int STRANDS = 100;
+
+    private static int distinctFrames(
+        List<StackTraceElement[]> stackTraces,
+        Function<StackTraceElement, CauseFrame> frame
+    ) {
+        Set<CauseFrame> frames = Collections.newSetFromMap(new IdentityHashMap<>());
+        stackTraces.stream()
+            .map(stackTrace -> CauseStrand.create(
+                Throwable.class.getName(),
+                Arrays.stream(stackTrace).map(frame).collect(Collectors.toList())))
+            .forEach(strand -> frames.addAll(strand.getCauseFrames()));
+        return frames.size();
+    }
+
+    private static CauseFrame unpooled(StackTraceElement element) {
+        return new CauseFrame(
+            CauseFrame.classLoader(element.getClassLoaderName()),
+            CauseFrame.module(element.getModuleName()),
+            CauseFrame.moduleVer(element.getModuleVersion()),
+            CauseFrame.className(element.getClassName()),
+            CauseFrame.method(element.getMethodName()),
+            CauseFrame.file(element.getFileName()),
+            element.getLineNumber(),
+            element.isNativeMethod());
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.print;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import unearth.munch.model.Cause;
+import unearth.munch.model.Fault;
+import unearth.munch.model.FrameFun;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+public class RenderCacheTest {
+    
+    @Test
+    public void rendersOnce() {
+        RenderCache cache = RenderCache.create(10);
+        ConfigurableStackRenderer renderer = new ConfigurableStackRenderer().reshape(FrameFun.SHORTEN_CLASSNAMES);
+        StackRenderer cached = renderer.cached(cache);
+        List<Cause> causes = Stream.generate(RenderCacheTest::cause).limit(2).collect(Collectors.toList());
+        
+        List<String> rendered = cached.render(causes.get(0));
+        assertEquals(renderer.render(causes.get(0)), rendered);
+        assertSame(rendered, cached.render(causes.get(0)));
+        assertSame(rendered, cached.render(causes.get(1)));
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+    }
+    
+    @Test
+    public void keepsConfigurationsApart() {
+        RenderCache cache = RenderCache.create(10);
+        Cause cause = cause();
+        ConfigurableStackRenderer renderer = new ConfigurableStackRenderer();
+        
+        List<String> plain = renderer.cached(cache).render(cause);
+        List<String> shortened = renderer.reshape(FrameFun.SHORTEN_CLASSNAMES).cached(cache).render(cause);
+        assertEquals(renderer.render(cause), plain);
+        assertEquals(renderer.reshape(FrameFun.SHORTEN_CLASSNAMES).render(cause), shortened);
+        assertEquals(2, cache.getMisses());
+    }
+    
+    @Test
+    public void keepsSharedFramesApart() {
+        Throwable inner = new IllegalStateException("inner");
+        Cause shared = Fault.create(new IllegalStateException("outer", inner)).getCauses().get(0);
+        Cause own = Fault.create(inner).getCauses().get(0);
+        StackRenderer cached = new ConfigurableStackRenderer().cached(RenderCache.create(10));
+        
+        assertEquals(shared.getCauseStrand().getId(), own.getCauseStrand().getId());
+        assertNotEquals(cached.render(shared), cached.render(own));
+    }
+    
+    @Test
+    public void streamsCached() {
+        Cause cause = cause();
+        ConfigurableStackRenderer renderer = new ConfigurableStackRenderer();
+        StackRenderer cached = renderer.cached(RenderCache.create(10));
+        cached.render(cause);
+        assertEquals(
+            renderer.render(cause, "\t", new StringBuilder()).toString(),
+            cached.render(cause, "\t", new StringBuilder()).toString());
+    }
+    
+    @Test
+    public void sharesShortenedClassNames() {
+        CauseFrame frame = FramePool.shared().frame(new Throwable().getStackTrace()[0]);
+        CauseFrame other = FramePool.shared().frame(
+            null, null, null, frame.className().string(), "other", null, 1, false);
+        assertEquals("u.m.p.RenderCacheTest", frame.shortenClassName().className().string());
+        assertSame(frame.shortenClassName().className(), other.shortenClassName().className());
+        assertEquals("Plain", FramePool.shared().frame(
+            null, null, null, "Plain", "run", null, 1, false).shortenClassName().className().string());
+    }
+    
+    private static Cause cause() {
+        return Fault.create(new IllegalStateException("cached")).getCauses().get(0);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.print;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import unearth.munch.model.CaptureBudget;
+import unearth.munch.model.Cause;
+import unearth.munch.model.Fault;
+import unearth.munch.model.FrameFun;
+
+import static org.junit.Assert.assertEquals;
+
+public class StreamingRenderTest {
+    
+    @Test
+    public void streamsLikeLists() {
+        for (StackRenderer renderer: renderers()) {
+            for (Fault fault: faults()) {
+                CausesRenderer causesRenderer = new SimpleCausesRenderer(renderer);
+                String listed = listed(causesRenderer, fault, "  ");
+                assertEquals(listed, causesRenderer.render(fault, "  ", new StringBuilder()).toString());
+                assertEquals(listed, causesRenderer.render(fault, "  ", new StringWriter()).toString());
+            }
+        }
+    }
+    
+    @Test
+    public void streamsCauses() {
+        for (StackRenderer renderer: renderers()) {
+            for (Fault fault: faults()) {
+                for (Cause cause: fault.getCauses()) {
+                    StringBuilder listed = new StringBuilder();
+                    renderer.render(cause).forEach(line -> listed.append("> ").append(line).append('\n'));
+                    assertEquals(listed.toString(), renderer.render(cause, "> ", new StringBuilder()).toString());
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void defaultsToTabs() {
+        Fault fault = Fault.create(new IllegalStateException("tabbed"));
+        CausesRenderer renderer = new SimpleCausesRenderer(new ConfigurableStackRenderer());
+        assertEquals(listed(renderer, fault, null), renderer.render(fault, null, new StringBuilder()).toString());
+    }
+    
+    private static String listed(CausesRenderer renderer, Fault fault, String indent) {
+        StringBuilder sb = new StringBuilder();
+        for (CausesRendering rendering: renderer.render(fault)) {
+            rendering.getStrings(indent).forEach(line -> sb.append(line).append('\n'));
+        }
+        return sb.toString();
+    }
+    
+    private static List<StackRenderer> renderers() {
+        return Arrays.asList(
+            new ConfigurableStackRenderer(),
+            new ConfigurableStackRenderer().noStack(),
+            new ConfigurableStackRenderer()
+                .group(new SimplePackageGrouper(Arrays.asList(
+                    Collections.singleton("org.junit"),
+                    Arrays.asList("java", "jdk", "sun"))))
+                .reshape(FrameFun.LIKE_JAVA_8)
+                .reshape(FrameFun.SHORTEN_CLASSNAMES),
+            new ConfigurableStackRenderer()
+                .group(new SimplePackageGrouper(Arrays.asList(
+                    Collections.singleton("org.junit"),
+                    Arrays.asList("java", "jdk", "sun"))))
+                .squash((group, causeFrames) -> Stream.of(" * (" + causeFrames.size() + ")"))
+                .framePrinter((sb, cf) -> cf.defaultPrint(sb.append("--  "))),
+            new ConfigurableStackRenderer()
+                .framePrinter((sb, cf) -> new StringBuilder("fresh ").append(cf.line())),
+            new ConfigurableStackRenderer()
+                .framePrinter((sb, cf) -> sb.append("at ").append(sb.length()).append(' ').append(cf.line())));
+    }
+    
+    private static List<Fault> faults() {
+        return Arrays.asList(
+            Fault.create(new IllegalStateException("simple", new IllegalArgumentException((String) null))),
+            Fault.create(ping(300)),
+            Fault.create(chain(10), CaptureBudget.create(10, 3, 5)));
+    }
+    
+    private static Throwable chain(int length) {
+        Throwable throwable = ping(100);
+        for (int i = 2; i <= length; i++) {
+            throwable = new IllegalStateException("level " + i, throwable);
+        }
+        return throwable;
+    }
+    
+    private static Throwable ping(int depth) {
+        return depth == 0 ? new IllegalStateException("bottom") : pong(depth - 1);
+    }
+    
+    private static Throwable pong(int depth) {
+        return depth == 0 ? new IllegalStateException("bottom") : ping(depth - 1);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.munch.print;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TriePackageGrouperTest {
+    
+    @Test
+    public void matchesPlainPrefixes() {
+        List<String> javas = Arrays.asList("java", "sun");
+        TriePackageGrouper grouper = new TriePackageGrouper(Collections.singleton(javas));
+        assertSame(javas, grouper.apply(frame("javax.net.Socket")).orElseThrow());
+        assertEquals(Optional.empty(), grouper.apply(frame("jav.Foo")));
+        assertEquals(Optional.empty(), grouper.apply(frame("org.junit.Test")));
+    }
+    
+    @Test
+    public void longestWinsThenFirst() {
+        List<String> java = Collections.singletonList("java");
+        List<String> util = Arrays.asList("org", "java.util");
+        List<String> utilToo = Collections.singletonList("java.util");
+        TriePackageGrouper grouper = new TriePackageGrouper(Arrays.asList(java, util, utilToo));
+        assertSame(java, grouper.apply(frame("java.lang.String")).orElseThrow());
+        assertSame(util, grouper.apply(frame("java.util.List")).orElseThrow());
+    }
+    
+    @Test
+    public void groupsLikeSimpleGrouper() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            Collection<Collection<String>> groups = new ArrayList<>();
+            for (int i = 0, count = 1 + random.nextInt(6); i < count; i++) {
+                List<String> group = new ArrayList<>();
+                for (int j = 0, names = random.nextInt(4); j < names; j++) {
+                    group.add(name(random, 3));
+                }
+                groups.add(group);
+            }
+            SimplePackageGrouper simple = new SimplePackageGrouper(groups);
+            TriePackageGrouper trie = new TriePackageGrouper(groups);
+            for (int i = 0; i < 100; i++) {
+                CauseFrame frame = frame(name(random, 5) + ".Foo");
+                Optional<Collection<String>> expected = simple.apply(frame);
+                Optional<Collection<String>> actual = trie.apply(frame);
+                assertEquals(frame + " in " + groups, expected.isPresent(), actual.isPresent());
+                expected.ifPresent(group -> assertSame(frame + " in " + groups, group, actual.get()));
+            }
+        }
+    }
+    
+    @Test
+    public void allocatesNothing() {
+        TriePackageGrouper grouper = new TriePackageGrouper(Arrays.asList(
+            Arrays.asList("java", "jdk", "sun", "com.sun"),
+            Arrays.asList("org.springframework", "org.springframework.web"),
+            Collections.singletonList("io.netty")));
+        CauseFrame[] frames = {
+            frame("org.springframework.web.servlet.FrameworkServlet"),
+            frame("io.netty.channel.AbstractChannelHandlerContext"),
+            frame("unearth.munch.print.TriePackageGrouper")
+        };
+        for (int i = 0; i < 10_000; i++) {
+            grouper.apply(frames[i % frames.length]);
+        }
+        long start = allocated();
+        long before = allocated();
+        for (int i = 0; i < 1_000; i++) {
+            grouper.apply(frames[i % frames.length]);
+        }
+        long bytes = allocated() - before - (before - start);
+        assertTrue(bytes + " bytes", bytes < 1_000);
+    }
+    
+    private static final String[] SEGMENTS = { "a", "ab", "b", "ba", "c" };
+    
+    private static String name(Random random, int maxSegments) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0, segments = 1 + random.nextInt(maxSegments); i < segments; i++) {
+            if (i > 0) {
+                sb.append('.');
+            }
+            sb.append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+        }
+        return random.nextInt(10) == 0 ? sb.substring(0, random.nextInt(sb.length() + 1)) : sb.toString();
+    }
+    
+    private static CauseFrame frame(String className) {
+        return FramePool.shared().frame(null, null, null, className, "run", null, 1, false);
+    }
+    
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    
+    private static long allocated() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+}
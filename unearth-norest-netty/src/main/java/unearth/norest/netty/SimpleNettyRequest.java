@@ -17,7 +17,6 @@
 
 package unearth.norest.netty;
 
-import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +29,7 @@ import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpHeaders;
 import unearth.norest.common.AbstractRequest;
 import unearth.norest.common.Request;
+import unearth.util.Utf8Chars;
 
 public final class SimpleNettyRequest extends AbstractRequest {
 
@@ -55,7 +55,7 @@ public final class SimpleNettyRequest extends AbstractRequest {
     @Override
     protected CharSequence getBodyContent() {
         ByteBuf content = this.httpRequest.content();
-        return content.toString(StandardCharsets.UTF_8);
+        return Utf8Chars.of(content.nioBuffer());
     }
 
     @Override
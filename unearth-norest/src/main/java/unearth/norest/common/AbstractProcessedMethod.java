@@ -105,7 +105,8 @@ public abstract class AbstractProcessedMethod {
         this.returnData = returnType != void.class;
         this.returnType = getActualReturnType(this.method, this.optionalReturn, returnType);
 
-        this.stringBody = this.requestMethod.isEntity() && parameterTypes[0] == String.class;
+        this.stringBody = this.requestMethod.isEntity() &&
+                          (parameterTypes[0] == String.class || parameterTypes[0] == CharSequence.class);
         this.bodyArgumentIndex = this.requestMethod.isEntity() ?
             IntStream.range(0, parameterAnnotations.length)
                 .filter(i -> parameterAnnotations[i] == null || parameterAnnotations[i].length == 0)
@@ -73,6 +73,11 @@ public abstract class AbstractRequest implements Request {
         return getBodyContent().toString();
     }
 
+    @Override
+    public final CharSequence getEntityContent() {
+        return getBodyContent();
+    }
+
     @Override
     public final Map<String, String> getHeaders() {
         return retrieveHeaders().entrySet().stream()
@@ -38,6 +38,13 @@ public interface Request {
 
     String getEntity();
 
+    /**
+     * @return The entity, possibly as a view of the request body, valid while the request is being handled
+     */
+    default CharSequence getEntityContent() {
+        return getEntity();
+    }
+
     Map<String, String> getHeaders();
 
     Map<String, String> getQueryParameters();
@@ -100,10 +100,10 @@ public abstract class ServerSideMethod extends AbstractProcessedMethod {
 
     private void setEntityParameter(Request request, Object[] args) {
         if (requestMethod().isEntity()) {
-            String entity = request.getEntity();
-            args[bodyArgumentIndex()] = stringBody()
-                ? entity
-                : transformers().from(parameterTypes()[bodyArgumentIndex()], entity);
+            Class<?> type = parameterTypes()[bodyArgumentIndex()];
+            args[bodyArgumentIndex()] = type == CharSequence.class ? request.getEntityContent()
+                : stringBody() ? request.getEntity()
+                    : transformers().from(type, request.getEntity());
         }
     }
 
@@ -19,14 +19,20 @@ package unearth.server
 
 import unearth.api.UnearthlyApi
 import unearth.api.dto.*
-import unearth.munch.parser.ThrowableParser
+import unearth.munch.parser.SubmissionCache
 import java.util.*
 
-class DefaultUnearthlyApi(
+class DefaultUnearthlyApi @JvmOverloads constructor(
     private val controller: UnearthlyResources,
-    private val renderer: UnearthlyRenderer
+    private val renderer: UnearthlyRenderer,
+    private val submissions: SubmissionCache = SubmissionCache.create(SUBMISSION_CACHE_SIZE)
 ) : UnearthlyApi {
 
+    companion object {
+
+        private const val SUBMISSION_CACHE_SIZE = 10_000
+    }
+
     override fun cause(id: CauseIdDto, fullStack: Boolean, printStack: Boolean) =
         unpack(controller.lookupCauseDto(id, fullStack, printStack))
 
@@ -65,8 +71,8 @@ class DefaultUnearthlyApi(
     override fun globalFeedLimit() =
         controller.feedLimit() ?: 0
 
-    override fun throwable(throwable: String?): Submission {
-        val parsed = ThrowableParser.parse(throwable)
+    override fun throwable(throwable: CharSequence?): Submission {
+        val parsed = submissions.fault(throwable)
         val handlingPolicy = controller.submitRaw(parsed)
         return renderer.submission(handlingPolicy)
     }
@@ -76,7 +82,7 @@ class DefaultUnearthlyApi(
     }
 
     override fun toString(): String {
-        return "${javaClass.simpleName}[controller=$controller, renderer=$renderer)"
+        return "${javaClass.simpleName}[controller=$controller, renderer=$renderer, submissions=$submissions)"
     }
 
     override fun ping() = "pong\n"
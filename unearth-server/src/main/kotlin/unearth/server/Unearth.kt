@@ -23,12 +23,19 @@ import com.zaxxer.hikari.HikariDataSource
 import org.slf4j.LoggerFactory
 import unearth.analysis.CassandraInit
 import unearth.analysis.CassandraSensor
+import unearth.core.FaultFeed
 import unearth.core.FaultSensor
+import unearth.core.FaultStats
+import unearth.core.FaultStorage
 import unearth.core.HandlingPolicy
+import unearth.core.sensor.CompositeSensor
+import unearth.core.stats.WindowedStats
 import unearth.jdbc.Metrics
 import unearth.memory.Db
+import unearth.memory.MemoryStorage
 import unearth.memory.Sensor
 import unearth.metrics.MetricsFactory
+import unearth.munch.model.FeedEntry
 import unearth.munch.model.FrameFun
 import unearth.munch.print.*
 import unearth.server.turbo.UnearthlyTurboFilter
@@ -63,13 +70,27 @@ class Unearth(private val configuration: UnearthlyConfig = UnearthlyConfig.load(
         logger.info("Building ${Unearth::class.simpleName}...")
 
         val sensorFuture = CompletableFuture.supplyAsync { sensor() }
-        val storageFuture = CompletableFuture.supplyAsync { storage(metricsFactory) }
+        val storageFuture = CompletableFuture.supplyAsync { storages(metricsFactory) }
 
-        val storage = storageFuture.join()
-        val sensor = sensorFuture.join()
+        val (storage, feed, faultStats) = storageFuture.join()
+        val sensor = CompositeSensor.create().with(sensorFuture.join())
+        val stats = WindowedStats.create(faultStats)
 
         val renderer = UnearthlyRenderer(configuration.prefix)
-        val resources = UnearthlyController(storage, storage, storage, sensor, renderer)
+        val resources = UnearthlyController(
+            storage,
+            feed,
+            stats,
+            object : FaultSensor {
+                override fun register(feedEntry: FeedEntry) {
+                    stats.register(feedEntry)
+                    sensor.register(feedEntry)
+                }
+
+                override fun close() = sensor.close()
+            },
+            renderer
+        )
 
         val server: UnearthlyServer = toServer(resources, configuration)
 
@@ -91,6 +112,12 @@ class Unearth(private val configuration: UnearthlyConfig = UnearthlyConfig.load(
         }
     }
 
+    private fun storages(metricsFactory: MetricsFactory): Triple<FaultStorage, FaultFeed, FaultStats> =
+        if (configuration.unearthlyMemory)
+            MemoryStorage(Clock.systemDefaultZone()).let { Triple(it, it, it) }
+        else
+            storage(metricsFactory).let { Triple(it, it, it) }
+
     private fun storage(metricsFactory: MetricsFactory): JdbcStorage {
         val db: DataSource = db(configuration)
         val storage = JdbcStorage(
@@ -132,16 +159,18 @@ class Unearth(private val configuration: UnearthlyConfig = UnearthlyConfig.load(
             }
         val defaultStackRenderer: StackRenderer =
             ConfigurableStackRenderer()
-                .group(SimplePackageGrouper(listOf("org.http4k", "io.netty")))
+                .group(TriePackageGrouper(listOf("org.http4k", "io.netty")))
                 .squash(squasher)
                 .reshape(FrameFun.LIKE_JAVA_8)
                 .reshape(FrameFun.SHORTEN_CLASSNAMES)
+                .cached(RenderCache.shared())
         val shortStackRenderer =
             ConfigurableStackRenderer()
-                .group(SimplePackageGrouper(listOf("org.http4k", "io.netty")))
+                .group(TriePackageGrouper(listOf("org.http4k", "io.netty")))
                 .squash(FrameFun.JUST_COUNT_AND_TOP)
                 .reshape(FrameFun.LIKE_JAVA_8)
                 .reshape(FrameFun.SHORTEN_CLASSNAMES)
+                .cached(RenderCache.shared())
         val noStackRenderer =
             ConfigurableStackRenderer().noStack()
 
@@ -19,10 +19,13 @@ package unearth.server
 
 import unearth.api.dto.*
 import unearth.core.*
+import unearth.core.handler.AdaptiveActions
 import unearth.core.handler.DefaultFaultHandler
+import unearth.core.handler.ThrowableWindow
 import unearth.munch.id.*
 import unearth.munch.model.Fault
 import java.time.Clock
+import java.time.Duration
 import java.util.*
 
 class UnearthlyController(
@@ -35,9 +38,11 @@ class UnearthlyController(
 ) : UnearthlyResources {
 
     private val handler: FaultHandler = DefaultFaultHandler(storage, sensor, stats, clock)
+        .withActions(AdaptiveActions.create())
+        .withThrowables(ThrowableWindow.create(Duration.ofSeconds(10)))
 
     override fun close() {
-        listOf<AutoCloseable>(storage, feed, stats).forEach(AutoCloseable::close)
+        listOf<AutoCloseable>(sensor, storage, feed, stats).forEach(AutoCloseable::close)
     }
 
     override fun submitRaw(t: Throwable): HandlingPolicy = handler.handle(t)!!
@@ -45,6 +50,8 @@ class UnearthlyController(
     override fun submitRaw(t: Throwable, message: String?, args: Array<Any>?): HandlingPolicy =
         handler.handle(t, message, *args ?: emptyArray())
 
+    override fun submitRaw(fault: Fault): HandlingPolicy = handler.handle(fault)!!
+
     override fun lookupFaultStrandDto(
         id: FaultStrandIdDto,
         fullStack: Boolean,
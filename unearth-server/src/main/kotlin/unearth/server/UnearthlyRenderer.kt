@@ -150,7 +150,7 @@ class UnearthlyRenderer(private val linkPrefix: String) {
     private fun rendering(policy: HandlingPolicy): CausesRendering? = renderers[policy.action]?.render(policy.fault)
 
     private val renderers: Map<HandlingPolicy.Action, CausesRenderer> = hashMapOf(
-        HandlingPolicy.Action.LOG to SimpleCausesRenderer(ConfigurableStackRenderer()),
+        HandlingPolicy.Action.LOG to SimpleCausesRenderer(ConfigurableStackRenderer().cached(RenderCache.shared())),
         HandlingPolicy.Action.LOG_SHORT to SimpleCausesRenderer(rendererFor(listOf("org.http4k", "io.netty"))),
         HandlingPolicy.Action.LOG_MESSAGES to SimpleCausesRenderer(ConfigurableStackRenderer().noStack())
     )
@@ -162,10 +162,11 @@ class UnearthlyRenderer(private val linkPrefix: String) {
 
     private fun rendererFor(groups: List<String>): StackRenderer =
         ConfigurableStackRenderer()
-            .group(SimplePackageGrouper(groups))
+            .group(TriePackageGrouper(groups))
             .squash { _, causeFrames ->
                 Stream.of(" * [${causeFrames.size} hidden]")
             }
             .reshape(FrameFun.LIKE_JAVA_8)
             .reshape(FrameFun.SHORTEN_CLASSNAMES)
+            .cached(RenderCache.shared())
 }
@@ -20,6 +20,7 @@ package unearth.server
 import unearth.api.dto.*
 import unearth.core.HandlingPolicy
 import unearth.core.Resettable
+import unearth.munch.model.Fault
 
 interface UnearthlyResources : AutoCloseable, Resettable {
 
@@ -29,6 +30,9 @@ interface UnearthlyResources : AutoCloseable, Resettable {
     fun submitRaw(t: Throwable, message: String?, args: Array<Any>?)
             : HandlingPolicy
 
+    fun submitRaw(fault: Fault)
+            : HandlingPolicy
+
     fun lookupFaultStrandDto(id: FaultStrandIdDto, fullStack: Boolean = false, printStack: Boolean = false)
             : FaultStrandDto?
 
@@ -24,12 +24,14 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.sql.DataSource;
 
 import org.slf4j.Logger;
@@ -51,6 +53,7 @@ import unearth.munch.id.FaultId;
 import unearth.munch.id.FaultStrandId;
 import unearth.munch.id.FeedEntryId;
 import unearth.munch.id.Id;
+import unearth.munch.id.Identifiable;
 import unearth.munch.model.Cause;
 import unearth.munch.model.CauseStrand;
 import unearth.munch.model.Fault;
@@ -78,11 +81,21 @@ public class JdbcStorage implements FaultStorage, FaultFeed, FaultStats {
 
     private final Metrics metrics;
 
+    private final KnownIds known;
+
     public JdbcStorage(DataSource dataSource, String schema, Clock clock, Metrics metrics) {
+        this(dataSource, schema, clock, metrics, DEFAULT_KNOWN_IDS);
+    }
+
+    /**
+     * @param knownIds Number of fault, fault strand, cause and cause strand ids to remember as written
+     */
+    public JdbcStorage(DataSource dataSource, String schema, Clock clock, Metrics metrics, int knownIds) {
         this.dataSource = dataSource;
         this.schema = schema;
         this.clock = clock;
         this.metrics = metrics;
+        this.known = new KnownIds(knownIds);
     }
 
     @Override
@@ -105,14 +118,14 @@ public class JdbcStorage implements FaultStorage, FaultFeed, FaultStats {
 
     @Override
     public Optional<Fault> getFault(FaultId faultId) {
-        return inSession(session ->
-            loadFault(session, faultId));
+        return learned(inSession(session ->
+            loadFault(session, faultId)));
     }
 
     @Override
     public Optional<FaultStrand> getFaultStrand(FaultStrandId faultStrandId) {
-        return inSession(session ->
-            loadFaultStrand(session, faultStrandId));
+        return learned(inSession(session ->
+            loadFaultStrand(session, faultStrandId)));
     }
 
     @Override
@@ -123,18 +136,26 @@ public class JdbcStorage implements FaultStorage, FaultFeed, FaultStats {
 
     @Override
     public Optional<CauseStrand> getCauseStrand(CauseStrandId causeId) {
-        return inSession(session ->
-            loadCauseStrand(session, causeId));
+        return learned(inSession(session ->
+            loadCauseStrand(session, causeId)));
     }
 
     @Override
     public Optional<Cause> getCause(CauseId causeId) {
-        return inSession(session ->
-            loadCause(session, causeId));
+        return learned(inSession(session ->
+            loadCause(session, causeId)));
     }
 
     @Override
     public void reset() {
+        known.clear();
+    }
+
+    /**
+     * @return Round trips to the database saved by knowing rows were already written
+     */
+    public long getSavedRoundTrips() {
+        return known.getSavedRoundTrips();
     }
 
     @Override
@@ -160,7 +181,7 @@ public class JdbcStorage implements FaultStorage, FaultFeed, FaultStats {
             : loadFaultEvents(
                 "select fault, fault_strand, time, global_seq, fault_strand_seq, fault_seq" +
                 "  from feed_entry " +
-                "  where global_seq > ? limit ?",
+                "  where global_seq > ? order by global_seq limit ?",
                 stmt -> stmt
                     .set(offset)
                     .set(count));
@@ -172,7 +193,7 @@ public class JdbcStorage implements FaultStorage, FaultFeed, FaultStats {
             : loadFaultEvents(
                 "select fault, fault_strand, time, global_seq, fault_strand_seq, fault_seq" +
                 "   from feed_entry" +
-                "   where fault_strand = ? and global_seq > ? limit ?",
+                "   where fault_strand = ? and global_seq > ? order by global_seq limit ?",
                 stmt -> stmt.set(id)
                     .set(offset)
                     .set(count));
@@ -184,7 +205,7 @@ public class JdbcStorage implements FaultStorage, FaultFeed, FaultStats {
             : loadFaultEvents(
                 "select fault, fault_strand, time, global_seq, fault_strand_seq, fault_seq" +
                 "  from feed_entry" +
-                "  where fault = ? and global_seq > ? limit ?",
+                "  where fault = ? and global_seq > ? order by global_seq limit ?",
                 stmt -> stmt.set(id)
                     .set(offset)
                     .set(count));
@@ -192,8 +213,7 @@ public class JdbcStorage implements FaultStorage, FaultFeed, FaultStats {
 
     @Override
     public Optional<FeedEntry> getLastFeedEntry(FaultId id, Instant sinceTime) {
-        return inSession(session ->
-            loadFeedEntries(id, session).stream().findFirst());
+        return getLastFeedEntry(id, sinceTime, null);
     }
 
     @Override
@@ -210,17 +230,17 @@ public class JdbcStorage implements FaultStorage, FaultFeed, FaultStats {
 
     @Override
     public long getFeedEntryCount(Instant sinceTime, Duration interval) {
-        return count("select count(*) from feed_entry", null);
+        return count(null, sinceTime, interval);
     }
 
     @Override
     public long getFeedEntryCount(FaultStrandId id, Instant sinceTime, Duration interval) {
-        return count("select count(*) from feed_entry where fault_strand = ?", id);
+        return count(id, sinceTime, interval);
     }
 
     @Override
     public long getFeedEntryCount(FaultId id, Instant sinceTime, Duration interval) {
-        return count("select count(*) from feed_entry where fault = ?", id);
+        return count(id, sinceTime, interval);
     }
 
     @Override
@@ -252,23 +272,16 @@ public class JdbcStorage implements FaultStorage, FaultFeed, FaultStats {
     private List<FeedEntry> getFaultEntries(Id id, Instant sinceTime, Duration period) {
         return inSession(session -> session.select(
             "select fault, fault_strand, time, global_seq, fault_strand_seq, fault_seq from feed_entry" +
-            (id == null ? "" : " where " + (id instanceof FaultId ? "fault" : "fault_strand") + " = ?") +
-            (sinceTime == null ? ""
-                : " and time > ?" + (
-                    period == null ? ""
-                        : " and time <= ? ")),
-            stmt -> forPeriod(
-                sinceTime(id == null ? stmt : stmt.set(id), sinceTime),
-                sinceTime,
-                period),
+            where(id, sinceTime, period) +
+            " order by global_seq",
+            stmt -> set(stmt, id, sinceTime, period),
             Sql::readFeedEntry));
     }
 
-    private long count(String countSql, Id id) {
-        Session.Set parSet = id == null ? null : stmt -> stmt.set(id);
+    private long count(Id id, Instant sinceTime, Duration interval) {
         return inSession(session -> session.selectOne(
-            countSql,
-            parSet,
+            "select count(*) from feed_entry" + where(id, sinceTime, interval),
+            stmt -> set(stmt, id, sinceTime, interval),
             Session.Res::getLong)
         ).orElse(0L);
     }
@@ -286,10 +299,16 @@ public class JdbcStorage implements FaultStorage, FaultFeed, FaultStats {
             metrics.writes(Fault.class);
         }
         log.debug("Storing {}", fault);
-        Outcome faultStrandOutcome = storeFaultStrand(fault.getFaultStrand(), session);
+        if (known.isKnown(fault.getId(), KNOWN_FAULT_ROUND_TRIPS)) {
+            log.debug("Known fault: {}", fault);
+            return;
+        }
+        Outcome faultStrandOutcome = known.isKnown(fault.getFaultStrand().getId(), KNOWN_ROUND_TRIPS)
+            ? NOOP
+            : storeFaultStrand(fault.getFaultStrand(), session);
         if (inserted(faultStrandOutcome)) {
             log.debug("Inserted fault strand: {}", fault.getFaultStrand());
-            Map<CauseStrand, Outcome> causeStrandOutcomes = storeCauseStrands(fault, session);
+            Map<CauseStrand, Outcome> causeStrandOutcomes = storeCauseStrands(unknownCauseStrands(fault), session);
             causeStrandOutcomes.forEach((causeStrand, strandOutcome) -> {
                 log.debug("Inserted cause strand: {}", causeStrand);
                 if (inserted(storeCauseFrames(session, causeStrand))) {
@@ -298,16 +317,19 @@ public class JdbcStorage implements FaultStorage, FaultFeed, FaultStats {
                     log.debug("No new cause frames inserted for {}", causeStrand);
                 }
                 linkCauseStrandToCauseFrames(session, causeStrand);
+                storeFolds(session, causeStrand);
+                known.add(causeStrand.getId());
             });
             linkFaultStrandToCauseStrands(session, fault.getFaultStrand());
         } else {
             log.debug("Already known fault strand: {}", fault.getFaultStrand());
         }
+        known.add(fault.getFaultStrand().getId());
         Outcome faultOutcome = storeFault(fault, session);
         if (inserted(faultOutcome)) {
             log.debug("Inserted fault: {}", fault);
             if (inserted(faultOutcome)) {
-                Map<Cause, Outcome> causeOutcomes = storeCauses(fault, session);
+                Map<Cause, Outcome> causeOutcomes = storeCauses(unknownCauses(fault), session);
                 causeOutcomes.forEach((cause, causeOutCome) -> {
                     if (inserted(causeOutCome)) {
                         log.debug("Inserted cause: {}", cause);
@@ -320,6 +342,28 @@ public class JdbcStorage implements FaultStorage, FaultFeed, FaultStats {
         } else {
             log.debug("Already known fault: {}", fault);
         }
+        fault.getCauses().forEach(cause -> known.add(cause.getId()));
+        known.add(fault.getId());
+    }
+
+    private List<CauseStrand> unknownCauseStrands(Fault fault) {
+        return fault.getCauses().stream()
+            .map(Cause::getCauseStrand)
+            .filter(causeStrand ->
+                !known.isKnown(causeStrand.getId(), knownRoundTrips(causeStrand)))
+            .collect(Collectors.toList());
+    }
+
+    private List<Cause> unknownCauses(Fault fault) {
+        return fault.getCauses().stream()
+            .filter(cause ->
+                !known.isKnown(cause.getId(), KNOWN_ROUND_TRIPS))
+            .collect(Collectors.toList());
+    }
+
+    private <T extends Identifiable<?>> Optional<T> learned(Optional<T> loaded) {
+        loaded.ifPresent(identifiable -> known.add(identifiable.getId()));
+        return loaded;
     }
 
     private FeedEntry store(Session session, FaultEvent event) {
@@ -331,13 +375,31 @@ public class JdbcStorage implements FaultStorage, FaultFeed, FaultStats {
             updateGlobalSeq(session),
             updateFaultStrandSeq(session, event.getFaultStrandId()),
             updateFaultSeq(session, event.getFaultId()));
-        if (metrics != null) {
+        if (metrics == null) {
+            saveFeedEntry(session, entry);
+        } else {
             metrics.writeTimer(FaultEvent.class).record(() ->
                 saveFeedEntry(session, entry));
         }
         return entry;
     }
 
+    private static final int DEFAULT_KNOWN_IDS = 100_000;
+
+    /**
+     * Existence checks for the fault and its fault strand.
+     */
+    private static final int KNOWN_FAULT_ROUND_TRIPS = 2;
+
+    private static final int KNOWN_ROUND_TRIPS = 1;
+
+    /**
+     * @return Existence checks for the cause strand and its frames, the frame links, and the folds if any
+     */
+    private static int knownRoundTrips(CauseStrand causeStrand) {
+        return causeStrand.getFolds().isEmpty() ? 3 : 4;
+    }
+
     private static Session.Existence<FaultStrandId> ifExistsId(
         Session session,
         String sql,
@@ -374,7 +436,7 @@ public class JdbcStorage implements FaultStorage, FaultFeed, FaultStats {
         List<CauseStrand> causeStrands = loadCauseStrands(session, faultStrandId);
         return causeStrands.isEmpty()
             ? Optional.empty()
-            : Optional.of(FaultStrand.create(causeStrands));
+            : Optional.of(FaultStrand.create(causeStrands, Sql.loadTruncatedCauses(session, faultStrandId)));
     }
 
     private static List<Cause> loadCauses(Session session, FaultId faultId) {
@@ -407,36 +469,40 @@ public class JdbcStorage implements FaultStorage, FaultFeed, FaultStats {
         return aLong.map(OptionalLong::of).orElseGet(OptionalLong::empty);
     }
 
-    private static List<FeedEntry> loadFeedEntries(FaultId id, Session session) {
-        return session.select(
-            "select fault, fault_strand, time, global_seq, fault_strand_seq, fault_seq" +
-            " from feed_entry" +
-            " where fault = ? and time > ? order by fault_seq desc limit 1",
-            stmt -> stmt.set(id),
-            Sql::readFeedEntry);
-    }
-
-    private static Stmt forPeriod(Stmt stmt, Instant sinceTime, Duration period) {
-        return sinceTime == null ? stmt : stmt.set(sinceTime.plus(period));
+    /**
+     * @return Conditions on feed entries of the id, if any, after the since time, if any, and within the period
+     *     after it, if any
+     */
+    private static String where(Id id, Instant sinceTime, Duration period) {
+        if (id == null && sinceTime == null) {
+            return "";
+        }
+        return " where " + Stream.of(
+            id == null ? null : (id instanceof FaultId ? "fault" : "fault_strand") + " = ?",
+            sinceTime == null ? null : "time > ?",
+            sinceTime == null || period == null ? null : "time <= ?"
+        ).filter(Objects::nonNull).collect(Collectors.joining(" and "));
     }
 
-    private static Stmt sinceTime(Stmt stmt, Instant sinceTime) {
-        return sinceTime == null ? stmt : stmt.set(sinceTime);
+    private static Stmt set(Stmt stmt, Id id, Instant sinceTime, Duration period) {
+        Stmt withId = id == null ? stmt : stmt.set(id);
+        Stmt withSince = sinceTime == null ? withId : withId.set(sinceTime);
+        return sinceTime == null || period == null ? withSince : withSince.set(sinceTime.plus(period));
     }
 
     private static boolean inserted(Outcome outcome) {
         return outcome == INSERTED || outcome == INSERTED_AND_UPDATED;
     }
 
-    private static Map<CauseStrand, Outcome> storeCauseStrands(Fault fault, Session session) {
-        return fault.getCauses().stream().map(Cause::getCauseStrand).collect(Collectors.toMap(
+    private static Map<CauseStrand, Outcome> storeCauseStrands(List<CauseStrand> causeStrands, Session session) {
+        return causeStrands.stream().collect(Collectors.toMap(
             Function.identity(),
             causeStrand ->
                 storeCauseStrand(session, causeStrand)));
     }
 
-    private static Map<Cause, Outcome> storeCauses(Fault fault, Session session) {
-        return fault.getCauses().stream().collect(Collectors.toMap(
+    private static Map<Cause, Outcome> storeCauses(List<Cause> causes, Session session) {
+        return causes.stream().collect(Collectors.toMap(
             Function.identity(),
             cause ->
                 storeCause(session, cause)));
@@ -489,7 +555,7 @@ public class JdbcStorage implements FaultStorage, FaultFeed, FaultStats {
     }
 
     private static Outcome storeCauseFrames(Session session, CauseStrand causeStrand) {
-        List<CauseFrame> causeFrames = causeStrand.getCauseFrames();
+        List<CauseFrame> causeFrames = causeStrand.getFoldedFrames();
         if (causeFrames.isEmpty()) {
             return NOOP;
         }
@@ -538,9 +604,10 @@ public class JdbcStorage implements FaultStorage, FaultFeed, FaultStats {
         return ifExistsId(session, "select id from fault_strand where id = ?", faultStrand, FaultStrandId::new)
             .onInsert(() ->
                 session.effect(
-                    "insert into fault_strand (id) values (?)",
+                    "insert into fault_strand (id, truncated_causes) values (?, ?)",
                     stmt ->
                         Setter.faultStrand(stmt, faultStrand)
+                            .set(faultStrand.getTruncatedCauses())
                 )).go();
     }
 
@@ -0,0 +1,69 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.storage;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import unearth.munch.id.Id;
+import unearth.util.LruCache;
+
+/**
+ * Ids of content-addressed rows known to be written, which never change once they are.
+ */
+final class KnownIds {
+
+    private final LruCache<Id, Boolean> ids;
+
+    private final LongAdder savedRoundTrips = new LongAdder();
+
+    KnownIds(int size) {
+        this.ids = LruCache.create(size);
+    }
+
+    boolean isKnown(Id id) {
+        return ids.get(id) != null;
+    }
+
+    /**
+     * @return True if the id is known, counting the round trips saved
+     */
+    boolean isKnown(Id id, int roundTrips) {
+        if (isKnown(id)) {
+            savedRoundTrips.add(roundTrips);
+            return true;
+        }
+        return false;
+    }
+
+    void add(Id id) {
+        ids.put(id, Boolean.TRUE);
+    }
+
+    void clear() {
+        ids.clear();
+    }
+
+    long getSavedRoundTrips() {
+        return savedRoundTrips.sum();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + ids + " saved:" + savedRoundTrips + "]";
+    }
+}
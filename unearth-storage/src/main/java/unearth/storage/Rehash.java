@@ -0,0 +1,159 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.storage;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import unearth.hashable.HashStrategies;
+import unearth.jdbc.Metrics;
+import unearth.munch.id.FaultId;
+import unearth.munch.model.CaptureBudget;
+import unearth.munch.model.Fault;
+import unearth.munch.model.FeedEntry;
+
+/**
+ * Migrates a schema to the {@link HashStrategies#current() current hash strategy}.
+ * <p>
+ * Stored ids are content hashes, so they change with the strategy.  This replays the global feed of the source
+ * schema into an empty target schema, in order and with the original times.  Entities are looked up by their stored
+ * ids, and stored again under the ids they hash to now.
+ * <p>
+ * The {@link CaptureBudget#defaults() default capture budget} depends on the strategy, and truncation is part of the
+ * ids.  A stored fault that was captured whole is therefore captured again under the current default budget, so it
+ * gets the ids a live capture would.  One that was already truncated is stored as it is.
+ */
+public final class Rehash implements Supplier<Long> {
+
+    private static final Logger log = LoggerFactory.getLogger(Rehash.class);
+
+    private final JdbcStorage source;
+
+    private final JdbcStorage target;
+
+    private final ReplayClock clock = new ReplayClock();
+
+    private final int pageSize;
+
+    private final Map<FaultId, Fault> faults = new LinkedHashMap<>(16, .75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FaultId, Fault> eldest) {
+            return size() > FAULT_CACHE_SIZE;
+        }
+    };
+
+    public Rehash(DataSource dataSource, String sourceSchema, String targetSchema, Metrics metrics) {
+        this(dataSource, sourceSchema, dataSource, targetSchema, metrics, DEFAULT_PAGE_SIZE);
+    }
+
+    public Rehash(
+        DataSource sourceDataSource,
+        String sourceSchema,
+        DataSource targetDataSource,
+        String targetSchema,
+        Metrics metrics,
+        int pageSize
+    ) {
+        this.source = new JdbcStorage(sourceDataSource, sourceSchema, Clock.systemUTC(), metrics);
+        this.target = new JdbcStorage(targetDataSource, targetSchema, clock, metrics);
+        if (Objects.equals(sourceDataSource, targetDataSource) && Objects.equals(sourceSchema, targetSchema)) {
+            throw new IllegalArgumentException("Cannot rehash in place: " + sourceSchema);
+        }
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Invalid page size: " + pageSize);
+        }
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @return Number of feed entries migrated
+     */
+    @Override
+    public Long get() {
+        target.initStorage().run();
+        if (target.limit().isPresent()) {
+            throw new IllegalStateException("Target is not empty: " + target.limit().getAsLong() + " entries");
+        }
+        log.info("Rehashing with {}", HashStrategies.current().getName());
+        long offset = 0L;
+        while (true) {
+            List<FeedEntry> page = source.feed(offset, pageSize);
+            if (page.isEmpty()) {
+                log.info("Rehashed {} entries", offset);
+                return offset;
+            }
+            for (FeedEntry entry: page) {
+                clock.set(entry.getFaultEvent().getTime());
+                target.store(null, fault(entry.getFaultEvent().getFaultId()), null);
+            }
+            offset = page.get(page.size() - 1).getGlobalSequenceNo();
+            log.debug("Rehashed {} entries", offset);
+        }
+    }
+
+    private Fault fault(FaultId storedId) {
+        return faults.computeIfAbsent(storedId, id -> recaptured(source.getRequiredFault(id)));
+    }
+
+    private static Fault recaptured(Fault fault) {
+        return truncated(fault) ? fault : Fault.recapture(fault, CaptureBudget.defaults());
+    }
+
+    private static boolean truncated(Fault fault) {
+        return fault.getFaultStrand().getTruncatedCauses() > 0 ||
+               fault.getCauses().stream().anyMatch(cause -> cause.getCauseStrand().getTruncatedFrames() > 0);
+    }
+
+    private static final int DEFAULT_PAGE_SIZE = 1000;
+
+    private static final int FAULT_CACHE_SIZE = 10_000;
+
+    private static final class ReplayClock extends Clock {
+
+        private Instant instant = Instant.EPOCH;
+
+        void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException(String.valueOf(zone));
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
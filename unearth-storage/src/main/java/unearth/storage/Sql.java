@@ -19,12 +19,14 @@ package unearth.storage;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import unearth.jdbc.Session;
+import unearth.jdbc.Stmt;
 import unearth.munch.id.CauseId;
 import unearth.munch.id.CauseStrandId;
 import unearth.munch.id.FaultId;
@@ -37,7 +39,9 @@ import unearth.munch.model.Fault;
 import unearth.munch.model.FaultEvent;
 import unearth.munch.model.FaultStrand;
 import unearth.munch.model.FeedEntry;
+import unearth.munch.model.Fold;
 import unearth.munch.print.CauseFrame;
+import unearth.munch.print.FramePool;
 
 final class Sql {
 
@@ -63,11 +67,33 @@ final class Sql {
 
     static Optional<CauseStrand> loadCauseStrand(Session session, CauseStrandId causeStrandId) {
         return session.selectOne(
-            "select (class_name) from cause_strand where id = ?",
+            "select class_name, truncated_frames from cause_strand where id = ?",
             stmt -> stmt.set(causeStrandId),
-            Session.Res::getString
-        ).map(className ->
-            CauseStrand.create(className, loadCauseFrames(session, causeStrandId)));
+            res ->
+                Map.entry(res.getString(), res.getInt())
+        ).map(classNameAndTruncated ->
+            CauseStrand.create(
+                classNameAndTruncated.getKey(),
+                loadCauseFrames(session, causeStrandId),
+                loadFolds(session, causeStrandId),
+                classNameAndTruncated.getValue())
+        ).map(causeStrand ->
+            loadEnclosing(session, causeStrandId)
+                .map(enclosingAndShared ->
+                    causeStrand.enclosedBy(
+                        loadCauseStrand(session, enclosingAndShared.getKey()).orElseThrow(() ->
+                            new IllegalStateException(
+                                "No enclosing cause strand " + enclosingAndShared.getKey() + " for " + causeStrandId)),
+                        enclosingAndShared.getValue()))
+                .orElse(causeStrand));
+    }
+
+    static int loadTruncatedCauses(Session session, FaultStrandId faultStrandId) {
+        return session.selectOne(
+            "select truncated_causes from fault_strand where id = ?",
+            stmt -> stmt.set(faultStrandId),
+            Session.Res::getInt
+        ).orElse(0);
     }
 
     static Optional<CauseStrandId> loadCauseStrandId(Session session, CauseId causeId) {
@@ -109,9 +135,16 @@ final class Sql {
             "select id from cause_strand where id = ?", stmt -> stmt.set(causeStrand), getId()
         ).onInsert(() ->
             session.effect(
-                "insert into cause_strand (id, class_name) values (?, ?)",
+                "insert into cause_strand (" +
+                "  id, class_name, truncated_frames, enclosing, shared_frames" +
+                ") values (" +
+                "  ?, ?, ?, ?, ?" +
+                ")",
                 stmt -> Setter.causeStrand(stmt, causeStrand)
-                    .set(causeStrand.getClassName()))
+                    .set(causeStrand.getClassName())
+                    .set(causeStrand.getTruncatedFrames())
+                    .set(causeStrand.getEnclosing().map(CauseStrand::getHash).orElse(null))
+                    .set(causeStrand.getSharedFrames()))
         ).go();
     }
 
@@ -121,10 +154,11 @@ final class Sql {
 
     static List<FeedEntry> loadFeedEntries(Session session, FaultStrandId id, Instant sinceTime) {
         return session.select(
-            "select (fault, fault_strand, time, global_seq, fault_strand_seq, fault_seq) from feed_entry" +
-            " where fault_strand = ? and time >= ? order by fault_seq desc limit 1",
-            stmt -> stmt.set(id)
-                .set(sinceTime),
+            "select fault, fault_strand, time, global_seq, fault_strand_seq, fault_seq from feed_entry" +
+            " where fault_strand = ?" +
+            (sinceTime == null ? "" : " and time >= ?") +
+            " order by fault_strand_seq desc limit 1",
+            stmt -> sinceTime == null ? stmt.set(id) : stmt.set(id).set(sinceTime),
             Sql::readFeedEntry
         );
     }
@@ -158,11 +192,16 @@ final class Sql {
 
     static List<FeedEntry> loadFeedEntries(Session session, FaultId id, Instant sinceTime, Long ceiling) {
         return session.select(
-            "select (fault, fault_strand, time, global_seq, fault_strand_seq, fault_seq) from feed_entry" +
-            " where fault = ? and time >= ? and fault_seq <= ? order by fault_seq desc limit 1",
-            stmt -> stmt.set(id)
-                .set(sinceTime)
-                .set(ceiling),
+            "select fault, fault_strand, time, global_seq, fault_strand_seq, fault_seq from feed_entry" +
+            " where fault = ?" +
+            (sinceTime == null ? "" : " and time >= ?") +
+            (ceiling == null ? "" : " and fault_seq <= ?") +
+            " order by fault_seq desc limit 1",
+            stmt -> {
+                Stmt withId = stmt.set(id);
+                Stmt withSince = sinceTime == null ? withId : withId.set(sinceTime);
+                return ceiling == null ? withSince : withSince.set(ceiling);
+            },
             Sql::readFeedEntry
         );
     }
@@ -224,16 +263,56 @@ final class Sql {
     static void linkCauseStrandToCauseFrames(Session session, CauseStrand causeStrand) {
         session.effectBatch(
             "insert into cause_strand_2_cause_frame (cause_strand, seq, cause_frame) values (?, ?, ?)",
-            indexed(causeStrand.getCauseFrames()),
+            indexed(causeStrand.getFoldedFrames()),
             (stmt, item) ->
                 Setter.list(stmt, causeStrand)
                     .set(item.getIndex())
                     .set(item.getT()));
     }
 
+    static void storeFolds(Session session, CauseStrand causeStrand) {
+        if (causeStrand.getFolds().isEmpty()) {
+            return;
+        }
+        session.effectBatch(
+            "insert into cause_strand_fold (" +
+            "  cause_strand, seq, frame_start, frame_count, repeats" +
+            ") values (" +
+            "  ?, ?, ?, ?, ?" +
+            ")",
+            indexed(causeStrand.getFolds()),
+            (stmt, item) ->
+                stmt.set(causeStrand)
+                    .set(item.getIndex())
+                    .set(item.getT().getStart())
+                    .set(item.getT().getLength())
+                    .set(item.getT().getRepeats()));
+    }
+
     private Sql() {
     }
 
+    private static Optional<Map.Entry<CauseStrandId, Integer>> loadEnclosing(
+        Session session,
+        CauseStrandId causeStrandId
+    ) {
+        return session.selectOne(
+            "select enclosing, shared_frames from cause_strand where id = ? and enclosing is not null",
+            stmt -> stmt.set(causeStrandId),
+            res ->
+                Map.entry(new CauseStrandId(res.getUUID()), res.getInt()));
+    }
+
+    private static List<Fold> loadFolds(Session session, CauseStrandId causeStrandId) {
+        return session.select(
+            "select frame_start, frame_count, repeats from cause_strand_fold" +
+            " where cause_strand = ?" +
+            " order by seq asc",
+            stmt -> stmt.set(causeStrandId),
+            res ->
+                Fold.create(res.getInt(), res.getInt(), res.getInt()));
+    }
+
     private static List<CauseFrame> loadCauseFrames(Session session, CauseStrandId causeStrandId) {
         return session.select(
             "select " +
@@ -246,13 +325,13 @@ final class Sql {
             "  cs2cf.seq asc",
             stmt -> stmt.set(causeStrandId),
             res ->
-                new CauseFrame(
-                    CauseFrame.classLoader(res.getString()),
-                    CauseFrame.module(res.getString()),
-                    CauseFrame.moduleVer(res.getString()),
-                    CauseFrame.className(res.getString()),
-                    CauseFrame.method(res.getString()),
-                    CauseFrame.file(res.getString()),
+                FramePool.shared().frame(
+                    res.getString(),
+                    res.getString(),
+                    res.getString(),
+                    res.getString(),
+                    res.getString(),
+                    res.getString(),
                     res.getInt(),
                     res.getBoolean()));
     }
@@ -0,0 +1,71 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.storage;
+
+import java.util.UUID;
+
+import org.junit.Test;
+import unearth.munch.id.FaultId;
+import unearth.munch.id.FaultStrandId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class KnownIdsTest {
+
+    @Test
+    public void countsSavedRoundTrips() {
+        KnownIds known = new KnownIds(10);
+        FaultId faultId = new FaultId(UUID.randomUUID());
+
+        assertThat(known.isKnown(faultId, 2)).isFalse();
+        assertThat(known.getSavedRoundTrips()).isZero();
+
+        known.add(faultId);
+        assertThat(known.isKnown(faultId, 2)).isTrue();
+        assertThat(known.isKnown(faultId, 2)).isTrue();
+        assertThat(known.isKnown(new FaultStrandId(UUID.randomUUID()), 1)).isFalse();
+        assertThat(known.getSavedRoundTrips()).isEqualTo(4L);
+    }
+
+    @Test
+    public void forgetsLeastRecentlyUsed() {
+        KnownIds known = new KnownIds(2);
+        FaultId first = new FaultId(UUID.randomUUID());
+        FaultId second = new FaultId(UUID.randomUUID());
+        FaultId third = new FaultId(UUID.randomUUID());
+
+        known.add(first);
+        known.add(second);
+        assertThat(known.isKnown(first)).isTrue();
+        known.add(third);
+
+        assertThat(known.isKnown(first)).isTrue();
+        assertThat(known.isKnown(second)).isFalse();
+        assertThat(known.isKnown(third)).isTrue();
+    }
+
+    @Test
+    public void clears() {
+        KnownIds known = new KnownIds(10);
+        FaultId faultId = new FaultId(UUID.randomUUID());
+        known.add(faultId);
+        known.clear();
+
+        assertThat(known.isKnown(faultId, 2)).isFalse();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.storage;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import unearth.memory.MemoryStorage;
+import unearth.munch.model.Fault;
+import unearth.munch.model.FeedEntry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MemoryStorageTest extends StorageContract {
+
+    @Override
+    protected MemoryStorage storage(Clock clock) {
+        return new MemoryStorage(clock);
+    }
+
+    @Test
+    public void retainsCount() {
+        MemoryStorage storage = new MemoryStorage(Clock.systemUTC(), 2000, null);
+        Fault fault = fault("testdata/exception3.txt");
+        List<FeedEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            entries.add(storage.store(null, fault, null));
+        }
+        List<FeedEntry> feed = storage.feed(0, 10_000);
+        assertThat(feed.size()).isBetween(2000, 3024);
+        assertThat(feed.get(feed.size() - 1)).isEqualTo(entries.get(4999));
+        assertThat(storage.feed(fault.getId(), 0, 10_000)).hasSameSizeAs(feed);
+        assertThat(storage.getFeedEntry(entries.get(0).getId())).isEmpty();
+        assertThat(storage.getFeedEntry(entries.get(4999).getId())).hasValue(entries.get(4999));
+        assertThat(storage.limit()).hasValue(5000L);
+        assertThat(storage.getFault(fault.getId())).hasValue(fault);
+    }
+
+    @Test
+    public void retainsAge() {
+        Fault fault = fault("testdata/exception3.txt");
+        MemoryStorage storage = new MemoryStorage(newAtomicClock(), Long.MAX_VALUE, Duration.ofHours(1));
+        for (int i = 0; i < 4096; i++) {
+            atomicClock.getAndAdd(Duration.ofSeconds(10).toMillis());
+            storage.store(null, fault, null);
+        }
+        assertThat(storage.getFeed(fault).size()).isBetween(360, 1024 + 360);
+        assertThat(storage.getLastFeedEntry(fault.getId())).hasValueSatisfying(entry ->
+            assertThat(entry.getFaultSequenceNo()).isEqualTo(4096L));
+    }
+
+    @Test
+    public void retainsAgeOnReads() {
+        Fault fault = fault("testdata/exception3.txt");
+        MemoryStorage storage = new MemoryStorage(newAtomicClock(), Long.MAX_VALUE, Duration.ofHours(1));
+        for (int i = 0; i < 10; i++) {
+            atomicClock.getAndAdd(Duration.ofMinutes(1).toMillis());
+            storage.store(null, fault, null);
+        }
+        atomicClock.getAndAdd(Duration.ofMinutes(54).toMillis());
+        assertThat(storage.getFeed(fault)).hasSize(6);
+        atomicClock.getAndAdd(Duration.ofMinutes(10).toMillis());
+        assertThat(storage.getFeed(fault)).isEmpty();
+        assertThat(storage.getFeedEntryCount(fault.getId(), null, null)).isZero();
+        assertThat(storage.getLastFeedEntry(fault.getId())).isEmpty();
+        assertThat(storage.limit()).hasValue(10L);
+    }
+
+    @Test
+    public void storesConcurrently() throws Exception {
+        Fault fault1 = fault("testdata/exception3.txt");
+        Fault fault2 = fault("testdata/exception3a.txt");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Fault fault = t % 2 == 0 ? fault1 : fault2;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 25_000; i++) {
+                        storage.store(null, fault, null);
+                    }
+                }));
+            }
+            for (Future<?> future: futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(feed.limit()).hasValue(100_000L);
+        assertThat(feed.limit(fault1.getId())).hasValue(50_000L);
+        assertThat(feed.limit(fault1.getFaultStrand().getId())).hasValue(100_000L);
+        assertThat(feed.feed(0, 200_000)).hasSize(100_000);
+        assertThat(feed.feed(fault2.getId(), 0, 200_000)).hasSize(50_000);
+
+        List<FeedEntry> global = feed.feed(0, 200_000);
+        for (int i = 0; i < global.size(); i++) {
+            assertThat(global.get(i).getGlobalSequenceNo()).isEqualTo(i + 1L);
+        }
+        assertInGlobalOrder(feed.feed(fault1.getId(), 0, 200_000));
+        assertInGlobalOrder(feed.feed(fault1.getFaultStrand().getId(), 0, 200_000));
+    }
+
+    private static void assertInGlobalOrder(List<FeedEntry> entries) {
+        for (int i = 1; i < entries.size(); i++) {
+            assertThat(entries.get(i).getGlobalSequenceNo()).isGreaterThan(entries.get(i - 1).getGlobalSequenceNo());
+        }
+    }
+}
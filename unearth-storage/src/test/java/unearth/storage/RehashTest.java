@@ -0,0 +1,152 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package unearth.storage;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Test;
+import unearth.hashable.HashStrategies;
+import unearth.hashable.HashStrategy;
+import unearth.memory.Db;
+import unearth.munch.model.Fault;
+import unearth.munch.model.FaultEvent;
+import unearth.munch.model.FeedEntry;
+import unearth.munch.parser.ThrowableParser;
+import unearth.util.IO;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RehashTest {
+
+    private final HashStrategy original = HashStrategies.current();
+
+    private final AtomicLong millis = new AtomicLong(1_600_000_000_000L);
+
+    @After
+    public void restore() {
+        HashStrategies.use(original);
+    }
+
+    @Test
+    public void rehashesFeedInOrder() {
+        DataSource dataSource = Db.memory();
+        HashStrategies.use(HashStrategies.md5());
+        JdbcStorage source = new JdbcStorage(dataSource, "unearth", clock(), null);
+        source.initStorage().run();
+        List<FeedEntry> stored = new ArrayList<>();
+        for (String reference: REFERENCES) {
+            millis.addAndGet(1_000L);
+            stored.add(source.store(null, fault(reference), null));
+        }
+
+        HashStrategies.use(HashStrategies.murmur3());
+        assertThat(new Rehash(dataSource, "unearth", "rehashed", null).get()).isEqualTo(3L);
+
+        JdbcStorage target = new JdbcStorage(dataSource, "rehashed", Clock.systemUTC(), null);
+        List<FeedEntry> rehashed = target.feed(0L, 10L);
+        assertThat(rehashed).hasSize(REFERENCES.length);
+        for (int i = 0; i < REFERENCES.length; i++) {
+            Fault fault = fault(REFERENCES[i]);
+            FaultEvent before = stored.get(i).getFaultEvent();
+            FaultEvent after = rehashed.get(i).getFaultEvent();
+
+            assertThat(rehashed.get(i).getGlobalSequenceNo()).isEqualTo(i + 1L);
+            assertThat(after.getTime()).isEqualTo(before.getTime());
+            assertThat(after.getFaultId()).isEqualTo(fault.getId()).isNotEqualTo(before.getFaultId());
+            assertThat(after.getFaultStrandId())
+                .isEqualTo(fault.getFaultStrand().getId())
+                .isNotEqualTo(before.getFaultStrandId());
+            assertThat(target.getFault(fault.getId())).hasValue(fault);
+        }
+        assertThat(rehashed.get(2).getFaultSequenceNo()).isEqualTo(2L);
+        assertThat(rehashed.get(2).getFaultStrandSequenceNo()).isEqualTo(3L);
+    }
+
+    @Test
+    public void recapturesWholeFaults() {
+        DataSource dataSource = Db.memory();
+        Throwable throwable = new IllegalStateException("wrapped", distinctFrames(1200));
+        throwable.setStackTrace(new StackTraceElement[] {
+            new StackTraceElement("app.Controller", "handle", "Controller.java", 42)
+        });
+        HashStrategies.use(HashStrategies.md5());
+        JdbcStorage source = new JdbcStorage(dataSource, "unearth", clock(), null);
+        source.initStorage().run();
+        source.store(null, Fault.create(throwable), null);
+
+        HashStrategies.use(HashStrategies.murmur3());
+        new Rehash(dataSource, "unearth", "rehashed", null).get();
+
+        Fault live = Fault.create(throwable);
+        assertThat(live.getCauses().get(0).getCauseStrand().getTruncatedFrames()).isPositive();
+        FaultEvent rehashed = new JdbcStorage(dataSource, "rehashed", Clock.systemUTC(), null)
+            .feed(0L, 10L).get(0).getFaultEvent();
+        assertThat(rehashed.getFaultId()).isEqualTo(live.getId());
+        assertThat(rehashed.getFaultStrandId()).isEqualTo(live.getFaultStrand().getId());
+    }
+
+    private static final String[] REFERENCES = {
+        "testdata/exception3.txt",
+        "testdata/exception3a.txt",
+        "testdata/exception3.txt"
+    };
+
+    private Clock clock() {
+        return new Clock() {
+
+            @Override
+            public ZoneId getZone() {
+                return ZoneId.of("UTC");
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                throw new UnsupportedOperationException(String.valueOf(zone));
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(millis.get());
+            }
+        };
+    }
+
+    /**
+     * A stack too varied to fold, and longer than the bounded budget.
+     */
+    private static Throwable distinctFrames(int count) {
+        Throwable throwable = new IllegalArgumentException("bottom");
+        throwable.setStackTrace(IntStream.range(0, count)
+            .mapToObj(i -> new StackTraceElement("app.Service" + i, "work", "Service" + i + ".java", i + 1))
+            .toArray(StackTraceElement[]::new));
+        return throwable;
+    }
+
+    private static Fault fault(String reference) {
+        return Fault.create(ThrowableParser.parse(IO.readPath(reference)));
+    }
+}
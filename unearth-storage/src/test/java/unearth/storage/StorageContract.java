@@ -0,0 +1,313 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.storage;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import unearth.core.FaultFeed;
+import unearth.core.FaultStats;
+import unearth.core.FaultStorage;
+import unearth.munch.id.FaultId;
+import unearth.munch.id.FaultStrandId;
+import unearth.munch.model.CaptureBudget;
+import unearth.munch.model.Fault;
+import unearth.munch.model.FeedEntry;
+import unearth.munch.parser.ThrowableParser;
+import unearth.util.IO;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Behaviour expected of every storage, which subclasses provide.
+ */
+public abstract class StorageContract {
+
+    protected FaultStorage storage;
+
+    protected FaultFeed feed;
+
+    protected FaultStats stats;
+
+    protected AtomicLong atomicClock;
+
+    @Before
+    public void setup() {
+        storage = storage(newAtomicClock());
+        feed = (FaultFeed) storage;
+        stats = (FaultStats) storage;
+        storage.initStorage().run();
+    }
+
+    /**
+     * @return A storage, which is also the feed and the stats
+     */
+    protected abstract FaultStorage storage(Clock clock);
+
+    @Test
+    public void smoke() {
+        assertThat(feed.limit()).isEmpty();
+    }
+
+    @Test
+    public void emptyLimits() {
+        assertThat(feed.limit()).isEmpty();
+        assertThat(feed.limit(new FaultId(UUID.randomUUID()))).isEmpty();
+        assertThat(feed.limit(new FaultStrandId(UUID.randomUUID()))).isEmpty();
+    }
+
+    @Test
+    public void storeTwiceAndRetrieve() {
+        Fault fault = fault("testdata/exception3.txt");
+        FeedEntry event1 = storage.store(null, fault, null);
+        assertThat(event1.getGlobalSequenceNo()).isEqualTo(1L);
+        assertThat(event1.getFaultSequenceNo()).isEqualTo(1L);
+        assertThat(event1.getFaultSequenceNo()).isEqualTo(1L);
+        assertStored(fault);
+
+        FeedEntry event2 = storage.store(null, fault, null);
+        assertThat(event2.getGlobalSequenceNo()).isEqualTo(2L);
+        assertThat(event2.getFaultSequenceNo()).isEqualTo(2L);
+        assertThat(event2.getFaultStrandSequenceNo()).isEqualTo(2L);
+        assertStored(fault);
+
+        List<FeedEntry> feed = this.feed.feed(0, 10);
+        assertThat(feed.size()).isEqualTo(2);
+
+        assertThat(storage.getFault(fault.getId())).hasValue(fault);
+    }
+
+    @Test
+    public void storeVariantAndRetrieve() {
+        Fault fault1 = fault("testdata/exception3.txt");
+        Fault fault2 = fault("testdata/exception3a.txt");
+
+        FeedEntry event1 = storage.store(null, fault1, null);
+        assertThat(event1.getGlobalSequenceNo()).isEqualTo(1L);
+        assertThat(event1.getFaultSequenceNo()).isEqualTo(1L);
+        assertThat(event1.getFaultSequenceNo()).isEqualTo(1L);
+        assertStored(fault1);
+
+        FeedEntry event2 = storage.store(null, fault2, null);
+        assertThat(event2.getGlobalSequenceNo()).isEqualTo(2L);
+        assertThat(event2.getFaultSequenceNo()).isEqualTo(1L);
+        assertThat(event2.getFaultStrandSequenceNo()).isEqualTo(2L);
+        assertStored(fault2);
+
+        List<FeedEntry> feed = this.feed.feed(0, 10);
+        assertThat(feed.size()).isEqualTo(2);
+
+        assertThat(storage.getFault(fault1.getId())).hasValue(fault1);
+        assertThat(storage.getFault(fault2.getId())).hasValue(fault2);
+    }
+
+    @Test
+    public void storeAndRetrieve() {
+        Fault fault = fault("testdata/exception3.txt");
+        FeedEntry event = storage.store(null, fault, null);
+
+        assertThat(storage.getFeedEntry(event.getId())).hasValueSatisfying(feedEntry ->
+            assertThat(feedEntry.getId()).isEqualTo(event.getId()));
+
+        assertThat(storage.getFault(event.getFaultEvent().getFaultId())).isPresent();
+        assertThat(storage.getFaultStrand(event.getFaultEvent().getFaultStrandId())).isPresent();
+
+        assertThat(feed.limit()).hasValue(1L);
+
+        List<FeedEntry> feedEntries = this.feed.feed(0, 10);
+        assertThat(feedEntries.size()).isEqualTo(1);
+
+        assertStored(fault);
+
+        assertThat(this.feed.limit()).hasValue(1L);
+        assertThat(this.feed.limit(fault.getId())).hasValue(1L);
+        assertThat(this.feed.limit(fault.getFaultStrand().getId())).hasValue(1L);
+    }
+
+    @Test
+    public void storeAndRetrieveFeed() {
+        Fault fault1 = fault("testdata/exception3.txt");
+        Fault fault2 = fault("testdata/exception3a.txt");
+
+        for (int i = 0; i < 100; i++) {
+            atomicClock.getAndAdd(Duration.ofDays(1).toMillis());
+            storage.store(null, fault1, null);
+        }
+        for (int i = 0; i < 100; i++) {
+            atomicClock.getAndAdd(Duration.ofDays(1).toMillis());
+            storage.store(null, fault2, null);
+        }
+
+        assertThat(this.feed.feed(fault1.getId(), 10, 10)).hasSize(10);
+        assertThat(this.feed.feed(fault1.getFaultStrand().getId(), 10, 10)).hasSize(10);
+
+        assertThat(this.stats.getFeed(fault1)).hasSize(100);
+        assertThat(this.stats.getFeed(fault2)).hasSize(100);
+
+        assertThat(fault1.getFaultStrand()).isEqualTo(fault2.getFaultStrand());
+        assertThat(this.stats.getFeed(fault1.getFaultStrand())).hasSize(200);
+
+        assertThat(this.stats.getFeed()).hasSize(200);
+    }
+
+    @Test
+    public void feedByIdFromOffset() {
+        Fault fault1 = fault("testdata/exception3.txt");
+        Fault fault2 = fault("testdata/exception3a.txt");
+
+        storage.store(null, fault1, null);
+        storage.store(null, fault2, null);
+        FeedEntry third = storage.store(null, fault1, null);
+
+        assertThat(feed.feed(fault1.getId(), 1, 10)).containsExactly(third);
+        assertThat(feed.feed(fault2.getId(), 2, 10)).isEmpty();
+        assertThat(feed.feed(fault1.getFaultStrand().getId(), 0, 2)).hasSize(2);
+        assertThat(feed.feed(1, 10)).hasSize(2);
+        assertThat(feed.feed(0, 0)).isEmpty();
+
+        assertThat(feed.limit(fault1.getId())).hasValue(2L);
+        assertThat(feed.limit(fault2.getId())).hasValue(1L);
+        assertThat(feed.limit(fault1.getFaultStrand().getId())).hasValue(3L);
+    }
+
+    @Test
+    public void lastFeedEntry() {
+        Fault fault = fault("testdata/exception3.txt");
+
+        FeedEntry first = storage.store(null, fault, null);
+        atomicClock.getAndAdd(Duration.ofDays(1).toMillis());
+        FeedEntry second = storage.store(null, fault, null);
+
+        assertThat(stats.getLastFeedEntry(fault.getId())).hasValue(second);
+        assertThat(stats.getLastFeedEntry(fault.getFaultStrand().getId())).hasValue(second);
+        assertThat(stats.getLastFeedEntry(fault.getId(), null, 1L)).hasValue(first);
+        assertThat(stats.getLastFeedEntry(fault.getId(), second.getFaultEvent().getTime().plusMillis(1))).isEmpty();
+        assertThat(stats.getLastFeedEntry(new FaultId(UUID.randomUUID()))).isEmpty();
+    }
+
+    @Test
+    public void countInPeriod() {
+        Fault fault = fault("testdata/exception3.txt");
+
+        FeedEntry first = storage.store(null, fault, null);
+        for (int i = 0; i < 9; i++) {
+            atomicClock.getAndAdd(Duration.ofDays(1).toMillis());
+            storage.store(null, fault, null);
+        }
+        Instant start = first.getFaultEvent().getTime();
+
+        assertThat(stats.getFeedEntryCount(fault.getFaultStrand().getId())).isEqualTo(10L);
+        assertThat(stats.getFeedEntryCount(start, null)).isEqualTo(9L);
+        assertThat(stats.getFeedEntryCount(fault.getId(), start, Duration.ofDays(3).plusHours(1))).isEqualTo(3L);
+        assertThat(stats.getFeed(fault, start, Duration.ofDays(3).plusHours(1))).hasSize(3);
+    }
+
+    @Test
+    public void storeFolded() {
+        Fault fault = Fault.create(recursive(100));
+        storage.store(null, fault, null);
+
+        assertStored(fault);
+        assertThat(storage.getCauseStrand(fault.getCauses().get(0).getCauseStrand().getId()))
+            .hasValueSatisfying(causeStrand -> assertThat(causeStrand.getFolds()).isNotEmpty());
+    }
+
+    @Test
+    public void storeShared() {
+        Fault fault = fault("testdata/exception3.txt");
+        storage.store(null, fault, null);
+
+        assertStored(fault);
+        assertThat(fault.getFaultStrand().getCauseStrands())
+            .anySatisfy(causeStrand -> assertThat(causeStrand.getSharedFrames()).isPositive());
+        fault.getFaultStrand().getCauseStrands().forEach(causeStrand ->
+            assertThat(storage.getCauseStrand(causeStrand.getId())).hasValueSatisfying(stored ->
+                assertThat(stored.getSharedFrames()).isEqualTo(causeStrand.getSharedFrames())));
+    }
+
+    @Test
+    public void storeTruncated() {
+        Fault fault = Fault.create(
+            new IllegalStateException("outer", new IllegalArgumentException("middle", recursive(100))),
+            CaptureBudget.create(5, 2, 0));
+        storage.store(null, fault, null);
+
+        assertStored(fault);
+        assertThat(storage.getFaultStrand(fault.getFaultStrand().getId())).hasValueSatisfying(faultStrand ->
+            assertThat(faultStrand.getTruncatedCauses()).isEqualTo(1));
+        assertThat(fault.getFaultStrand().getCauseStrands())
+            .allSatisfy(causeStrand -> assertThat(causeStrand.getTruncatedFrames()).isPositive());
+    }
+
+    @After
+    public void teardown() {
+        storage.close();
+    }
+
+    protected Clock newAtomicClock() {
+        atomicClock = new AtomicLong();
+        return new Clock() {
+
+            @Override
+            public ZoneId getZone() {
+                return ZoneId.systemDefault();
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                throw new UnsupportedOperationException(String.valueOf(zone));
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(atomicClock.getAndIncrement());
+            }
+        };
+    }
+
+    protected void assertStored(Fault fault) {
+        assertThat(storage.getFault(fault.getId())).hasValue(fault);
+        assertThat(storage.getFaultStrand(fault.getFaultStrand().getId())).hasValue(fault.getFaultStrand());
+        fault.getFaultStrand().getCauseStrands().forEach(causeStrand ->
+            assertThat(storage.getCauseStrand(causeStrand.getId())).hasValueSatisfying(stored -> {
+                assertThat(stored).isEqualTo(causeStrand);
+                assertThat(stored.getCauseFrames()).isEqualTo(causeStrand.getCauseFrames());
+                assertThat(stored.getTruncatedFrames()).isEqualTo(causeStrand.getTruncatedFrames());
+            }));
+        fault.getCauses().forEach(cause ->
+            assertThat(storage.getCause(cause.getId())).hasValue(cause));
+    }
+
+    protected static Throwable recursive(int depth) {
+        return depth == 0 ? new IllegalStateException("bottom") : recursive(depth - 1);
+    }
+
+    protected static Fault fault(String reference) {
+        String data = IO.readPath(reference);
+        Throwable parse = ThrowableParser.parse(data);
+        return Fault.create(parse);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A bounded, thread-safe cache which evicts the least recently used entries.  Entries are spread over a number of
+ * stripes, each an access-ordered map guarded by its own lock.
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public final class LruCache<K, V> {
+
+    public static <K, V> LruCache<K, V> create(int size) {
+        return new LruCache<>(size);
+    }
+
+    private final Stripe<K, V>[] stripes;
+
+    private final int size;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    private LruCache(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Invalid size: " + size);
+        }
+        this.size = size;
+        int stripeCount = Math.max(1, Math.min(MAX_STRIPES, Integer.highestOneBit(size / MIN_STRIPE_SIZE)));
+        this.stripes = (Stripe<K, V>[]) new Stripe<?, ?>[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(Math.max(1, size / stripeCount));
+        }
+    }
+
+    /**
+     * @param key Key
+     * @return Cached value, or null
+     */
+    public V get(K key) {
+        Stripe<K, V> stripe = stripe(key);
+        V value;
+        synchronized (stripe) {
+            value = stripe.get(key);
+        }
+        (value == null ? misses : hits).increment();
+        return value;
+    }
+
+    public void put(K key, V value) {
+        Stripe<K, V> stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.put(key, value);
+        }
+    }
+
+    /**
+     * Computes missing values outside the lock, so concurrent misses on the same key may compute more than once.
+     * The first value to be stored wins.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> compute) {
+        V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        V computed = compute.apply(key);
+        if (computed == null) {
+            return null;
+        }
+        Stripe<K, V> stripe = stripe(key);
+        synchronized (stripe) {
+            V existing = stripe.putIfAbsent(key, computed);
+            return existing == null ? computed : existing;
+        }
+    }
+
+    public void clear() {
+        for (Stripe<K, V> stripe: stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCount() {
+        int count = 0;
+        for (Stripe<K, V> stripe: stripes) {
+            synchronized (stripe) {
+                count += stripe.size();
+            }
+        }
+        return count;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + getCount() + "/" + size + " hits:" + getHits() + " misses:" + getMisses() + "]";
+    }
+
+    private Stripe<K, V> stripe(K key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ hash >>> 16) & stripes.length - 1];
+    }
+
+    private static final int MAX_STRIPES = 16;
+
+    private static final int MIN_STRIPE_SIZE = 64;
+
+    private static final class Stripe<K, V> extends LinkedHashMap<K, V> {
+
+        private final int size;
+
+        private Stripe(int size) {
+            super(16, .75f, true);
+            this.size = size;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > size;
+        }
+    }
+}
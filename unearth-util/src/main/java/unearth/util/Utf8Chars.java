@@ -0,0 +1,217 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A read-only {@link CharSequence} view of UTF-8 bytes, which decodes characters as they are asked for.
+ * {@link #subSequence(int, int) Subsequences} are views of the same bytes, so only {@link #toString()} copies.
+ * <p>
+ * All-ASCII content is indexed directly.  Other content is walked from the last position asked for, so access should
+ * be mostly sequential.  Malformed content is decoded up front, the same way {@link String} would decode it.
+ * <p>
+ * Not thread-safe.  The bytes must not change while the view is in use.
+ */
+public final class Utf8Chars implements CharSequence {
+
+    /**
+     * @param buffer Bytes between position and limit, which are not consumed
+     * @return A view of the bytes
+     */
+    public static CharSequence of(ByteBuffer buffer) {
+        ByteBuffer bytes = Objects.requireNonNull(buffer, "buffer").asReadOnlyBuffer();
+        int start = bytes.position();
+        int end = bytes.limit();
+        int length = 0;
+        boolean ascii = true;
+        for (int i = start; i < end; ) {
+            int width = width(bytes, i, end);
+            if (width < 0) {
+                return StandardCharsets.UTF_8.decode(bytes);
+            }
+            ascii &= width == 1;
+            length += width == 4 ? 2 : 1;
+            i += width;
+        }
+        return new Utf8Chars(bytes, start, end, length, ascii);
+    }
+
+    private final ByteBuffer bytes;
+
+    private final int start;
+
+    private final int end;
+
+    private final int length;
+
+    private final boolean ascii;
+
+    private int cursorChar;
+
+    private int cursorByte;
+
+    private Utf8Chars(ByteBuffer bytes, int start, int end, int length, boolean ascii) {
+        this.bytes = bytes;
+        this.start = start;
+        this.end = end;
+        this.length = length;
+        this.ascii = ascii;
+        this.cursorByte = start;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, length);
+        if (ascii) {
+            return (char) bytes.get(start + index);
+        }
+        seek(index);
+        int codePoint = codePoint(cursorByte);
+        if (Character.isBmpCodePoint(codePoint)) {
+            return (char) codePoint;
+        }
+        return index == cursorChar ? Character.highSurrogate(codePoint) : Character.lowSurrogate(codePoint);
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        Objects.checkFromToIndex(from, to, length);
+        if (ascii) {
+            return new Utf8Chars(bytes, start + from, start + to, to - from, true);
+        }
+        int fromByte = boundary(from);
+        int toByte = boundary(to);
+        if (fromByte < 0 || toByte < 0) {
+            return new StringBuilder(to - from).append(this, from, to).toString();
+        }
+        boolean asciiPart = true;
+        for (int i = fromByte; i < toByte && asciiPart; i++) {
+            asciiPart = bytes.get(i) >= 0;
+        }
+        return new Utf8Chars(bytes, fromByte, toByte, to - from, asciiPart);
+    }
+
+    @Override
+    public String toString() {
+        byte[] copy = new byte[end - start];
+        bytes.get(start, copy);
+        return new String(copy, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return Byte offset of the character at index, or -1 if it is the second half of a surrogate pair
+     */
+    private int boundary(int index) {
+        if (index == length) {
+            return end;
+        }
+        seek(index);
+        return index == cursorChar ? cursorByte : -1;
+    }
+
+    /**
+     * Moves the cursor to the code point holding the character at index.
+     */
+    private void seek(int index) {
+        while (cursorChar > index) {
+            do {
+                cursorByte--;
+            } while (isContinuation(bytes.get(cursorByte)));
+            cursorChar -= chars(bytes.get(cursorByte));
+        }
+        while (cursorChar + chars(bytes.get(cursorByte)) <= index) {
+            cursorChar += chars(bytes.get(cursorByte));
+            cursorByte += width(bytes.get(cursorByte));
+        }
+    }
+
+    private int codePoint(int position) {
+        byte lead = bytes.get(position);
+        int width = width(lead);
+        if (width == 1) {
+            return lead;
+        }
+        int codePoint = lead & (0xFF >> width + 1);
+        for (int i = 1; i < width; i++) {
+            codePoint = codePoint << 6 | bytes.get(position + i) & 0x3F;
+        }
+        return codePoint;
+    }
+
+    private static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    private static int chars(byte lead) {
+        return width(lead) == 4 ? 2 : 1;
+    }
+
+    private static int width(byte lead) {
+        return lead >= 0 ? 1
+            : (lead & 0xE0) == 0xC0 ? 2
+                : (lead & 0xF0) == 0xE0 ? 3
+                    : 4;
+    }
+
+    /**
+     * @return Byte width of the well-formed code point at position, or -1
+     */
+    private static int width(ByteBuffer bytes, int position, int end) {
+        int lead = bytes.get(position) & 0xFF;
+        if (lead < 0x80) {
+            return 1;
+        }
+        int width;
+        int low = 0x80;
+        int high = 0xBF;
+        if (lead >= 0xC2 && lead <= 0xDF) {
+            width = 2;
+        } else if (lead >= 0xE0 && lead <= 0xEF) {
+            width = 3;
+            low = lead == 0xE0 ? 0xA0 : low;
+            high = lead == 0xED ? 0x9F : high;
+        } else if (lead >= 0xF0 && lead <= 0xF4) {
+            width = 4;
+            low = lead == 0xF0 ? 0x90 : low;
+            high = lead == 0xF4 ? 0x8F : high;
+        } else {
+            return -1;
+        }
+        if (position + width > end) {
+            return -1;
+        }
+        int second = bytes.get(position + 1) & 0xFF;
+        if (second < low || second > high) {
+            return -1;
+        }
+        for (int i = 2; i < width; i++) {
+            if (!isContinuation(bytes.get(position + i))) {
+                return -1;
+            }
+        }
+        return width;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LruCacheTest {
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        LruCache<String, Integer> cache = LruCache.create(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        cache.put("c", 3);
+
+        assertNull(cache.get("b"));
+        assertEquals(Integer.valueOf(1), cache.get("a"));
+        assertEquals(Integer.valueOf(3), cache.get("c"));
+        assertEquals(2, cache.getCount());
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        LruCache<Integer, String> cache = LruCache.create(1000);
+        for (int i = 0; i < 10; i++) {
+            cache.computeIfAbsent(i % 5, String::valueOf);
+        }
+        assertEquals(5, cache.getHits());
+        assertEquals(5, cache.getMisses());
+        assertEquals(5, cache.getCount());
+    }
+
+    @Test
+    public void staysBounded() {
+        LruCache<Integer, Integer> cache = LruCache.create(1024);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, i);
+        }
+        assertEquals(1024, cache.getCount());
+    }
+}
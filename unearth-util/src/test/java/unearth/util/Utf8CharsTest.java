@@ -0,0 +1,80 @@
+/*
+ *     This file is part of Unearth.
+ *
+ *     Unearth is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     Unearth is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with Unearth.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package unearth.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class Utf8CharsTest {
+
+    @Test
+    public void readsAscii() {
+        assertViews("at foo.Bar.baz(Bar.java:42)\n\t... 3 more");
+    }
+
+    @Test
+    public void readsMultiByte() {
+        assertViews("\u00e6\u00f8\u00e5: \u20ac \ud83d\ude00 at \u65e5\u672c.Foo(Foo.java:1)\ud83d\ude00");
+    }
+
+    @Test
+    public void readsBackwards() {
+        String string = "a\u00e6b\u20acc\ud83d\ude00d";
+        CharSequence chars = Utf8Chars.of(ByteBuffer.wrap(string.getBytes(StandardCharsets.UTF_8)));
+        for (int i = string.length() - 1; i >= 0; i--) {
+            assertEquals(string.charAt(i), chars.charAt(i));
+        }
+    }
+
+    @Test
+    public void readsMalformedAsString() {
+        byte[] bytes = { 'a', (byte) 0xC3, 'b', (byte) 0xED, (byte) 0xA0, (byte) 0x80, 'c', (byte) 0xF0, (byte) 0x9F };
+        CharSequence chars = Utf8Chars.of(ByteBuffer.wrap(bytes));
+        assertEquals(new String(bytes, StandardCharsets.UTF_8), chars.toString());
+    }
+
+    @Test
+    public void readsBetweenPositionAndLimit() {
+        byte[] bytes = "xxat foo\u00e6yy".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length).put(bytes).position(2).limit(bytes.length - 2);
+        assertEquals("at foo\u00e6", Utf8Chars.of(buffer).toString());
+        assertEquals(2, buffer.position());
+    }
+
+    private static void assertViews(String string) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        for (CharSequence chars: new CharSequence[] { Utf8Chars.of(ByteBuffer.wrap(bytes)), Utf8Chars.of(direct) }) {
+            assertEquals(string.length(), chars.length());
+            assertEquals(string, chars.toString());
+            for (int from = 0; from <= string.length(); from++) {
+                for (int to = from; to <= string.length(); to++) {
+                    CharSequence sub = chars.subSequence(from, to);
+                    assertEquals(string.substring(from, to), sub.toString());
+                    for (int i = 0; i < sub.length(); i++) {
+                        assertEquals(string.charAt(from + i), sub.charAt(i));
+                    }
+                }
+            }
+        }
+    }
+}